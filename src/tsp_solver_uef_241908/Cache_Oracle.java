@@ -0,0 +1,64 @@
+package tsp_solver_uef_241908;
+import java.util.Arrays;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 1 of 40
+ *
+ * Distance_Oracle for the graphs too big for the matrix: a direct mapped cache of the pairs,
+ * the key of the pair a < b is a*n + b and it has one slot by its hash, a new pair replaces
+ * the old one there. The local searches ask mostly the same pairs near the tour edges, so a
+ * few slots per vertex (SLOTS_PER_VERTEX, at most MAX_SLOTS) catch most of them.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Cache_Oracle extends Distance_Oracle {
+    private static final int SLOTS_PER_VERTEX = 8;
+    private static final int MAX_SLOTS = 1 << 24;   // 256 MB (8 bytes of key and 8 of value per slot)
+    
+    private final long[] keys;                      // -1 = empty
+    private final double[] values;
+    private final int mask;
+    
+    /**
+     * The empty cache of the graph.
+     *
+     * @param points TSP_Instance
+     * @param explicit Explicit_Matrix, the weights of EXPLICIT (points is null), otherwise null
+     * @param weightType int, Edge_Weights.EUC_2D, CEIL_2D...
+     * @param neighbours int[], the candidate lists (Candidate_Sets), can be null
+     * @param k int
+     */
+    public Cache_Oracle(TSP_Instance points, Explicit_Matrix explicit, int weightType, int[] neighbours, int k) {
+        super(points, explicit, weightType, neighbours, k);
+        int slots = 1024;
+        while(slots < MAX_SLOTS && slots < (long)n * SLOTS_PER_VERTEX) {
+            slots *= 2;
+        }
+        keys = new long[slots];
+        values = new double[slots];
+        mask = slots - 1;
+        Arrays.fill(keys, -1);
+    }
+    
+    @Override
+    public double distance(int a, int b) {
+        long key = (a < b) ? (long)a * n + b : (long)b * n + a;
+        int slot = (int)((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        if(keys[slot] == key) {
+            hits++;
+            return values[slot];
+        }
+        misses++;
+        double value = compute(a, b);
+        keys[slot] = key;
+        values[slot] = value;
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,268 @@
+package tsp_solver_uef_241908;
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 2 of 40
+ *
+ * The candidate neighbour lists of the improvement heuristics: the local moves only try the
+ * k nearest vertices of a vertex as the new partners instead of all O(n) vertices.
+ * The lists are precomputed once with the k-d tree (KDTree.kNearest) and stored in one flat
+ * array, vertex i has its candidates at indexes i*k ... i*k+k-1, nearest first. "buildLists"
+ * gives them as an Int_Array in the storage of the coordinates, off-heap for the off-heap graphs.
+ *
+ * Quadrant balanced lists take k/4 nearest from each of the 4 quadrants around the vertex
+ * first (then the nearest others), so a vertex at the edge of a dense cluster still has
+ * candidates towards the other clusters. The huge graphs are built with all processor cores.
+ *
+ * The alpha-nearness lists (One_Tree) take the 1-tree sensitivity instead of the distance,
+ * the best edges of the optimal tour are usually among the 5 alpha-nearest.
+ *
+ * Used by Sub_algorithms.twoOptAndOrOpt, the candidate versions of linKernighan, Matching and
+ * NNHsprout and the logic fragments of the SOM.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Candidate_Sets {
+    
+    public static final int DEFAULT_K = 8;          // 5-10 is the usual choice
+    public static final int ALPHA_K = 5;            // the alpha-nearness lists are shorter
+    private static final int ALPHA_POOL_K = 10;     // the alpha values are computed for these neighbours
+    private static final int PARALLEL_LIMIT = 20000; // smaller graphs are built in one thread
+    private static final int CHUNK = 4096;           // vertices per parallel task
+    
+    /**
+     * The k nearest other vertices of every vertex, nearest first (flat int[n*k]).
+     * k must be from 1 to n-1, otherwise null is returned.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param k int
+     * @param quadrants boolean, quadrant balanced lists
+     * @return int[]
+     */
+    public static int[] build(double[] xs, double[] ys, int k, boolean quadrants) {
+        return build(new Double_Instance(xs, ys), k, quadrants);
+    }
+    
+    /**
+     * Same as above for a TSP_Instance, the coordinates are read through the instance and 
+     * the k-d tree keeps its copy in the storage of the instance (no double copy of a float 
+     * or off-heap graph). 
+     *
+     * @param points TSP_Instance
+     * @param k int
+     * @param quadrants boolean
+     * @return int[]
+     */
+    public static int[] build(TSP_Instance points, int k, boolean quadrants) {
+        Int_Array candidates = build(points, k, quadrants, TSP_Instance.STORAGE_DOUBLE); // on the heap 
+        return (candidates == null) ? null : ((Heap_Ints)candidates).getValues();
+    }
+    
+    /**
+     * Same as above as an Int_Array in the storage of the instance (Int_Array.allocate), 
+     * release it after use. 
+     *
+     * @param points TSP_Instance
+     * @param k int
+     * @param quadrants boolean
+     * @return Int_Array
+     */
+    public static Int_Array buildLists(TSP_Instance points, int k, boolean quadrants) {
+        return build(points, k, quadrants, points.getStorage());
+    }
+    
+    private static Int_Array build(TSP_Instance points, int k, boolean quadrants, int storage) {
+        int n = points.size();
+        if(k < 1 || k > n-1) {
+            System.out.println("The candidate list length " + k + " is not possible with " + n + " vertices");
+            return null;
+        }
+        KDTree tree = new KDTree(n, points.getStorage());
+        tree.build(points, n);
+        Int_Array candidates = Int_Array.allocate(storage, n*k);
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        IntStream range = IntStream.range(0, chunks);
+        if(n >= PARALLEL_LIMIT) {
+            range = range.parallel();
+        }
+        range.forEach(c -> {
+            KDTree view = tree.sharedView(); // own search state for every task
+            int[] indexes = new int[k];
+            double[] distances = new double[k];
+            int[] quadrantIndexes = new int[k];
+            double[] quadrantDistances = new double[k];
+            for(int i = c * CHUNK; i < Math.min(n, (c+1) * CHUNK); i++) {
+                if(quadrants && k >= 4) {
+                    fillQuadrantBalanced(view, points.getX(i), points.getY(i), i, k, indexes, distances,
+                            quadrantIndexes, quadrantDistances);
+                }
+                else {
+                    view.kNearest(points.getX(i), points.getY(i), k, i, -1, indexes, distances);
+                }
+                for(int l = 0; l < k; l++) {
+                    candidates.set(i*k + l, indexes[l]);
+                }
+            }
+        });
+        tree.release();
+        return candidates;
+    }
+    
+    /**
+     * Same as above for the coordinate lists of the older algorithms.
+     *
+     * @param coordinates_x ArrayList
+     * @param coordinates_y ArrayList
+     * @param k int
+     * @param quadrants boolean
+     * @return int[]
+     */
+    public static int[] build(ArrayList coordinates_x, ArrayList coordinates_y, int k, boolean quadrants) {
+        int n = Math.min(coordinates_x.size(), coordinates_y.size());
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for(int i = 0; i < n; i++) {
+            xs[i] = (double)coordinates_x.get(i);
+            ys[i] = (double)coordinates_y.get(i);
+        }
+        return build(xs, ys, k, quadrants);
+    }
+    
+    /**
+     * Same as above for a tour as a point list xy xy xy..., the start point again at the end
+     * is not a vertex of its own. Vertex i is the i:th point of the list.
+     *
+     * @param coordinates ArrayList
+     * @param k int
+     * @param quadrants boolean
+     * @return int[]
+     */
+    public static int[] buildForTour(ArrayList coordinates, int k, boolean quadrants) {
+        double[][] xy = tourArrays(coordinates);
+        return build(xy[0], xy[1], k, quadrants);
+    }
+    
+    /**
+     * The alpha-nearness lists (see below) for a tour as a point list xy xy xy..., 
+     * vertex i is the i:th point of the list like in "buildForTour".
+     *
+     * @param coordinates ArrayList
+     * @param count int
+     * @param iterations int
+     * @return int[]
+     */
+    public static int[] buildAlphaNearnessForTour(ArrayList coordinates, int count, int iterations) {
+        double[][] xy = tourArrays(coordinates);
+        return buildAlphaNearness(xy[0], xy[1], count, iterations);
+    }
+    
+    /**
+     * The "count" alpha-nearest vertices of every vertex (flat int[n*count], smallest alpha first):
+     * the minimum 1-tree with subgradient optimized pi values is computed on the quadrant balanced
+     * 10 nearest graph, "iterations" is the maximum 1-tree count of the optimization.
+     * Returns null if the graph is too small (count must be from 1 to n-1).
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param count int
+     * @param iterations int
+     * @return int[]
+     */
+    public static int[] buildAlphaNearness(double[] xs, double[] ys, int count, int iterations) {
+        int n = xs.length;
+        if(count < 1 || count > n-1) {
+            System.out.println("The candidate list length " + count + " is not possible with " + n + " vertices");
+            return null;
+        }
+        int k = Math.max(count, lengthFor(ALPHA_POOL_K, n));
+        int[] pool = build(xs, ys, k, true);
+        One_Tree tree = new One_Tree(xs, ys, pool, k);
+        tree.optimize(iterations);
+        return tree.alphaNearest(count);
+    }
+    
+    /**
+     * The candidate length for a graph of n vertices: "wanted" but at most n-1.
+     *
+     * @param wanted int
+     * @param n int
+     * @return int
+     */
+    public static int lengthFor(int wanted, int n) {
+        return Math.max(1, Math.min(wanted, n-1));
+    }
+    
+    /**
+     * k/4 nearest from every quadrant, then the nearest others until there are k, sorted by the distance.
+     */
+    private static void fillQuadrantBalanced(KDTree view, double x, double y, int i, int k,
+            int[] indexes, double[] distances, int[] quadrantIndexes, double[] quadrantDistances) {
+        int count = 0;
+        for(int q = 0; q < 4; q++) {
+            int found = view.kNearest(x, y, k/4, i, q, quadrantIndexes, quadrantDistances);
+            for(int j = 0; j < found; j++) {
+                indexes[count] = quadrantIndexes[j];
+                distances[count] = quadrantDistances[j];
+                count++;
+            }
+        }
+        if(count < k) { // empty quadrants (for example the convex hull vertices), the nearest others
+            int found = view.kNearest(x, y, k, i, -1, quadrantIndexes, quadrantDistances);
+            for(int j = 0; j < found && count < k; j++) {
+                if(!contains(indexes, count, quadrantIndexes[j])) {
+                    indexes[count] = quadrantIndexes[j];
+                    distances[count] = quadrantDistances[j];
+                    count++;
+                }
+            }
+        }
+        for(int a = 1; a < count; a++) { // insertion sort, k is small
+            int index = indexes[a];
+            double d = distances[a];
+            int b = a;
+            while(b > 0 && distances[b-1] > d) {
+                indexes[b] = indexes[b-1];
+                distances[b] = distances[b-1];
+                b--;
+            }
+            indexes[b] = index;
+            distances[b] = d;
+        }
+    }
+    
+    /**
+     * The X and Y arrays of a tour point list, without the start point again at the end.
+     */
+    private static double[][] tourArrays(ArrayList coordinates) {
+        int n = coordinates.size()/2;
+        if(n > 1 && coordinates.get(0).equals(coordinates.get(2*n-2)) &&
+                coordinates.get(1).equals(coordinates.get(2*n-1))) {
+            n--;
+        }
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for(int i = 0; i < n; i++) {
+            xs[i] = (double)coordinates.get(2*i);
+            ys[i] = (double)coordinates.get(2*i +1);
+        }
+        return new double[][] {xs, ys};
+    }
+    
+    private static boolean contains(int[] values, int count, int value) {
+        for(int j = 0; j < count; j++) {
+            if(values[j] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
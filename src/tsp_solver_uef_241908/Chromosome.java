@@ -2,7 +2,7 @@ package tsp_solver_uef_241908;
 import java.util.ArrayList;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 1 of 11, alphabetical order 
+ * TSP Solver by Tuomas Hyvönen, Java file 3 of 40, alphabetical order 
  * 
  * The Chromosome class. 
  * A chromosome is in other words a Hamiltonian circuit instance, also known as 
@@ -21,6 +21,7 @@ public class Chromosome {
     // private final String nameID;
     private Logic_Stack logicstack;
     private final ArrayList points; // odds = Xs, evens = Ys  // class "Point.java" might turn out to be unnecessary 
+    private double fitness = -1;    // cached tour length, -1 = not calculated yet 
     // note: "ArrayList points" can and must change if needed, copying the chromosome instances all the time is 
     // another story, delete the "final" if necessary 
     
@@ -43,6 +44,20 @@ public class Chromosome {
         this.points = points;
     }
     
+    /**
+     * Copies a chromosome: the points are cloned and the cached fitness is kept, 
+     * the logic stack is not copied. 
+     * 
+     * @param c Chromosome
+     * @param nameID String
+     * @return Chromosome
+     */
+    public static Chromosome copyOf(Chromosome c, String nameID) {
+        Chromosome copy = new Chromosome(nameID, (ArrayList)c.points.clone());
+        copy.fitness = c.fitness;
+        return copy;
+    }
+    
     /**
      * Get chromosome (TSP tour, Hamiltonian circuit)
      * 
@@ -52,6 +67,57 @@ public class Chromosome {
         return this.points;
     }
     
+    /**
+     * Get the fitness (the tour length) of the chromosome. The length is calculated 
+     * only once from the points and then cached, the moves that change the tour should 
+     * call "updateFitness" with their delta instead of recalculating everything.
+     * 
+     * @return double
+     */
+    public double getFitness() {
+        if(this.fitness < 0) {
+            this.fitness = calculateTourLength(this.points);
+        }
+        return this.fitness;
+    }
+    
+    /**
+     * Delta evaluation: add the change of the tour length to the cached fitness. 
+     * A negative delta means that the tour became shorter. 
+     * 
+     * @param delta double
+     */
+    public void updateFitness(double delta) {
+        if(this.fitness >= 0) {
+            this.fitness += delta;
+        }
+    }
+    
+    /**
+     * Forget the cached fitness, call this if the points were changed without knowing the delta.
+     */
+    public void invalidateFitness() {
+        this.fitness = -1;
+    }
+    
+    /**
+     * Calculates the tour length of points stored like xy xy xy... 
+     * where the last point is the same as the first one.
+     * 
+     * @param points ArrayList
+     * @return double
+     */
+    public static double calculateTourLength(ArrayList points) {
+        int count = points.size()/2;
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for(int i = 0; i < count; i++) {
+            xs[i] = (double)points.get(2*i);
+            ys[i] = (double)points.get(2*i +1);
+        }
+        return Distance_Kernels.pathLength(xs, ys, count, false, new double[count]);
+    }
+    
     /**
      * Get the logic stack of a chromosome.
      * 
@@ -0,0 +1,164 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 4 of 40
+ *
+ * The Clarke-Wright savings heuristic: every vertex starts as its own route from the hub and
+ * back (the hub is the vertex nearest to the centroid). Joining the routes of i and j saves
+ * d(hub, i) + d(hub, j) - d(i, j), the joins are taken biggest saving first whenever i and j
+ * are still route ends of two different routes. The savings are computed only for the
+ * candidate edges (k nearest neighbours) and kept in a primitive binary max-heap, so the time
+ * is O(n k log n). The routes left in the end are chained like the greedy edge fragments
+ * (Greedy_Edge), the hub with them.
+ *
+ * Good for the clustered (depot-style) graphs: the far clusters are joined first and the
+ * routes come back towards the hub, where NNH and CHH make their long jumps.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Clarke_Wright {
+    
+    public static final int CANDIDATES = 10;    // the savings of the 10 nearest neighbours of every vertex
+    
+    private final int[] heap;                   // the edge indexes, the biggest saving first
+    private final double[] savings;
+    private int heapSize;
+    
+    private Clarke_Wright(double[] savings, int edgeCount) {
+        this.savings = savings;
+        heap = new int[edgeCount];
+        for(int e = 0; e < edgeCount; e++) {
+            heap[e] = e;
+        }
+        heapSize = edgeCount;
+        for(int i = heapSize/2 - 1; i >= 0; i--) { // heapify, O(m)
+            siftDown(i);
+        }
+    }
+    
+    /**
+     * The savings tour, a vertex order without the start vertex at the end.
+     *
+     * @param points TSP_Instance
+     * @return int[]
+     */
+    public static int[] tour(TSP_Instance points) {
+        int n = points.size();
+        if(n < 4) {
+            int[] tour = new int[n];
+            for(int i = 0; i < n; i++) {
+                tour[i] = i;
+            }
+            return tour;
+        }
+        int hub = nearestToTheCentroid(points);
+        double[] hubDistances = new double[n];
+        for(int i = 0; i < n; i++) {
+            hubDistances[i] = points.distance(hub, i);
+        }
+    
+        int k = Candidate_Sets.lengthFor(CANDIDATES, n);
+        int[] candidates = Candidate_Sets.build(points, k, false);
+        int[] from = new int[n*k];
+        int[] to = new int[n*k];
+        double[] savings = new double[n*k];
+        int edgeCount = 0;
+        for(int i = 0; i < n; i++) {
+            if(i == hub) {
+                continue;
+            }
+            for(int c = 0; c < k; c++) {
+                int j = candidates[i*k + c];
+                if(j < 0 || j == hub || (j < i && isCandidate(candidates, k, j, i))) { // every edge once
+                    continue;
+                }
+                from[edgeCount] = i;
+                to[edgeCount] = j;
+                savings[edgeCount] = hubDistances[i] + hubDistances[j]
+                        - points.distance(i, j);
+                edgeCount++;
+            }
+        }
+        candidates = null;
+    
+        Clarke_Wright queue = new Clarke_Wright(savings, edgeCount);
+        Greedy_Edge routes = new Greedy_Edge(points);
+        int fragments = n;                      // the hub stays alone until the routes are chained
+        while(queue.heapSize > 0 && fragments > 2) {
+            int e = queue.pop();
+            if(routes.addEdge(from[e], to[e])) {
+                fragments--;
+            }
+        }
+        System.out.println("Clarke-Wright savings: " + (fragments - 1) + " routes to chain");
+        return routes.joinFragments(fragments);
+    }
+    
+    private static int nearestToTheCentroid(TSP_Instance points) {
+        int n = points.size();
+        double centroidX = 0;
+        double centroidY = 0;
+        for(int i = 0; i < n; i++) {
+            centroidX += points.getX(i);
+            centroidY += points.getY(i);
+        }
+        centroidX /= n;
+        centroidY /= n;
+        int nearest = 0;
+        double best = Double.MAX_VALUE;
+        for(int i = 0; i < n; i++) {
+            double d = Sub_algorithms.Euclidean_distance_squared(centroidX, centroidY, points.getX(i), points.getY(i));
+            if(d < best) {
+                best = d;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+    
+    private static boolean isCandidate(int[] candidates, int k, int i, int j) {
+        for(int l = 0; l < k; l++) {
+            if(candidates[i*k + l] == j) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Removes and returns the edge with the biggest saving.
+     */
+    private int pop() {
+        int top = heap[0];
+        heap[0] = heap[--heapSize];
+        siftDown(0);
+        return top;
+    }
+    
+    private void siftDown(int i) {
+        int e = heap[i];
+        double saving = savings[e];
+        while(true) {
+            int child = 2*i + 1;
+            if(child >= heapSize) {
+                break;
+            }
+            if(child + 1 < heapSize && savings[heap[child + 1]] > savings[heap[child]]) {
+                child++;
+            }
+            if(savings[heap[child]] <= saving) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = e;
+    }
+}
\ No newline at end of file
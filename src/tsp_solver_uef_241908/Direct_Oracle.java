@@ -0,0 +1,39 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 5 of 40
+ *
+ * Distance_Oracle that stores nothing but the neighbour distances: every other distance is
+ * computed (a miss). The fastest one for the Euclidean points, where the square root costs
+ * less than a cache miss of a big matrix.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Direct_Oracle extends Distance_Oracle {
+    
+    /**
+     * The oracle of the graph.
+     *
+     * @param points TSP_Instance
+     * @param explicit Explicit_Matrix, the weights of EXPLICIT (points is null), otherwise null
+     * @param weightType int, Edge_Weights.EUC_2D, CEIL_2D...
+     * @param neighbours int[], the candidate lists (Candidate_Sets), can be null
+     * @param k int
+     */
+    public Direct_Oracle(TSP_Instance points, Explicit_Matrix explicit, int weightType, int[] neighbours, int k) {
+        super(points, explicit, weightType, neighbours, k);
+    }
+    
+    @Override
+    public double distance(int a, int b) {
+        misses++;
+        return compute(a, b);
+    }
+}
\ No newline at end of file
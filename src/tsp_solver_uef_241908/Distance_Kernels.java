@@ -0,0 +1,192 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 6 of 40
+ *
+ * The hot distance loops over primitive coordinate arrays (structure of arrays: all Xs in one
+ * array, all Ys in another), for example the Best Matching Unit search of the SOM, the nearest
+ * unvisited vertex of the NNH and the tour length sums.
+ *
+ * The loops are written so that the HotSpot JIT compiler can use the SIMD instructions by itself
+ * (superword auto-vectorization): first a simple loop writes all the distances to a scratch
+ * array, only then the minimum or the sum is searched. There are double and float versions,
+ * the sums are always accumulated as doubles. The Vector API (jdk.incubator.vector) would need
+ * Java 16+ and this project is still compiled for Java 8.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Distance_Kernels {
+    
+    /**
+     * Writes the squared Euclidean distances from (qx, qy) to the first "count" points to "out".
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param count int
+     * @param qx double
+     * @param qy double
+     * @param out double[]
+     */
+    public static void squaredDistances(double[] xs, double[] ys, int count, double qx, double qy, double[] out) {
+        for(int i = 0; i < count; i++) {
+            double dx = xs[i] - qx;
+            double dy = ys[i] - qy;
+            out[i] = dx*dx + dy*dy;
+        }
+    }
+    
+    /**
+     * Same as above for the float coordinates, the distances are doubles.
+     *
+     * @param xs float[]
+     * @param ys float[]
+     * @param count int
+     * @param qx double
+     * @param qy double
+     * @param out double[]
+     */
+    public static void squaredDistances(float[] xs, float[] ys, int count, double qx, double qy, double[] out) {
+        for(int i = 0; i < count; i++) {
+            double dx = xs[i] - qx;
+            double dy = ys[i] - qy;
+            out[i] = dx*dx + dy*dy;
+        }
+    }
+    
+    /**
+     * Returns the index of the smallest of the first "count" values, the first one if there are
+     * equal values, -1 if count is 0.
+     *
+     * @param values double[]
+     * @param count int
+     * @return int
+     */
+    public static int argMin(double[] values, int count) {
+        int best = -1;
+        double bestValue = Double.MAX_VALUE;
+        for(int i = 0; i < count; i++) {
+            if(values[i] < bestValue) {
+                bestValue = values[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * The index of the point that is nearest to (qx, qy), the first one if there are equally
+     * near points. "scratch" must have at least "count" places, its contents are overwritten.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param count int
+     * @param qx double
+     * @param qy double
+     * @param scratch double[]
+     * @return int
+     */
+    public static int nearest(double[] xs, double[] ys, int count, double qx, double qy, double[] scratch) {
+        squaredDistances(xs, ys, count, qx, qy, scratch);
+        return argMin(scratch, count);
+    }
+    
+    /**
+     * Same as above for the float coordinates.
+     *
+     * @param xs float[]
+     * @param ys float[]
+     * @param count int
+     * @param qx double
+     * @param qy double
+     * @param scratch double[]
+     * @return int
+     */
+    public static int nearest(float[] xs, float[] ys, int count, double qx, double qy, double[] scratch) {
+        squaredDistances(xs, ys, count, qx, qy, scratch);
+        return argMin(scratch, count);
+    }
+    
+    /**
+     * The length of the path through the first "count" points in the array order,
+     * if "closed" is true the edge from the last point back to the first one is added.
+     * "scratch" must have at least "count" places.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param count int
+     * @param closed boolean
+     * @param scratch double[]
+     * @return double
+     */
+    public static double pathLength(double[] xs, double[] ys, int count, boolean closed, double[] scratch) {
+        if(count < 2) {
+            return 0;
+        }
+        for(int i = 0; i < count-1; i++) {
+            double dx = xs[i+1] - xs[i];
+            double dy = ys[i+1] - ys[i];
+            scratch[i] = Math.sqrt(dx*dx + dy*dy);
+        }
+        double length = sum(scratch, count-1);
+        if(closed) {
+            length += Sub_algorithms.Euclidean_distance(xs[count-1], ys[count-1], xs[0], ys[0]);
+        }
+        return length;
+    }
+    
+    /**
+     * Same as above for the float coordinates, the length is accumulated as a double.
+     *
+     * @param xs float[]
+     * @param ys float[]
+     * @param count int
+     * @param closed boolean
+     * @param scratch double[]
+     * @return double
+     */
+    public static double pathLength(float[] xs, float[] ys, int count, boolean closed, double[] scratch) {
+        if(count < 2) {
+            return 0;
+        }
+        for(int i = 0; i < count-1; i++) {
+            double dx = (double)xs[i+1] - xs[i];
+            double dy = (double)ys[i+1] - ys[i];
+            scratch[i] = Math.sqrt(dx*dx + dy*dy);
+        }
+        double length = sum(scratch, count-1);
+        if(closed) {
+            length += Sub_algorithms.Euclidean_distance(xs[count-1], ys[count-1], xs[0], ys[0]);
+        }
+        return length;
+    }
+    
+    /**
+     * Sum of the first "count" values with 4 separate accumulators, so the additions
+     * do not have to wait for each other.
+     *
+     * @param values double[]
+     * @param count int
+     * @return double
+     */
+    public static double sum(double[] values, int count) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for(; i + 3 < count; i += 4) {
+            s0 += values[i];
+            s1 += values[i+1];
+            s2 += values[i+2];
+            s3 += values[i+3];
+        }
+        for(; i < count; i++) {
+            s0 += values[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
\ No newline at end of file
@@ -1,10 +1,14 @@
 package tsp_solver_uef_241908;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 
 /** 
- * TSP Solver by Tuomas Hyvönen, Java file 2 of 11 
+ * TSP Solver by Tuomas Hyvönen, Java file 9 of 40 
  * 
  * Implements a stack of decimal real numbers (doubles). 
- * The maximum number of elements allowed in the stack is given by MAX_SIZE. 
+ * The array starts small and its size is doubled when it is full, 
+ * the maximum number of elements allowed in the stack is given by MAX_SIZE. 
+ * The temporary stacks can be borrowed from a per-thread pool (borrow, giveBack). 
  * 
  * Partly based on https://courses.cs.washington.edu/courses/cse326/03su/homework/hw1/DoubleStack.java 
  * by the Paul G. Allen School of Computer Science and Engineering, University of Washington 
@@ -21,18 +25,50 @@ package tsp_solver_uef_241908;
  * @version 2.0 
  */
 public class DoubleStack {
-    private final double[] DATA;
+    private double[] data;
     private int topIndex;
     private static final int MAX_SIZE = 5000000;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int POOL_SIZE = 8;                      // stacks kept per thread 
+    private static final int MAX_POOLED_CAPACITY = 1 << 20;      // 8 MB 
+    private static final ThreadLocal<ArrayDeque<DoubleStack>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
     
     /**
      * The constructor.
      */
     public DoubleStack() {
-        DATA = new double[MAX_SIZE];
+        data = new double[INITIAL_CAPACITY];
         topIndex = -1;
     } 
     
+    /**
+     * Takes an empty stack from the pool of this thread, or creates a new one if the pool is empty. 
+     * Give it back with "giveBack" when it is not needed anymore, then the next "borrow" 
+     * does not have to allocate and grow a new array again. 
+     * 
+     * @return DoubleStack
+     */
+    public static DoubleStack borrow() {
+        ArrayDeque<DoubleStack> pool = POOL.get();
+        DoubleStack stack = pool.pollFirst();
+        return (stack != null) ? stack : new DoubleStack();
+    }
+    
+    /**
+     * Returns a borrowed stack to the pool of this thread, the caller must not use it after this. 
+     * The very large stacks are left to the garbage collector, so the pool does not keep 
+     * the memory of one huge run. 
+     * 
+     * @param stack DoubleStack
+     */
+    public static void giveBack(DoubleStack stack) {
+        ArrayDeque<DoubleStack> pool = POOL.get();
+        if(stack != null && pool.size() < POOL_SIZE && stack.data.length <= MAX_POOLED_CAPACITY) {
+            stack.empty();
+            pool.addFirst(stack);
+        }
+    }
+    
     /**
      * Return the top index.
      * @return topIndex integer
@@ -71,7 +107,10 @@ public class DoubleStack {
     public void push(double x) {
         if(isFull() == false) {
             topIndex++;
-            DATA[topIndex] = x;
+            if(topIndex == data.length) {
+                data = Arrays.copyOf(data, (int)Math.min(2L * data.length, MAX_SIZE));
+            }
+            data[topIndex] = x;
             //System.out.println("push(double): Pushes " + data[topIndex] + 
             //        " to the stack. ");
         }
@@ -88,7 +127,7 @@ public class DoubleStack {
     public double top() {
         if(isEmpty() == false) {
             //System.out.println("top(): Returns " + data[topIndex] + ". ");
-            return DATA[topIndex];
+            return data[topIndex];
         }
         else{
             //System.out.println("\t\t top(): Tried to return the top "
@@ -103,7 +142,7 @@ public class DoubleStack {
     public void pop() {
         if(isEmpty() == false) {
             //System.out.println("pop(): Removes " + data[topIndex] + ". ");
-            DATA[topIndex] = Double.MAX_VALUE; 
+            data[topIndex] = Double.MAX_VALUE; 
             topIndex--;
         }
         else{
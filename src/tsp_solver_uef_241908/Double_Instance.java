@@ -0,0 +1,115 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 8 of 40 
+ * 
+ * TSP_Instance with double coordinates, the default storage. 
+ * The arrays can be used directly by the algorithms (getXs, getYs). 
+ * 
+ * Open source Java code, feel free to edit and try your own improvements. 
+ * Tested with Windows 11 
+ * Apache NetBeans 17 
+ * Java JRE 8u371 64bit 
+ * Java JDK 18.0.2 64bit 
+ * 
+ * @author Tuomas Hyvönen 
+ * @version 2.0 
+ */
+public class Double_Instance extends TSP_Instance {
+    private final double[] xs;
+    private final double[] ys;
+    
+    /**
+     * The constructor, all coordinates are 0 at first.
+     * 
+     * @param size int
+     */
+    public Double_Instance(int size) {
+        xs = new double[size];
+        ys = new double[size];
+    }
+    
+    /**
+     * The constructor for existing arrays, they are not copied.
+     * 
+     * @param xs double[]
+     * @param ys double[]
+     */
+    public Double_Instance(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+    }
+    
+    @Override
+    public int size() {
+        return xs.length;
+    }
+    
+    @Override
+    public int getStorage() {
+        return STORAGE_DOUBLE;
+    }
+    
+    @Override
+    public double getX(int i) {
+        return xs[i];
+    }
+    
+    @Override
+    public double getY(int i) {
+        return ys[i];
+    }
+    
+    @Override
+    public void setPoint(int i, double x, double y) {
+        xs[i] = x;
+        ys[i] = y;
+    }
+    
+    /**
+     * Returns the x coordinate array itself.
+     * 
+     * @return double[]
+     */
+    public double[] getXs() {
+        return xs;
+    }
+    
+    /**
+     * Returns the y coordinate array itself.
+     * 
+     * @return double[]
+     */
+    public double[] getYs() {
+        return ys;
+    }
+    
+    @Override
+    public int nearest(double qx, double qy, int count, double[] scratch) {
+        return Distance_Kernels.nearest(xs, ys, count, qx, qy, scratch);
+    }
+    
+    @Override
+    public double distance(int i, int j) {
+        double dx = xs[i] - xs[j];
+        double dy = ys[i] - ys[j];
+        return Math.sqrt(dx*dx + dy*dy);
+    }
+    
+    @Override
+    public boolean hasEqualPoints() {
+        int n = xs.length;
+        int[] order = new int[n]; // the equal coordinates are next to each other after sorting 
+        for(int j = 0; j < n; j++) {
+            order[j] = j;
+        }
+        Sub_algorithms.sortIndexesByKeys(order, xs, ys);
+        for(int j = 1; j < n; j++) {
+            if(xs[order[j]] == xs[order[j-1]] && ys[order[j]] == ys[order[j-1]]) {
+                System.out.println("equal coordinates" + xs[order[j]] + ", " + ys[order[j]]);
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 10 of 40
+ *
+ * The tsplib edge weight types and their distance functions (see TSPLIB 95 by G. Reinelt):
+ *
+ * - EUC_2D: the Euclidean distance, not rounded like everywhere else in this program
+ * - CEIL_2D: the Euclidean distance rounded up
+ * - ATT: the pseudo-Euclidean distance of the att48 and att532 graphs
+ * - GEO: the distance on the Earth in kilometers, x is the latitude and y the longitude in the
+ *   DDD.MM format (degrees and minutes)
+ * - MAN_2D: the Manhattan distance |dx| + |dy| rounded
+ * - EXPLICIT: the weights are given as a matrix (Explicit_Matrix)
+ *
+ * The rounding is the nint of tsplib, (int)(x + 0.5). The GEO degrees are the integer part of
+ * the coordinate like in the published optimal tour lengths (gr137, ulysses22...).
+ *
+ * Every type has its own static method, Distance_Oracle.compute picks one with a switch on the
+ * type, so each call is a plain static call that the JIT can inline (no virtual calls).
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Edge_Weights {
+    public static final int UNKNOWN = -1;
+    public static final int EUC_2D = 0;
+    public static final int CEIL_2D = 1;
+    public static final int ATT = 2;
+    public static final int GEO = 3;
+    public static final int MAN_2D = 4;
+    public static final int EXPLICIT = 5;
+    
+    private static final String[] NAMES = {"EUC_2D", "CEIL_2D", "ATT", "GEO", "MAN_2D", "EXPLICIT"};
+    private static final double PI = 3.141592;          // the tsplib value, not Math.PI
+    private static final double EARTH_RADIUS = 6378.388;
+    
+    /**
+     * The edge weight type of a tsplib graph, from the "EDGE_WEIGHT_TYPE" row. A graph without
+     * that row but with "EUC_2D" somewhere is EUC_2D like before. UNKNOWN if the type is none of
+     * the above.
+     *
+     * @param input String
+     * @return int
+     */
+    public static int typeOf(String input) {
+        int index = input.indexOf("EDGE_WEIGHT_TYPE");
+        if(index < 0) {
+            return input.contains("EUC_2D") ? EUC_2D : UNKNOWN;
+        }
+        int end = input.indexOf('\n', index);
+        String row = input.substring(index + 16, (end < 0) ? input.length() : end).replace(':', ' ').trim();
+        for(int type = 0; type < NAMES.length; type++) {
+            if(row.equals(NAMES[type])) {
+                return type;
+            }
+        }
+        System.out.println("Unknown edge weight type: " + row);
+        return UNKNOWN;
+    }
+    
+    /**
+     * The name of a type for the messages.
+     *
+     * @param type int
+     * @return String
+     */
+    public static String name(int type) {
+        return (type >= 0 && type < NAMES.length) ? NAMES[type] : "unknown";
+    }
+    
+    /**
+     * CEIL_2D: the Euclidean distance rounded up.
+     *
+     * @param x1 double
+     * @param y1 double
+     * @param x2 double
+     * @param y2 double
+     * @return double
+     */
+    public static double ceil2D(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.ceil(Math.sqrt(dx*dx + dy*dy));
+    }
+    
+    /**
+     * ATT: the pseudo-Euclidean distance sqrt((dx² + dy²) / 10), rounded up if the nearest
+     * integer is less than it.
+     *
+     * @param x1 double
+     * @param y1 double
+     * @param x2 double
+     * @param y2 double
+     * @return double
+     */
+    public static double att(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        double r = Math.sqrt((dx*dx + dy*dy) / 10.0);
+        double t = Math.floor(r + 0.5);
+        return (t < r) ? t + 1 : t;
+    }
+    
+    /**
+     * GEO: the distance in kilometers between two points whose latitudes and longitudes are
+     * already in radians (see geoRadians).
+     *
+     * @param latitude1 double
+     * @param longitude1 double
+     * @param latitude2 double
+     * @param longitude2 double
+     * @return double
+     */
+    public static double geo(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double q1 = Math.cos(longitude1 - longitude2);
+        double q2 = Math.cos(latitude1 - latitude2);
+        double q3 = Math.cos(latitude1 + latitude2);
+        return (int)(EARTH_RADIUS * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+    }
+    
+    /**
+     * A GEO coordinate DDD.MM (degrees and minutes) in radians like in tsplib.
+     *
+     * @param coordinate double
+     * @return double
+     */
+    public static double geoRadians(double coordinate) {
+        double degrees = (int)coordinate;
+        double minutes = coordinate - degrees;
+        return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+    }
+    
+    /**
+     * MAN_2D: the Manhattan distance |dx| + |dy| rounded.
+     *
+     * @param x1 double
+     * @param y1 double
+     * @param x2 double
+     * @param y2 double
+     * @return double
+     */
+    public static double man2D(double x1, double y1, double x2, double y2) {
+        return Math.floor(Math.abs(x1 - x2) + Math.abs(y1 - y2) + 0.5);
+    }
+}
\ No newline at end of file
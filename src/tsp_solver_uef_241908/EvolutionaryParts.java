@@ -5,7 +5,7 @@ import java.util.List;
 import static tsp_solver_uef_241908.Sub_algorithms.Euclidean_distance;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 3 of 11 
+ * TSP Solver by Tuomas Hyvönen, Java file 11 of 40 
  * 
  * A class of some evolutionary computing parts, the genetic algorithm tools. 
  * The original idea was to include all of the evolution codes here but it 
@@ -22,6 +22,8 @@ import static tsp_solver_uef_241908.Sub_algorithms.Euclidean_distance;
  * @version 2.0 
  */
 public class EvolutionaryParts {
+    
+    private static final int MEMETIC_NEIGHBOURS = 8; // neighbour list length in the memetic local search 
 
     /**
      * Selection (after selection, there are still crossing-over and mutation parts later): 
@@ -37,6 +39,21 @@ public class EvolutionaryParts {
      * @return List
      */
     public static List selectWhatWillBePairedThenCrossingOverAndMutation(List instances, List logicStackCopiesOfOriginals) {
+        return selectWhatWillBePairedThenCrossingOverAndMutation(instances, logicStackCopiesOfOriginals, false);
+    }
+    
+    /**
+     * Same as above, but with the memetic mode: when "memetic" is true, every child gets its own 
+     * copy of the points and is immediately improved with the neighbour list 2-opt and Or-opt 
+     * local search before the selection (see "improveWithLocalSearch"). 
+     * 
+     * @param instances List
+     * @param logicStackCopiesOfOriginals List
+     * @param memetic boolean
+     * @return List
+     */
+    public static List selectWhatWillBePairedThenCrossingOverAndMutation(List instances, List logicStackCopiesOfOriginals, 
+            boolean memetic) {
         /**
         List logicStackCopiesOfOriginals = new ArrayList();
         for(int chro = 0; chro < instances.size(); chro++) {
@@ -73,15 +90,27 @@ public class EvolutionaryParts {
         }
         
         int originalInstanceSize = instances.size();
+        int improvedChildren = 0;   // the memetic summary of this generation 
+        double memeticGain = 0;
         // next, adding the children to the population "instances": 
         // the child of i and i+1 is added to the end of the list, then i+=2 and the next children 
         for(int i = 0; i < originalInstanceSize -1; i+=2) {
             // even 0, 2, 4, 6 ... are "females", odds are "males" and their purpose is to affect the stack of the child, 
             // trade childrens' stack data: (took a copy before popping all out into logicStackCopiesOfOriginals) 
             Chromosome newC = (Chromosome) instances.get(i);
+            if(memetic) { // the child must not share the points of the mother when they are improved 
+                newC = Chromosome.copyOf(newC, String.valueOf(instances.size()));
+            }
             newC = possiblySwapTwoRandomNodes(newC);
+            if(memetic) {
+                double gain = improveWithLocalSearch(newC, MEMETIC_NEIGHBOURS);
+                if(gain > 0) {
+                    improvedChildren++;
+                    memeticGain += gain;
+                }
+            }
             
-            Logic_Stack newL = new Logic_Stack();
+            Logic_Stack newL = Logic_Stack.borrow(); // only needed in this loop round 
             Logic_Stack motherL = (Logic_Stack)logicStackCopiesOfOriginals.get(i);
             Logic_Stack fatherL = (Logic_Stack)logicStackCopiesOfOriginals.get(i+1);
             while(!motherL.isEmpty() && !fatherL.isEmpty()) {
@@ -96,8 +125,7 @@ public class EvolutionaryParts {
             // way more than just a combination of its parents 
             // some randoms are deleted so the new stack is not so long: 
             
-            System.gc();
-            Logic_Stack newerL = new Logic_Stack();
+            Logic_Stack newerL = Logic_Stack.borrow(); // stays with the child 
             while(!newL.isEmpty()) {
                 boolean switc = Math.random() < 0.49; // switch variable, can set the probability of adding 
                 if(switc) {                          // when the stack is reversed again 
@@ -110,9 +138,13 @@ public class EvolutionaryParts {
                 newL.pop();
             }
             
+            Logic_Stack.giveBack(newL);
             newC.setLogicStacks(newerL);
             instances.add(newC);
         }
+        if(memetic) {
+            System.out.println("Memetic local search improved " + improvedChildren + " children by " + memeticGain + " in total");
+        }
         return instances;
     }
     
@@ -137,14 +169,7 @@ public class EvolutionaryParts {
         double bestFitness = Double.MAX_VALUE;
         for(int chro = 0; chro < instances.size(); chro++) {
             Chromosome c = (Chromosome) instances.get(chro);
-            ArrayList coordinates = c.getChromosomePoints();
-            double eucNew = 0;
-            for(int i = 0; i < c.getChromosomePoints().size()-2; i+=2) {
-                eucNew += Euclidean_distance((double)coordinates.get(i), 
-                                             (double)coordinates.get(i+1), 
-                                             (double)coordinates.get(i+2), 
-                                             (double)coordinates.get(i+3));
-            }
+            double eucNew = c.getFitness(); // cached, not recomputed from the points every time 
             if(eucNew < bestFitness) {
                 bestFitness = eucNew;
             }
@@ -174,12 +199,77 @@ public class EvolutionaryParts {
             //System.out.println("i is " + i);
             //System.out.println("random1x " + random1x + ", random2x " + random2x);
             //System.out.println("OLD before swap " + c.getChromosomePoints().toString());
+            double before = swapAffectedLength(c.getChromosomePoints(), random1x, random2x);
             Collections.swap(c.getChromosomePoints(), (int)(random1x), (int)(random2x));
             Collections.swap(c.getChromosomePoints(), (int)(random1y), (int)(random2y));
+            c.updateFitness(swapAffectedLength(c.getChromosomePoints(), random1x, random2x) - before);
             //System.out.println("NEW after swap  " + c.getChromosomePoints().toString());
         }
         return c;
     }
+    
+    /**
+     * The length of the edges that touch the 2 swapped points (x indexes i < j, points xy xy xy...), 
+     * calculating this before and after the swap gives the delta of the tour length. 
+     * 
+     * @param points ArrayList
+     * @param i int
+     * @param j int
+     * @return double
+     */
+    private static double swapAffectedLength(ArrayList points, int i, int j) {
+        double length = edgeLength(points, i-2) + edgeLength(points, i) + edgeLength(points, j);
+        if(j > i+2) { // not adjacent, the edge before j is not counted yet 
+            length += edgeLength(points, j-2);
+        }
+        return length;
+    }
+    
+    /**
+     * The length of the edge from the point at x index i to the next point.
+     */
+    private static double edgeLength(ArrayList points, int i) {
+        return Euclidean_distance((double)points.get(i), (double)points.get(i+1), 
+                                  (double)points.get(i+2), (double)points.get(i+3));
+    }
+    
+    /**
+     * Memetic improvement of a chromosome: the neighbour list 2-opt and Or-opt local search 
+     * (Sub_algorithms.twoOptAndOrOpt) is run on the tour and the improved order is written back 
+     * to the same points list. The cached fitness is updated with the gain of the moves only. 
+     * 
+     * @param c Chromosome
+     * @param neighbourCount int
+     * @return double, the gain
+     */
+    public static double improveWithLocalSearch(Chromosome c, int neighbourCount) {
+        ArrayList points = c.getChromosomePoints();
+        int n = points.size()/2 -1; // the last point is the start point again 
+        if(n < 5) {
+            return 0;
+        }
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int[] tour = new int[n];
+        for(int i = 0; i < n; i++) {
+            xs[i] = (double)points.get(2*i);
+            ys[i] = (double)points.get(2*i +1);
+            tour[i] = i;
+        }
+        int k = Math.min(neighbourCount, n-1);
+        int[] neighbours = Candidate_Sets.build(xs, ys, k, false);
+        double gain = Sub_algorithms.twoOptAndOrOpt(xs, ys, tour, neighbours, k);
+        if(gain > 0) {
+            for(int i = 0; i < n; i++) {
+                points.set(2*i, xs[tour[i]]);
+                points.set(2*i +1, ys[tour[i]]);
+            }
+            points.set(2*n, xs[tour[0]]);
+            points.set(2*n +1, ys[tour[0]]);
+            c.updateFitness(-gain);
+        }
+        return gain;
+    }
 }
 /**
  * OLD NOTES, DESIGN THOUGHTS WHEN PROGRAMMING THIS: 
@@ -0,0 +1,315 @@
+package tsp_solver_uef_241908;
+import java.util.stream.IntStream;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 12 of 40
+ *
+ * The exact Held-Karp dynamic programming for the small subproblems, O(2^m * m²) where m is
+ * the count of the free points (at most 16): the shortest path from the start point through
+ * every subset of the free points is built from the shorter ones. A tour of k <= 17 points
+ * fixes one point as the start, a path with both end points fixed can have 16 points between.
+ *
+ * The tables (2^16 * 16 lengths and the previous points) are allocated once per thread and
+ * used again by every call, so no objects are created when solving. Up to about 12 points
+ * this is faster than the heuristics and the sub-tours are always optimal.
+ *
+ * Used by the logic fragment "chriSprout9AndMove", the cluster runs of the SOM algorithms
+ * (reorderGroupRuns) and the sliding window re-optimization of a tour (optimizeWindows).
+ * The windows of one pass do not overlap, so they are solved in parallel, the next pass is
+ * shifted by half a window so the edges between the windows get optimized too.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Exact_DP {
+    
+    public static final int MAX_FREE = 16;          // free points of one subproblem
+    public static final int MAX_TOUR = MAX_FREE + 1; // a tour fixes its first point
+    public static final int MAX_PATH = MAX_FREE + 2;
+    public static final int FAST_FREE = 12;         // about 1 ms, the bigger ones take up to 40 ms
+    public static final int DEFAULT_WINDOW = 10;    // tour nodes in a window, the end nodes stay in place
+    public static final int MAX_WINDOW = 12;
+    private static final int MAX_ROUNDS = 10;       // window passes (2 offsets each) at most
+    private static final int PARALLEL_LIMIT = 2000; // smaller tours are handled in one thread
+    
+    private static final ThreadLocal<Exact_DP> TABLES = ThreadLocal.withInitial(Exact_DP::new);
+    
+    private final double[] lengths = new double[(1 << MAX_FREE) * MAX_FREE];
+    private final byte[] previous = new byte[(1 << MAX_FREE) * MAX_FREE];
+    private final double[] distances = new double[MAX_PATH * MAX_PATH];
+    private final int[] order = new int[MAX_PATH];
+    private final double[] windowXs = new double[MAX_PATH];
+    private final double[] windowYs = new double[MAX_PATH];
+    private final int[] windowOrder = new int[MAX_PATH];
+    private final int[] windowVertices = new int[MAX_PATH];
+    private final double[] windowScratch = new double[MAX_PATH];
+    private double bestLength;
+    
+    private Exact_DP() {
+    }
+    
+    /**
+     * The optimal tour of the first "count" points (at most MAX_TOUR), the visiting order to
+     * "outOrder" beginning from the point 0. Returns the tour length, -1 if there are too many points.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param count int
+     * @param outOrder int[]
+     * @return double
+     */
+    public static double tour(double[] xs, double[] ys, int count, int[] outOrder) {
+        if(count > MAX_TOUR) {
+            System.out.println("Exact_DP: " + count + " points is too many for a tour, at most " + MAX_TOUR);
+            return -1;
+        }
+        if(count < 4) { // every order is the same tour
+            for(int i = 0; i < count; i++) {
+                outOrder[i] = i;
+            }
+            return Distance_Kernels.pathLength(xs, ys, count, true, new double[Math.max(count, 1)]);
+        }
+        Exact_DP dp = TABLES.get();
+        dp.fillDistances(xs, ys, count);
+        dp.solve(count - 1, 0); // free points 1 ... count-1, back to the point 0
+        outOrder[0] = 0;
+        System.arraycopy(dp.order, 0, outOrder, 1, count - 1);
+        return dp.bestLength;
+    }
+    
+    /**
+     * The optimal path from the point 0 to the point count-1 through all the points between
+     * (at most MAX_FREE of them), the visiting order to "outOrder" (0 first, count-1 last).
+     * Returns the path length, -1 if there are too many points.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param count int
+     * @param outOrder int[]
+     * @return double
+     */
+    public static double path(double[] xs, double[] ys, int count, int[] outOrder) {
+        if(count > MAX_PATH) {
+            System.out.println("Exact_DP: " + count + " points is too many for a path, at most " + MAX_PATH);
+            return -1;
+        }
+        if(count < 4) {
+            for(int i = 0; i < count; i++) {
+                outOrder[i] = i;
+            }
+            return Distance_Kernels.pathLength(xs, ys, count, false, new double[Math.max(count, 1)]);
+        }
+        Exact_DP dp = TABLES.get();
+        dp.fillDistances(xs, ys, count);
+        dp.solve(count - 2, count - 1); // free points 1 ... count-2
+        outOrder[0] = 0;
+        System.arraycopy(dp.order, 0, outOrder, 1, count - 2);
+        outOrder[count - 1] = count - 1;
+        return dp.bestLength;
+    }
+    
+    /**
+     * Reorders every run of the consecutive tour points that have the same group (for example
+     * the SOM cluster), 2 to "maxRun" (at most MAX_FREE) points long, optimally between the point
+     * before the run and the point after it. The tour is "pointCount" points xy xy xy... in "tourXY" (the start
+     * point is not repeated at the end), the first point stays the first. Returns the gain.
+     *
+     * @param tourXY double[]
+     * @param pointCount int
+     * @param groups int[]
+     * @param maxRun int
+     * @return double
+     */
+    public static double reorderGroupRuns(double[] tourXY, int pointCount, int[] groups, int maxRun) {
+        double gain = 0;
+        double[] xs = new double[MAX_PATH];
+        double[] ys = new double[MAX_PATH];
+        int[] pathOrder = new int[MAX_PATH];
+        double[] scratch = new double[MAX_PATH];
+        int i = 1;
+        while(i < pointCount) {
+            int j = i;
+            while(j + 1 < pointCount && groups[j + 1] == groups[i]) {
+                j++;
+            }
+            int runLength = j - i + 1;
+            if(runLength >= 2 && runLength <= Math.min(maxRun, MAX_FREE)) {
+                int before = i - 1;
+                int after = (j + 1 < pointCount) ? j + 1 : 0; // the tour closes to the first point
+                xs[0] = tourXY[2*before];
+                ys[0] = tourXY[2*before + 1];
+                for(int p = 0; p < runLength; p++) {
+                    xs[p + 1] = tourXY[2*(i + p)];
+                    ys[p + 1] = tourXY[2*(i + p) + 1];
+                }
+                xs[runLength + 1] = tourXY[2*after];
+                ys[runLength + 1] = tourXY[2*after + 1];
+                double oldLength = Distance_Kernels.pathLength(xs, ys, runLength + 2, false, scratch);
+                double newLength = path(xs, ys, runLength + 2, pathOrder);
+                if(newLength >= 0 && newLength < oldLength - 1e-9) {
+                    for(int p = 0; p < runLength; p++) {
+                        tourXY[2*(i + p)] = xs[pathOrder[p + 1]];
+                        tourXY[2*(i + p) + 1] = ys[pathOrder[p + 1]];
+                    }
+                    gain += oldLength - newLength;
+                }
+            }
+            i = j + 1;
+        }
+        return gain;
+    }
+    
+    /**
+     * The sliding window re-optimization: every "window" (4 to MAX_WINDOW) consecutive vertices
+     * of the tour are solved exactly as a path with the first and the last one fixed, the better
+     * orders are written to "tour". The windows of a pass share only their fixed end vertices,
+     * so they are solved in parallel; the passes alternate between the offsets 0 and window/2
+     * until nothing improves. A tour of at most MAX_TOUR vertices is solved as a whole.
+     * Returns the gain.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param tour int[]
+     * @param window int
+     * @return double
+     */
+    public static double optimizeWindows(double[] xs, double[] ys, int[] tour, int window) {
+        int n = tour.length;
+        if(n <= MAX_TOUR) {
+            double[] tourXs = new double[n];
+            double[] tourYs = new double[n];
+            for(int i = 0; i < n; i++) {
+                tourXs[i] = xs[tour[i]];
+                tourYs[i] = ys[tour[i]];
+            }
+            double oldLength = Distance_Kernels.pathLength(tourXs, tourYs, n, true, new double[Math.max(n, 1)]);
+            int[] best = new int[n];
+            double newLength = tour(tourXs, tourYs, n, best);
+            if(newLength < 0 || newLength >= oldLength - 1e-9) {
+                return 0;
+            }
+            int[] old = tour.clone();
+            for(int i = 0; i < n; i++) {
+                tour[i] = old[best[i]];
+            }
+            return oldLength - newLength;
+        }
+        int w = Math.max(4, Math.min(window, MAX_WINDOW));
+        int step = w - 1;        // the next window begins from the last vertex of this one
+        int windows = n / step;
+        double gain = 0;
+        for(int round = 0; round < MAX_ROUNDS; round++) {
+            double roundGain = 0;
+            for(int offset = 0; offset < step; offset += Math.max(1, step/2)) {
+                final int phaseOffset = offset;
+                IntStream range = IntStream.range(0, windows);
+                if(n >= PARALLEL_LIMIT) {
+                    range = range.parallel();
+                }
+                roundGain += range.mapToDouble(k ->
+                        TABLES.get().solveWindow(xs, ys, tour, phaseOffset + k*step, w)).sum();
+            }
+            gain += roundGain;
+            if(roundGain < 1e-9) {
+                break;
+            }
+        }
+        return gain;
+    }
+
+    /**
+     * One window from the tour position "first" (the positions go around the end), returns the gain.
+     */
+    private double solveWindow(double[] xs, double[] ys, int[] tour, int first, int w) {
+        int n = tour.length;
+        for(int p = 0; p < w; p++) {
+            int v = tour[(first + p) % n];
+            windowVertices[p] = v;
+            windowXs[p] = xs[v];
+            windowYs[p] = ys[v];
+        }
+        double oldLength = Distance_Kernels.pathLength(windowXs, windowYs, w, false, windowScratch);
+        double newLength = path(windowXs, windowYs, w, windowOrder);
+        if(newLength < 0 || newLength >= oldLength - 1e-9) {
+            return 0;
+        }
+        for(int p = 1; p < w-1; p++) {
+            tour[(first + p) % n] = windowVertices[windowOrder[p]];
+        }
+        return oldLength - newLength;
+    }
+
+    private void fillDistances(double[] xs, double[] ys, int count) {
+        for(int a = 0; a < count; a++) {
+            distances[a*MAX_PATH + a] = 0;
+            for(int b = a + 1; b < count; b++) {
+                double d = Sub_algorithms.Euclidean_distance(xs[a], ys[a], xs[b], ys[b]);
+                distances[a*MAX_PATH + b] = d;
+                distances[b*MAX_PATH + a] = d;
+            }
+        }
+    }
+    
+    /**
+     * The DP itself: from the point 0 through the free points 1 ... m to the point "end",
+     * the order of the free points to "order" and the length to "bestLength".
+     * lengths[mask*m + j] is the shortest path from the point 0 through the free point set "mask"
+     * that ends at the free point j+1.
+     */
+    private void solve(int m, int end) {
+        int start = 0;
+        int first = 1;
+        int full = (1 << m) - 1;
+        for(int mask = 1; mask <= full; mask++) {
+            for(int j = 0; j < m; j++) {
+                lengths[mask*m + j] = Double.MAX_VALUE;
+            }
+        }
+        for(int j = 0; j < m; j++) {
+            lengths[(1 << j)*m + j] = distances[start*MAX_PATH + (j + first)];
+            previous[(1 << j)*m + j] = -1;
+        }
+        for(int mask = 1; mask < full; mask++) {
+            for(int j = 0; j < m; j++) {
+                double length = lengths[mask*m + j];
+                if((mask & (1 << j)) == 0 || length == Double.MAX_VALUE) {
+                    continue;
+                }
+                int row = (j + first) * MAX_PATH;
+                for(int l = 0; l < m; l++) {
+                    if((mask & (1 << l)) != 0) {
+                        continue;
+                    }
+                    int next = (mask | (1 << l))*m + l;
+                    double candidate = length + distances[row + l + first];
+                    if(candidate < lengths[next]) {
+                        lengths[next] = candidate;
+                        previous[next] = (byte)j;
+                    }
+                }
+            }
+        }
+        bestLength = Double.MAX_VALUE;
+        int last = 0;
+        for(int j = 0; j < m; j++) {
+            double length = lengths[full*m + j] + distances[(j + first)*MAX_PATH + end];
+            if(length < bestLength) {
+                bestLength = length;
+                last = j;
+            }
+        }
+        int mask = full;
+        for(int p = m - 1; p >= 0; p--) {
+            order[p] = last + first;
+            int before = previous[mask*m + last];
+            mask &= ~(1 << last);
+            last = before;
+        }
+    }
+}
\ No newline at end of file
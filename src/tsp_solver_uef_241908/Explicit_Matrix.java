@@ -0,0 +1,265 @@
+package tsp_solver_uef_241908;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 13 of 40
+ *
+ * The weights of an EXPLICIT tsplib graph (EDGE_WEIGHT_SECTION), for example the road distances
+ * that have no coordinates. The formats FULL_MATRIX, UPPER_ROW, LOWER_ROW, UPPER_DIAG_ROW and
+ * LOWER_DIAG_ROW are read. The graph is symmetric: the lower triangle without the diagonal is
+ * kept (of a full matrix the weights below the diagonal, the ones above are skipped), as ints
+ * like in tsplib, the pair i > j at i*(i-1)/2 + j.
+ *
+ * The weights are not on the Java heap: they are written to a temporary file that is memory
+ * mapped in chunks of 2^CHUNK_BITS ints (the operating system keeps the used pages in memory),
+ * so a matrix of 20 000 vertices takes 800 MB of the file cache but none of the heap. The file is
+ * deleted by "release".
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Explicit_Matrix {
+    private static final String[] FORMATS = {"FULL_MATRIX", "UPPER_ROW", "LOWER_ROW", "UPPER_DIAG_ROW", "LOWER_DIAG_ROW"};
+    private static final int CHUNK_BITS = 28;           // 1 GB per mapping
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+    
+    private final int n;
+    private final File file;
+    private final MappedByteBuffer[] mappings;
+    private final IntBuffer[] chunks;
+    
+    private Explicit_Matrix(int n) throws IOException {
+        this.n = n;
+        long count = (long)n * (n - 1) / 2;
+        int chunkCount = (int)((count + CHUNK_MASK) >>> CHUNK_BITS);
+        file = File.createTempFile("tsp_matrix", ".bin");
+        file.deleteOnExit();
+        mappings = new MappedByteBuffer[chunkCount];
+        chunks = new IntBuffer[chunkCount];
+        try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+            access.setLength(Math.max(4, count * 4));
+            FileChannel channel = access.getChannel();
+            for(int c = 0; c < chunkCount; c++) {
+                long start = (long)c << CHUNK_BITS;
+                long ints = Math.min(count - start, 1L << CHUNK_BITS);
+                mappings[c] = channel.map(FileChannel.MapMode.READ_WRITE, start * 4, ints * 4);
+                mappings[c].order(ByteOrder.nativeOrder());
+                chunks[c] = mappings[c].asIntBuffer();
+            }
+        } // the mappings stay valid after the file is closed
+    }
+    
+    /**
+     * Reads the matrix of a tsplib graph with "EDGE_WEIGHT_TYPE: EXPLICIT". The DIMENSION and
+     * EDGE_WEIGHT_FORMAT rows are needed, the weights are integers separated by spaces or line
+     * breaks, in any number per row. Returns null (and prints why) if the input has errors.
+     *
+     * @param input String
+     * @return Explicit_Matrix
+     */
+    public static Explicit_Matrix read(String input) {
+        int n = (int)headerNumber(input, "DIMENSION");
+        String format = headerValue(input, "EDGE_WEIGHT_FORMAT");
+        int section = input.indexOf("EDGE_WEIGHT_SECTION");
+        int formatIndex = -1;
+        for(int f = 0; f < FORMATS.length; f++) {
+            if(FORMATS[f].equals(format)) {
+                formatIndex = f;
+            }
+        }
+        if(n < 4 || formatIndex < 0 || section < 0) {
+            System.out.println("EXPLICIT needs DIMENSION (at least 4), a known EDGE_WEIGHT_FORMAT and EDGE_WEIGHT_SECTION");
+            return null;
+        }
+        Explicit_Matrix matrix;
+        try {
+            matrix = new Explicit_Matrix(n);
+        }
+        catch(IOException | RuntimeException e) {
+            System.err.println(e);
+            return null;
+        }
+        int[] position = {section + 19}; // after "EDGE_WEIGHT_SECTION"
+        for(int i = 0; i < n; i++) {
+            int from = (formatIndex == 0 || formatIndex == 2 || formatIndex == 4) ? 0 : (formatIndex == 1) ? i + 1 : i;
+            int to = (formatIndex == 0 || formatIndex == 1 || formatIndex == 3) ? n - 1 : (formatIndex == 2) ? i - 1 : i;
+            for(int j = from; j <= to; j++) {
+                long weight = nextInteger(input, position);
+                if(weight == Long.MIN_VALUE) {
+                    System.out.println("The EDGE_WEIGHT_SECTION ends too early or has something else than integers, row " + (i + 1));
+                    matrix.release();
+                    return null;
+                }
+                if(i > j) {
+                    matrix.set(i, j, (int)weight);
+                }
+                else if(i < j && formatIndex != 0) {
+                    matrix.set(j, i, (int)weight);
+                }
+            }
+        }
+        return matrix;
+    }
+    
+    /**
+     * The vertex count.
+     *
+     * @return int
+     */
+    public int size() {
+        return n;
+    }
+    
+    /**
+     * The weight of the edge (i, j), 0 if i == j.
+     *
+     * @param i int
+     * @param j int
+     * @return double
+     */
+    public double weight(int i, int j) {
+        if(i == j) {
+            return 0;
+        }
+        long index = (i > j) ? (long)i * (i - 1) / 2 + j : (long)j * (j - 1) / 2 + i;
+        return chunks[(int)(index >>> CHUNK_BITS)].get((int)(index & CHUNK_MASK));
+    }
+    
+    /**
+     * The candidate lists of the k nearest vertices (by the weights, the nearest first) like
+     * Candidate_Sets.build, every row of the matrix is scanned, O(n²).
+     *
+     * @param k int
+     * @return int[], a*k + l is the l:th neighbour of a
+     */
+    public int[] nearestNeighbours(int k) {
+        int[] neighbours = new int[n * k];
+        double[] best = new double[k];
+        for(int a = 0; a < n; a++) {
+            int found = 0;
+            for(int b = 0; b < n; b++) {
+                if(b == a) {
+                    continue;
+                }
+                double w = weight(a, b);
+                if(found == k && w >= best[k - 1]) {
+                    continue;
+                }
+                int l = (found < k) ? found++ : k - 1;
+                while(l > 0 && best[l - 1] > w) { // insertion into the sorted list
+                    best[l] = best[l - 1];
+                    neighbours[a*k + l] = neighbours[a*k + l - 1];
+                    l--;
+                }
+                best[l] = w;
+                neighbours[a*k + l] = b;
+            }
+        }
+        return neighbours;
+    }
+    
+    /**
+     * The nearest neighbour tour from the vertex 0 by the weights, O(n²).
+     *
+     * @return int[], a vertex order without the start vertex at the end
+     */
+    public int[] nearestNeighbourTour() {
+        int[] tour = new int[n];
+        boolean[] visited = new boolean[n];
+        visited[0] = true;
+        for(int i = 1; i < n; i++) {
+            int a = tour[i - 1];
+            int nearest = -1;
+            double nearestWeight = Double.MAX_VALUE;
+            for(int b = 0; b < n; b++) {
+                if(!visited[b] && weight(a, b) < nearestWeight) {
+                    nearestWeight = weight(a, b);
+                    nearest = b;
+                }
+            }
+            tour[i] = nearest;
+            visited[nearest] = true;
+        }
+        return tour;
+    }
+    
+    /**
+     * Unmaps the matrix and deletes its file. Do not use the matrix after this.
+     */
+    public void release() {
+        for(int c = 0; c < mappings.length; c++) {
+            OffHeap_Instance.clean(mappings[c]);
+            mappings[c] = null;
+            chunks[c] = null;
+        }
+        if(!file.delete()) {
+            System.out.println("The matrix file is deleted when the program ends: " + file);
+        }
+    }
+    
+    private void set(int i, int j, int weight) {
+        long index = (long)i * (i - 1) / 2 + j;
+        chunks[(int)(index >>> CHUNK_BITS)].put((int)(index & CHUNK_MASK), weight);
+    }
+    
+    /**
+     * The value of a header row "NAME : value" (or "NAME: value"), "" if there is none.
+     */
+    private static String headerValue(String input, String name) {
+        int index = input.indexOf(name);
+        if(index < 0) {
+            return "";
+        }
+        int end = input.indexOf('\n', index);
+        return input.substring(index + name.length(), (end < 0) ? input.length() : end).replace(':', ' ').trim();
+    }
+    
+    private static long headerNumber(String input, String name) {
+        try {
+            return Long.parseLong(headerValue(input, name));
+        }
+        catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * The next integer of the input from position[0] on (moved past it), Long.MIN_VALUE if the
+     * next word is not an integer or the input ends. No Strings are made, the matrix of a big
+     * graph has millions of weights.
+     */
+    private static long nextInteger(String input, int[] position) {
+        int i = position[0];
+        int length = input.length();
+        while(i < length && Character.isWhitespace(input.charAt(i))) {
+            i++;
+        }
+        boolean negative = i < length && input.charAt(i) == '-';
+        if(negative) {
+            i++;
+        }
+        int start = i;
+        long value = 0;
+        while(i < length && input.charAt(i) >= '0' && input.charAt(i) <= '9' && value <= Integer.MAX_VALUE) {
+            value = value * 10 + (input.charAt(i) - '0');
+            i++;
+        }
+        position[0] = i;
+        if(i == start || value > Integer.MAX_VALUE || (i < length && !Character.isWhitespace(input.charAt(i)))) {
+            return Long.MIN_VALUE;
+        }
+        return negative ? -value : value;
+    }
+}
\ No newline at end of file
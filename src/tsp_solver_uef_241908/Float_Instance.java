@@ -0,0 +1,110 @@
+package tsp_solver_uef_241908;
+import java.util.Arrays;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 14 of 40 
+ * 
+ * TSP_Instance with float coordinates: half the memory of Double_Instance and twice as many 
+ * coordinates in the same cache line. A float has about 7 significant digits, so for example 
+ * the coordinates near 1 000 000 are rounded to 0.0625 steps. Distances and tour lengths 
+ * are computed and summed as doubles. 
+ * 
+ * Open source Java code, feel free to edit and try your own improvements. 
+ * Tested with Windows 11 
+ * Apache NetBeans 17 
+ * Java JRE 8u371 64bit 
+ * Java JDK 18.0.2 64bit 
+ * 
+ * @author Tuomas Hyvönen 
+ * @version 2.0 
+ */
+public class Float_Instance extends TSP_Instance {
+    private final float[] xs;
+    private final float[] ys;
+    
+    /**
+     * The constructor, all coordinates are 0 at first.
+     * 
+     * @param size int
+     */
+    public Float_Instance(int size) {
+        xs = new float[size];
+        ys = new float[size];
+    }
+    
+    @Override
+    public int size() {
+        return xs.length;
+    }
+    
+    @Override
+    public int getStorage() {
+        return STORAGE_FLOAT;
+    }
+    
+    @Override
+    public double getX(int i) {
+        return xs[i];
+    }
+    
+    @Override
+    public double getY(int i) {
+        return ys[i];
+    }
+    
+    @Override
+    public void setPoint(int i, double x, double y) {
+        xs[i] = (float)x;
+        ys[i] = (float)y;
+    }
+    
+    /**
+     * Returns the x coordinate array itself.
+     * 
+     * @return float[]
+     */
+    public float[] getXs() {
+        return xs;
+    }
+    
+    /**
+     * Returns the y coordinate array itself.
+     * 
+     * @return float[]
+     */
+    public float[] getYs() {
+        return ys;
+    }
+    
+    @Override
+    public int nearest(double qx, double qy, int count, double[] scratch) {
+        return Distance_Kernels.nearest(xs, ys, count, qx, qy, scratch);
+    }
+    
+    @Override
+    public double distance(int i, int j) {
+        double dx = (double)xs[i] - xs[j];
+        double dy = (double)ys[i] - ys[j];
+        return Math.sqrt(dx*dx + dy*dy);
+    }
+    
+    @Override
+    public boolean hasEqualPoints() {
+        // both floats fit into one long, equal points have equal keys 
+        int n = xs.length;
+        long[] keys = new long[n];
+        for(int j = 0; j < n; j++) {
+            keys[j] = ((long)Float.floatToIntBits(xs[j] + 0.0f) << 32) | 
+                      (Float.floatToIntBits(ys[j] + 0.0f) & 0xFFFFFFFFL); // + 0.0f makes -0.0 to 0.0 
+        }
+        Arrays.sort(keys);
+        for(int j = 1; j < n; j++) {
+            if(keys[j] == keys[j-1]) {
+                System.out.println("equal coordinates (after rounding to float) " + 
+                        Float.intBitsToFloat((int)(keys[j] >>> 32)) + ", " + Float.intBitsToFloat((int)keys[j]));
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,269 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 15 of 40
+ *
+ * The greedy edge (multi-fragment) heuristic: the edges of the k nearest neighbour graph are
+ * sorted by length and taken shortest first whenever both end vertices still have degree
+ * below 2 and the edge does not close a cycle too early (union-find of the fragments, with
+ * path halving and union by size). The fragments are paths, at the end they are chained
+ * with the nearest free fragment end (KDTree of the fragment ends) and the last end is linked
+ * back to the first one.
+ *
+ * The fragments (addEdge, joinFragments) are also used by the savings heuristic (Clarke_Wright).
+ *
+ * Usually 14-20 % above the optimum (the nearest neighbour tour about 25 %) in O(n log n) time,
+ * the best start tour for the 2-opt and Lin-Kernighan.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Greedy_Edge {
+    
+    public static final int CANDIDATES = 10;    // the k nearest neighbour graph, the edges longer than these are rarely needed
+    private static final int FIRST_SEARCH = 8;   // the fragment end search asks this many nearest ends first
+    
+    private final TSP_Instance points;
+    private final int n;
+    private final int[] parent;                  // union-find of the fragments
+    private final int[] setSize;
+    private final int[] links;                   // the (at most) 2 tour neighbours of every vertex, -1 = free
+    private final int[] degree;
+    
+    Greedy_Edge(TSP_Instance points) {
+        this.points = points;
+        n = points.size();
+        parent = new int[n];
+        setSize = new int[n];
+        links = new int[2*n];
+        degree = new int[n];
+        for(int i = 0; i < n; i++) {
+            parent[i] = i;
+            setSize[i] = 1;
+            links[2*i] = -1;
+            links[2*i + 1] = -1;
+        }
+    }
+    
+    /**
+     * The greedy edge tour, a vertex order without the start vertex at the end.
+     *
+     * @param points TSP_Instance
+     * @return int[]
+     */
+    public static int[] tour(TSP_Instance points) {
+        int n = points.size();
+        if(n < 4) {
+            int[] tour = new int[n];
+            for(int i = 0; i < n; i++) {
+                tour[i] = i;
+            }
+            return tour;
+        }
+        Greedy_Edge greedy = new Greedy_Edge(points);
+        int fragments = greedy.addShortEdges(Candidate_Sets.lengthFor(CANDIDATES, n));
+        System.out.println("Greedy edge: " + fragments + " fragments to join");
+        return greedy.joinFragments(fragments);
+    }
+    
+    /**
+     * The candidate edges shortest first, returns the number of the fragments left.
+     */
+    private int addShortEdges(int k) {
+        int[] candidates = Candidate_Sets.build(points, k, false);
+        int edgeCount = 0;
+        int[] from = new int[n*k];
+        int[] to = new int[n*k];
+        for(int i = 0; i < n; i++) {
+            for(int c = 0; c < k; c++) {
+                int j = candidates[i*k + c];
+                if(j < 0) {
+                    continue;
+                }
+                if(i < j || !isCandidate(candidates, k, j, i)) { // every edge once
+                    from[edgeCount] = i;
+                    to[edgeCount] = j;
+                    edgeCount++;
+                }
+            }
+        }
+        candidates = null;
+        double[] lengths = new double[edgeCount];
+        int[] order = new int[edgeCount];
+        for(int e = 0; e < edgeCount; e++) {
+            lengths[e] = Sub_algorithms.Euclidean_distance_squared(points.getX(from[e]), points.getY(from[e]), 
+                    points.getX(to[e]), points.getY(to[e]));
+            order[e] = e;
+        }
+        Sub_algorithms.sortIndexesByKeys(order, lengths, null);
+    
+        int fragments = n;
+        for(int e : order) {
+            int a = from[e];
+            int b = to[e];
+            if(addEdge(a, b)) {
+                if(--fragments == 1) {
+                    break;
+                }
+            }
+        }
+        return fragments;
+    }
+    
+    private static boolean isCandidate(int[] candidates, int k, int i, int j) {
+        for(int l = 0; l < k; l++) {
+            if(candidates[i*k + l] == j) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Adds the edge (a, b) if both vertices have degree below 2 and the edge does not close
+     * a cycle, returns true if it was added.
+     */
+    boolean addEdge(int a, int b) {
+        if(degree[a] < 2 && degree[b] < 2 && union(a, b)) {
+            link(a, b);
+            return true;
+        }
+        return false;
+    }
+    
+    private int find(int i) {
+        while(parent[i] != i) {
+            parent[i] = parent[parent[i]]; // path halving
+            i = parent[i];
+        }
+        return i;
+    }
+    
+    /**
+     * Joins the fragments of a and b, false if they already are the same fragment (a cycle).
+     */
+    private boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if(rootA == rootB) {
+            return false;
+        }
+        if(setSize[rootA] < setSize[rootB]) {
+            int helpVar = rootA;
+            rootA = rootB;
+            rootB = helpVar;
+        }
+        parent[rootB] = rootA;
+        setSize[rootA] += setSize[rootB];
+        return true;
+    }
+    
+    private void link(int a, int b) {
+        links[2*a + degree[a]++] = b;
+        links[2*b + degree[b]++] = a;
+    }
+    
+    /**
+     * Chains the path fragments: from the other end of the current fragment to the nearest end
+     * of a fragment not yet in the chain, finally back to the start. The k-d tree of the free
+     * ends is built again when half of its ends have been used.
+     */
+    int[] joinFragments(int fragments) {
+        int[] ends = new int[n];
+        int endCount = 0;
+        int[] otherEnd = new int[n];
+        for(int i = 0; i < n; i++) {
+            if(degree[i] < 2) {
+                ends[endCount++] = i;
+                otherEnd[i] = -1;
+            }
+        }
+        for(int e = 0; e < endCount; e++) {
+            int start = ends[e];
+            if(otherEnd[start] < 0) {
+                int end = walkToTheEnd(start);
+                otherEnd[start] = end;
+                otherEnd[end] = start;
+            }
+        }
+        boolean[] usedFragment = new boolean[n]; // by the union-find root
+        int first = ends[0];
+        usedFragment[find(first)] = true;
+        int current = otherEnd[first];
+        int remaining = fragments - 1;
+    
+        TSP_Instance endPoints = TSP_Instance.allocate(points.getStorage(), endCount);
+        int[] treeEnds = new int[endCount];
+        KDTree tree = new KDTree(endCount, points.getStorage());
+        int treeCount = 0;
+        int usedInTree = 0;
+        int[] found = new int[endCount];
+        double[] foundDistances = new double[endCount];
+        while(remaining > 0) {
+            if(treeCount == 0 || 2*usedInTree > treeCount) { // only the free ends to the tree
+                treeCount = 0;
+                for(int e = 0; e < endCount; e++) {
+                    if(!usedFragment[find(ends[e])]) {
+                        treeEnds[treeCount] = ends[e];
+                        endPoints.setPoint(treeCount, points.getX(ends[e]), points.getY(ends[e]));
+                        treeCount++;
+                    }
+                }
+                tree.build(endPoints, treeCount);
+                usedInTree = 0;
+            }
+            int next = -1;
+            for(int wanted = FIRST_SEARCH; next < 0; wanted *= 2) {
+                int count = tree.kNearest(points.getX(current), points.getY(current), Math.min(wanted, treeCount), 
+                        -1, -1, found, foundDistances);
+                for(int f = 0; f < count && next < 0; f++) {
+                    int candidate = treeEnds[found[f]];
+                    if(!usedFragment[find(candidate)]) {
+                        next = candidate;
+                    }
+                }
+            }
+            usedFragment[find(next)] = true;
+            usedInTree += (next == otherEnd[next]) ? 1 : 2;
+            link(current, next);
+            current = otherEnd[next];
+            remaining--;
+        }
+        link(current, first);
+        tree.release();
+        endPoints.release();
+    
+        int[] tour = new int[n];
+        int previous = -1;
+        int vertex = first;
+        for(int i = 0; i < n; i++) {
+            tour[i] = vertex;
+            int next = (links[2*vertex] != previous) ? links[2*vertex] : links[2*vertex + 1];
+            previous = vertex;
+            vertex = next;
+        }
+        return tour;
+    }
+    
+    /**
+     * The other end of the path fragment that starts from the end vertex "start".
+     */
+    private int walkToTheEnd(int start) {
+        int previous = -1;
+        int vertex = start;
+        while(true) {
+            int next = (links[2*vertex] != previous) ? links[2*vertex] : links[2*vertex + 1];
+            if(next < 0) {
+                return vertex;
+            }
+            previous = vertex;
+            vertex = next;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,271 @@
+package tsp_solver_uef_241908;
+import java.util.Arrays;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 16 of 40
+ *
+ * Guided local search over the 2-opt neighbourhood: when the 2-opt (with the candidate lists
+ * and don't-look bits, like Sub_algorithms.twoOptAndOrOpt) is stuck in a local optimum, the
+ * tour edges with the biggest utility d(e) / (1 + penalty(e)) get one more penalty and the
+ * local search goes on with the augmented lengths d(e) + lambda * penalty(e). Only the end
+ * vertices of the penalized edges lose their don't-look bits, so every round is fast and the
+ * search keeps moving away from the local optima for as long as it is allowed to run.
+ * The best tour by the real lengths is kept. The real length is kept with the deltas of the
+ * moves and summed again exactly every RESYNC_ROUNDS rounds against the rounding drift.
+ *
+ * Every round penalizes the worst edge of each BLOCK consecutive tour edges (the classic GLS
+ * penalizes one edge of the whole tour, too few for the big graphs). The penalties are in an
+ * open addressing hash table of the edges, no objects. The distances come from a
+ * Distance_Oracle, so the search works with every edge weight type (Edge_Weights), also
+ * without coordinates (EXPLICIT). The first round is the plain 2-opt from every vertex, so the
+ * tour does not have to be a local optimum at the start.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Guided_Local_Search {
+    
+    public static final long DEFAULT_MILLIS = 10000;    // the search time of the UI
+    
+    private static final double ALPHA = 0.2;            // lambda = ALPHA * the average edge of the first local optimum
+    private static final int BLOCK = 1000;              // one penalty per this many tour edges in a round
+    private static final double EPSILON = 0.0000000001;
+    private static final int RESYNC_ROUNDS = 100;       // the real length is summed again after this many rounds
+    
+    private final int[] tour;
+    private final int[] pos;
+    private final int[] neighbours;
+    private final int k;
+    private final int n;
+    private final double lambda;
+    private final Distance_Oracle oracle;
+    private double length;                              // the real length of the current tour
+    
+    private final int[] queue;                          // the vertices with their don't-look bits off
+    private final boolean[] queued;
+    private int head;
+    private int count;
+    
+    private long[] penaltyKeys;                         // the edge (a < b) as a * n + b, -1 = empty
+    private int[] penaltyValues;
+    private int penaltyCount;
+    
+    private Guided_Local_Search(Distance_Oracle oracle, int[] tour, int[] neighbours, int k) {
+        this.oracle = oracle;
+        this.tour = tour;
+        this.neighbours = neighbours;
+        this.k = k;
+        n = tour.length;
+        pos = new int[n];
+        for(int i = 0; i < n; i++) {
+            pos[tour[i]] = i;
+        }
+        length = oracle.tourLength(tour);
+        lambda = ALPHA * length / n;
+        queue = new int[n];
+        queued = new boolean[n];
+        for(int i = 0; i < n; i++) {
+            push(tour[i]);
+        }
+        penaltyKeys = new long[1024];
+        penaltyValues = new int[1024];
+        Arrays.fill(penaltyKeys, -1);
+    }
+    
+    /**
+     * Improves the tour of the Euclidean points (in place) for "millis" milliseconds, returns
+     * the new tour length.
+     *
+     * @param points TSP_Instance
+     * @param tour int[]
+     * @param neighbours int[], the candidate lists (Candidate_Sets)
+     * @param k int
+     * @param millis long
+     * @return double
+     */
+    public static double improve(TSP_Instance points, int[] tour, int[] neighbours, int k, long millis) {
+        if(tour.length < 8) {
+            return points.tourLength(tour);
+        }
+        return improve(Distance_Oracle.forPoints(points, neighbours, k), tour, neighbours, k, millis);
+    }
+    
+    /**
+     * Same as above with the distances of an oracle (any edge weight type), the candidate lists
+     * must be sorted by them (Distance_Oracle.forGraph does that).
+     *
+     * @param oracle Distance_Oracle
+     * @param tour int[]
+     * @param neighbours int[]
+     * @param k int
+     * @param millis long
+     * @return double
+     */
+    public static double improve(Distance_Oracle oracle, int[] tour, int[] neighbours, int k, long millis) {
+        if(tour.length < 8) {
+            return oracle.tourLength(tour);
+        }
+        long endTime = System.nanoTime() + millis * 1000000;
+        Guided_Local_Search search = new Guided_Local_Search(oracle, tour, neighbours, k);
+        search.localSearch(); // no penalties yet, the plain 2-opt
+        int[] best = tour.clone();
+        double bestLength = search.length;
+        int rounds = 0;
+        while(System.nanoTime() < endTime) {
+            search.penalize();
+            search.localSearch();
+            rounds++;
+            if(rounds % RESYNC_ROUNDS == 0) {
+                search.length = oracle.tourLength(tour);
+            }
+            if(search.length < bestLength - EPSILON) {
+                bestLength = search.length;
+                System.arraycopy(tour, 0, best, 0, tour.length);
+            }
+        }
+        System.arraycopy(best, 0, tour, 0, tour.length);
+        bestLength = oracle.tourLength(tour);
+        System.out.println("Guided local search: " + rounds + " rounds, " + search.penaltyCount
+                + " penalized edges, tour length " + bestLength + "\nDistances: " + oracle);
+        return bestLength;
+    }
+    
+    /**
+     * The 2-opt with the augmented lengths until no vertex in the queue has an improving move.
+     */
+    private void localSearch() {
+        while(count > 0) {
+            int a = queue[head];
+            head = (head + 1) % n;
+            count--;
+            queued[a] = false;
+            tryTwoOptMove(a);
+        }
+    }
+    
+    private void tryTwoOptMove(int a) {
+        for(int direction = 0; direction < 2; direction++) {
+            int b = (direction == 0) ? tour[(pos[a]+1) % n] : tour[(pos[a]-1+n) % n];
+            double gab = augmented(a, b);
+            for(int l = 0; l < k; l++) {
+                int c = neighbours[a*k + l];
+                if(gab - oracle.neighbourDistance(a, l) <= EPSILON) {
+                    break; // the neighbours are sorted and a penalty only adds, nothing better can come
+                }
+                int d = (direction == 0) ? tour[(pos[c]+1) % n] : tour[(pos[c]-1+n) % n];
+                if(c == b || d == a) {
+                    continue;
+                }
+                double gain = gab - augmented(a, c) + augmented(c, d) - augmented(b, d);
+                if(gain > EPSILON) {
+                    length += distance(a, c) + distance(b, d) - distance(a, b) - distance(c, d);
+                    if(direction == 0) {    // a b ... c d  ->  a c ... b d
+                        Sub_algorithms.reverseTourPath(tour, pos, pos[b], pos[c], false);
+                    }
+                    else {                  // d c ... b a  ->  d b ... c a
+                        Sub_algorithms.reverseTourPath(tour, pos, pos[c], pos[b], false);
+                    }
+                    push(a);
+                    push(b);
+                    push(c);
+                    push(d);
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * One more penalty to the edge with the biggest utility in every block of the tour,
+     * their end vertices to the queue.
+     */
+    private void penalize() {
+        for(int start = 0; start < n; start += BLOCK) {
+            int end = Math.min(n, start + BLOCK);
+            double bestUtility = -1;
+            int bestI = start;
+            for(int i = start; i < end; i++) {
+                int a = tour[i];
+                int b = tour[(i + 1) % n];
+                double utility = distance(a, b) / (1 + penalty(a, b));
+                if(utility > bestUtility) {
+                    bestUtility = utility;
+                    bestI = i;
+                }
+            }
+            int a = tour[bestI];
+            int b = tour[(bestI + 1) % n];
+            addPenalty(a, b);
+            push(a);
+            push(b);
+        }
+    }
+    
+    private void push(int v) {
+        if(!queued[v]) {
+            queue[(head + count) % n] = v;
+            queued[v] = true;
+            count++;
+        }
+    }
+    
+    private double distance(int a, int b) {
+        return oracle.distance(a, b);
+    }
+    
+    private double augmented(int a, int b) {
+        return distance(a, b) + lambda * penalty(a, b);
+    }
+    
+    private long edgeKey(int a, int b) {
+        return (a < b) ? (long) a * n + b : (long) b * n + a;
+    }
+    
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int mask = penaltyKeys.length - 1;
+        int i = (int) (h >>> 40) & mask;
+        while(penaltyKeys[i] != -1 && penaltyKeys[i] != key) {
+            i = (i + 1) & mask; // linear probing
+        }
+        return i;
+    }
+    
+    private int penalty(int a, int b) {
+        if(penaltyCount == 0) {
+            return 0;
+        }
+        int i = slot(edgeKey(a, b));
+        return (penaltyKeys[i] == -1) ? 0 : penaltyValues[i];
+    }
+    
+    private void addPenalty(int a, int b) {
+        if(2 * (penaltyCount + 1) > penaltyKeys.length) { // at most half full
+            long[] oldKeys = penaltyKeys;
+            int[] oldValues = penaltyValues;
+            penaltyKeys = new long[oldKeys.length * 2];
+            penaltyValues = new int[oldKeys.length * 2];
+            Arrays.fill(penaltyKeys, -1);
+            for(int i = 0; i < oldKeys.length; i++) {
+                if(oldKeys[i] != -1) {
+                    int j = slot(oldKeys[i]);
+                    penaltyKeys[j] = oldKeys[i];
+                    penaltyValues[j] = oldValues[i];
+                }
+            }
+        }
+        long key = edgeKey(a, b);
+        int i = slot(key);
+        if(penaltyKeys[i] == -1) {
+            penaltyKeys[i] = key;
+            penaltyCount++;
+        }
+        penaltyValues[i]++;
+    }
+}
\ No newline at end of file
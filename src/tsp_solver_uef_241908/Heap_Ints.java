@@ -0,0 +1,59 @@
+package tsp_solver_uef_241908;
+import java.util.Arrays;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 17 of 40 
+ * 
+ * Int_Array with the values in an int[] on the Java heap, the default storage. 
+ * The array can be used directly by the algorithms (getValues). 
+ * 
+ * Open source Java code, feel free to edit and try your own improvements. 
+ * Tested with Windows 11 
+ * Apache NetBeans 17 
+ * Java JRE 8u371 64bit 
+ * Java JDK 18.0.2 64bit 
+ * 
+ * @author Tuomas Hyvönen 
+ * @version 2.0 
+ */
+public class Heap_Ints extends Int_Array {
+    private final int[] values;
+    
+    /**
+     * The constructor for an existing array, it is not copied.
+     * 
+     * @param values int[]
+     */
+    public Heap_Ints(int[] values) {
+        this.values = values;
+    }
+    
+    @Override
+    public int length() {
+        return values.length;
+    }
+    
+    @Override
+    public int get(int i) {
+        return values[i];
+    }
+    
+    @Override
+    public void set(int i, int value) {
+        values[i] = value;
+    }
+    
+    @Override
+    public int[] toArray() {
+        return Arrays.copyOf(values, values.length);
+    }
+    
+    /**
+     * Returns the int array itself.
+     * 
+     * @return int[]
+     */
+    public int[] getValues() {
+        return values;
+    }
+}
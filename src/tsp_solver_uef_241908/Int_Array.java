@@ -0,0 +1,87 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 19 of 40 
+ * 
+ * A fixed size int array of the newer algorithms for the huge graphs, for example a tour 
+ * (the vertex indexes in the tour order), the flat candidate lists where the k neighbours of 
+ * vertex i are at i*k ... i*k + k-1 (Candidate_Sets) or the work arrays of a sort. The storage 
+ * follows the coordinates of the run (TSP_Instance): 
+ * 
+ * - Heap_Ints keeps an int[] on the Java heap (the double and float coordinates) 
+ * - OffHeap_Ints keeps the ints outside of the Java heap (the off-heap coordinates), 
+ *   must be freed with "release" 
+ * 
+ * Open source Java code, feel free to edit and try your own improvements. 
+ * Tested with Windows 11 
+ * Apache NetBeans 17 
+ * Java JRE 8u371 64bit 
+ * Java JDK 18.0.2 64bit 
+ * 
+ * @author Tuomas Hyvönen 
+ * @version 2.0 
+ */
+public abstract class Int_Array {
+    
+    /**
+     * Creates an int array (all values 0) for the coordinate storage of a run: off-heap for 
+     * TSP_Instance.STORAGE_OFF_HEAP, on the heap for the others. 
+     * 
+     * @param storage int, TSP_Instance.STORAGE_DOUBLE, STORAGE_FLOAT or STORAGE_OFF_HEAP 
+     * @param length int
+     * @return Int_Array
+     */
+    public static Int_Array allocate(int storage, int length) {
+        if(storage == TSP_Instance.STORAGE_OFF_HEAP) {
+            return new OffHeap_Ints(length);
+        }
+        return new Heap_Ints(new int[length]);
+    }
+    
+    /**
+     * An Int_Array of an existing int[], the values are not copied.
+     * 
+     * @param values int[]
+     * @return Int_Array
+     */
+    public static Int_Array wrap(int[] values) {
+        return new Heap_Ints(values);
+    }
+    
+    /**
+     * Returns the int count.
+     * 
+     * @return int
+     */
+    public abstract int length();
+    
+    /**
+     * Returns the value at index i.
+     * 
+     * @param i int
+     * @return int
+     */
+    public abstract int get(int i);
+    
+    /**
+     * Sets the value at index i.
+     * 
+     * @param i int
+     * @param value int
+     */
+    public abstract void set(int i, int value);
+    
+    /**
+     * A heap copy of the values, for example a tour for "tourToSolution".
+     * 
+     * @return int[]
+     */
+    public abstract int[] toArray();
+    
+    /**
+     * Frees the memory of the values now if the storage needs that (off-heap), the heap 
+     * arrays are left to the garbage collector. Do not use the array after this. 
+     */
+    public void release() {
+    }
+}
@@ -2,7 +2,7 @@ package tsp_solver_uef_241908;
 import java.util.*;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 4 of 11 (unnecessary tester class) 
+ * TSP Solver by Tuomas Hyvönen, Java file 20 of 40 (unnecessary tester class) 
  * 
  * Extra Java main method for testing purposes. Does not create a new User Interface window. 
  * If used, disable the main method in "TSP_Solver_UEF_241908.java" first. That creates 
@@ -80,4 +80,44 @@ public class Just_a_Tester_Class {
         System.out.println(answer3.get(0));
         System.out.println("");
     }
+    
+    /**
+     * Checks that the SOM iterations do not allocate memory: performSOM is run with a few and 
+     * with many iterations, and the allocated bytes of this thread are compared. Only the 
+     * allocations of the call itself (the arrays, the answer list) should be left, so the 
+     * bytes per iteration should be about 0. Needs a JVM with com.sun.management (HotSpot). 
+     */
+    public static void somAllocationCheck() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if(!(bean instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("The allocation counter is not supported by this JVM");
+            return;
+        }
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+        long id = Thread.currentThread().getId();
+        
+        Random r = new Random(1);
+        ArrayList inputXs = new ArrayList();
+        ArrayList inputYs = new ArrayList();
+        ArrayList neuronXs = new ArrayList();
+        ArrayList neuronYs = new ArrayList();
+        for(int i = 0; i < 20; i++) {
+            inputXs.add(r.nextDouble() * 1000);
+            inputYs.add(r.nextDouble() * 1000);
+        }
+        for(int i = 0; i < 200; i++) {
+            neuronXs.add(r.nextDouble() * 1000);
+            neuronYs.add(r.nextDouble() * 1000);
+        }
+        KohonenSOM.performSOM(20000, 1414.0, inputXs, inputYs, neuronXs, neuronYs, false, null); // JIT warm-up 
+        
+        long before = counter.getThreadAllocatedBytes(id);
+        KohonenSOM.performSOM(100, 1414.0, inputXs, inputYs, neuronXs, neuronYs, false, null);
+        long between = counter.getThreadAllocatedBytes(id);
+        KohonenSOM.performSOM(100100, 1414.0, inputXs, inputYs, neuronXs, neuronYs, false, null);
+        long after = counter.getThreadAllocatedBytes(id);
+        
+        double bytesPerIteration = ((after - between) - (between - before)) / 100000.0;
+        System.out.println("SOM allocations per iteration (bytes): " + bytesPerIteration);
+    }
 } 
\ No newline at end of file
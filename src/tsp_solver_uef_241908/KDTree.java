@@ -0,0 +1,369 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 22 of 40
+ *
+ * A 2-dimensional k-d tree for the nearest point searches, for example the Best Matching Unit
+ * of the ring SOM. The tree is stored in one int array: every index range of the array is a
+ * subtree and its median element is the subtree's root, the split axis alternates X, Y, X, Y...
+ * The coordinates are copied when building, so the searches are always consistent even if
+ * the original points keep moving (the neurons do). Rebuild when the points have moved enough.
+ * The copy has the storage of the tree (TSP_Instance): doubles by default, floats or off-heap 
+ * for the huge graphs (then "release" the tree after use). 
+ *
+ * No objects are created when searching, one tree should be used by one thread at a time, 
+ * the other threads can search the same built tree through their own "sharedView". 
+ * 
+ * "kNearest" finds the k nearest points, also only the ones in one quadrant around the query 
+ * point (the candidate neighbour lists, see Candidate_Sets). 
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class KDTree {
+    private final int[] nodes;      // point indexes in the tree order
+    private final TSP_Instance treePoints; // the coordinates when the tree was built, also in the tree order 
+                                           // (the partitioning and the searches read the memory in order) 
+    private int size;
+    
+    private double searchX;         // the search state, fields instead of objects
+    private double searchY;
+    private double bestDistance;
+    private int bestIndex;
+    
+    private int wantedCount;        // the k nearest search state 
+    private int foundCount;
+    private int excludedIndex;
+    private int searchQuadrant;
+    private int[] foundIndexes;
+    private double[] foundDistances;
+    
+    /**
+     * The constructor, "capacity" is the maximum point count.
+     *
+     * @param capacity int
+     */
+    public KDTree(int capacity) {
+        this(capacity, TSP_Instance.STORAGE_DOUBLE);
+    }
+    
+    /**
+     * The constructor with the storage of the copied coordinates (TSP_Instance.STORAGE_DOUBLE, 
+     * STORAGE_FLOAT or STORAGE_OFF_HEAP). 
+     *
+     * @param capacity int
+     * @param storage int
+     */
+    public KDTree(int capacity, int storage) {
+        nodes = new int[capacity];
+        treePoints = TSP_Instance.allocate(storage, capacity);
+        size = 0;
+    }
+    
+    private KDTree(KDTree built) {
+        nodes = built.nodes;
+        treePoints = built.treePoints;
+        size = built.size;
+    }
+    
+    /**
+     * A tree that shares the arrays of this built tree but has its own search state, so 
+     * several threads can search at the same time. Build this tree again only when 
+     * no view is searching, and take new views after that. 
+     *
+     * @return KDTree
+     */
+    public KDTree sharedView() {
+        return new KDTree(this);
+    }
+    
+    /**
+     * Builds the tree from the first n points of the arrays, O(n log n).
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param n int
+     */
+    public void build(double[] xs, double[] ys, int n) {
+        if(n > nodes.length) {
+            System.out.println("Too many points for the k-d tree, only " + nodes.length + " are used");
+            n = nodes.length;
+        }
+        size = n;
+        for(int i = 0; i < n; i++) {
+            nodes[i] = i;
+            treePoints.setPoint(i, xs[i], ys[i]);
+        }
+        buildRange(0, n, 0);
+    }
+    
+    /**
+     * Same as above for the first n points of a TSP_Instance, the coordinates are read through 
+     * the instance (no double copy of a float or off-heap graph). 
+     *
+     * @param points TSP_Instance
+     * @param n int
+     */
+    public void build(TSP_Instance points, int n) {
+        if(n > nodes.length) {
+            System.out.println("Too many points for the k-d tree, only " + nodes.length + " are used");
+            n = nodes.length;
+        }
+        size = n;
+        for(int i = 0; i < n; i++) {
+            nodes[i] = i;
+            treePoints.setPoint(i, points.getX(i), points.getY(i));
+        }
+        buildRange(0, n, 0);
+    }
+    
+    /**
+     * Frees the off-heap coordinates of the tree now (see TSP_Instance.release), 
+     * do not search the tree or its views after this. 
+     */
+    public void release() {
+        treePoints.release();
+    }
+    
+    /**
+     * Returns the point count of the tree.
+     *
+     * @return int
+     */
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * Places the median of the range to the middle (quickselect), then the same for both halves.
+     */
+    private void buildRange(int lo, int hi, int depth) {
+        if(hi - lo < 2) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        boolean xAxis = (depth & 1) == 0;
+        int left = lo;
+        int right = hi - 1;
+        while(left < right) {
+            double pivot = key((left + right) >>> 1, xAxis);
+            int i = left;
+            int j = right;
+            while(i <= j) {
+                while(key(i, xAxis) < pivot) {
+                    i++;
+                }
+                while(key(j, xAxis) > pivot) {
+                    j--;
+                }
+                if(i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if(mid <= j) {
+                right = j;
+            }
+            else if(mid >= i) {
+                left = i;
+            }
+            else {
+                break;
+            }
+        }
+        buildRange(lo, mid, depth + 1);
+        buildRange(mid + 1, hi, depth + 1);
+    }
+    
+    private double key(int i, boolean xAxis) {
+        return xAxis ? treePoints.getX(i) : treePoints.getY(i);
+    }
+    
+    private void swap(int i, int j) {
+        int helpVar = nodes[i];
+        nodes[i] = nodes[j];
+        nodes[j] = helpVar;
+        double helpX = treePoints.getX(i);
+        double helpY = treePoints.getY(i);
+        treePoints.setPoint(i, treePoints.getX(j), treePoints.getY(j));
+        treePoints.setPoint(j, helpX, helpY);
+    }
+    
+    /**
+     * Returns the index of the point that was nearest to (qx, qy) when the tree was built,
+     * -1 if the tree is empty.
+     *
+     * @param qx double
+     * @param qy double
+     * @return int
+     */
+    public int nearest(double qx, double qy) {
+        searchX = qx;
+        searchY = qy;
+        bestDistance = Double.MAX_VALUE;
+        bestIndex = -1;
+        searchRange(0, size, 0);
+        return bestIndex;
+    }
+    
+    /**
+     * Returns the squared distance of the latest "nearest" search result.
+     *
+     * @return double
+     */
+    public double getNearestDistanceSquared() {
+        return bestDistance;
+    }
+    
+    private void searchRange(int lo, int hi, int depth) {
+        if(lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = treePoints.getX(mid) - searchX;
+        double dy = treePoints.getY(mid) - searchY;
+        double d = dx*dx + dy*dy;
+        if(d < bestDistance) {
+            bestDistance = d;
+            bestIndex = nodes[mid];
+        }
+        double difference = ((depth & 1) == 0) ? -dx : -dy;
+        if(difference < 0) {
+            searchRange(lo, mid, depth + 1);
+            if(difference*difference < bestDistance) {
+                searchRange(mid + 1, hi, depth + 1);
+            }
+        }
+        else {
+            searchRange(mid + 1, hi, depth + 1);
+            if(difference*difference < bestDistance) {
+                searchRange(lo, mid, depth + 1);
+            }
+        }
+    }
+    
+    /**
+     * Finds the (at most) k points nearest to (qx, qy), nearest first, to "outIndexes" and their 
+     * squared distances to "outDistances", returns how many were found. The point "exclude" is 
+     * skipped (the query point itself, -1 if none). "quadrant" 0-3 accepts only the points 
+     * p with (p.x >= qx, p.y >= qy), (p.x < qx, p.y >= qy), (p.x < qx, p.y < qy) or 
+     * (p.x >= qx, p.y < qy), -1 accepts all. 
+     *
+     * @param qx double
+     * @param qy double
+     * @param k int
+     * @param exclude int
+     * @param quadrant int
+     * @param outIndexes int[]
+     * @param outDistances double[]
+     * @return int
+     */
+    public int kNearest(double qx, double qy, int k, int exclude, int quadrant, int[] outIndexes, double[] outDistances) {
+        searchX = qx;
+        searchY = qy;
+        wantedCount = k;
+        foundCount = 0;
+        excludedIndex = exclude;
+        searchQuadrant = quadrant;
+        foundIndexes = outIndexes;
+        foundDistances = outDistances;
+        bestDistance = Double.MAX_VALUE; // the distance of the k:th found, a subtree further away is skipped 
+        if(k > 0) {
+            searchKRange(0, size, 0);
+        }
+        foundIndexes = null;
+        foundDistances = null;
+        return foundCount;
+    }
+    
+    private void searchKRange(int lo, int hi, int depth) {
+        if(lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = treePoints.getX(mid) - searchX;
+        double dy = treePoints.getY(mid) - searchY;
+        double d = dx*dx + dy*dy;
+        if(d < bestDistance && nodes[mid] != excludedIndex && inQuadrant(dx, dy)) {
+            addFound(nodes[mid], d);
+        }
+        boolean xAxis = (depth & 1) == 0;
+        double difference = xAxis ? -dx : -dy;
+        // the left subtree has keys <= the middle key, the right one >= the middle key 
+        boolean leftPossible = quadrantAllowsBelow(xAxis, difference);
+        boolean rightPossible = quadrantAllowsAbove(xAxis, difference);
+        if(difference < 0) {
+            if(leftPossible) {
+                searchKRange(lo, mid, depth + 1);
+            }
+            if(rightPossible && difference*difference < bestDistance) {
+                searchKRange(mid + 1, hi, depth + 1);
+            }
+        }
+        else {
+            if(rightPossible) {
+                searchKRange(mid + 1, hi, depth + 1);
+            }
+            if(leftPossible && difference*difference < bestDistance) {
+                searchKRange(lo, mid, depth + 1);
+            }
+        }
+    }
+    
+    /**
+     * Can the subtree of the keys <= middle key have points of the quadrant, 
+     * "difference" is the query coordinate minus the middle key.
+     */
+    private boolean quadrantAllowsBelow(boolean xAxis, double difference) {
+        if(searchQuadrant < 0) {
+            return true;
+        }
+        boolean needsAtLeast = xAxis ? (searchQuadrant == 0 || searchQuadrant == 3) : (searchQuadrant <= 1);
+        return !needsAtLeast || difference <= 0;
+    }
+    
+    /**
+     * Can the subtree of the keys >= middle key have points of the quadrant.
+     */
+    private boolean quadrantAllowsAbove(boolean xAxis, double difference) {
+        if(searchQuadrant < 0) {
+            return true;
+        }
+        boolean needsBelow = xAxis ? (searchQuadrant == 1 || searchQuadrant == 2) : (searchQuadrant >= 2);
+        return !needsBelow || difference > 0;
+    }
+    
+    private boolean inQuadrant(double dx, double dy) {
+        switch(searchQuadrant) {
+            case 0: return dx >= 0 && dy >= 0;
+            case 1: return dx < 0 && dy >= 0;
+            case 2: return dx < 0 && dy < 0;
+            case 3: return dx >= 0 && dy < 0;
+            default: return true;
+        }
+    }
+    
+    /**
+     * Insertion to the sorted found lists, the furthest drops out when k are already found.
+     */
+    private void addFound(int index, double d) {
+        int l = (foundCount < wantedCount) ? foundCount++ : foundCount-1;
+        while(l > 0 && foundDistances[l-1] > d) {
+            foundDistances[l] = foundDistances[l-1];
+            foundIndexes[l] = foundIndexes[l-1];
+            l--;
+        }
+        foundDistances[l] = d;
+        foundIndexes[l] = index;
+        if(foundCount == wantedCount) {
+            bestDistance = foundDistances[foundCount-1];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,306 @@
+package tsp_solver_uef_241908;
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 21 of 40
+ *
+ * Karp style divide and conquer for the huge graphs (millions of vertices): the points are
+ * split by recursive median cuts (always across the longer side of the cell) until a cell has
+ * at most "cellSize" points. Every cell gets its own tour (nearest neighbour, then 2-opt and
+ * Or-opt with the candidate lists), the cells are solved in parallel with all processor cores.
+ *
+ * The two halves of every cut are then joined bottom-up: one edge of each tour is removed and
+ * the ends are connected across the cut, the best pair is searched among the points nearest to
+ * the cut line (boundary-aware merge). Finally the 2-opt and Or-opt of the whole tour start only
+ * from the seam points, the rest of the tour is already a local optimum.
+ *
+ * The coordinates are read through the TSP_Instance in its own storage, only the cell being 
+ * solved is copied to small double arrays for the nearest neighbour tour. The point order of 
+ * the cuts, the tours of the cells and halves (every one in its own index range of one array) 
+ * and the candidate lists of the seams are Int_Arrays in the same storage, off-heap for the 
+ * off-heap graphs. 
+ *
+ * The SOM clusters of LK_SOM_CH_NN_EVO_Algorithm are the same cluster-then-chain idea, this one
+ * is for the graphs that are too big for the SOM.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Karp_Partition {
+    
+    public static final int DEFAULT_CELL_SIZE = 2000;  // a few thousand points, 2-opt is fast there
+    private static final int SEAM_POINTS = 64;          // the points nearest to the cut line tried when joining
+    
+    private final TSP_Instance points;
+    private final Int_Array indexes;                    // the points in the cell order after the cuts
+    private final Int_Array tours;                      // the tour of the range lo..hi-1 of a cell or a half
+    private final Int_Array joined;                     // the merge writes here first
+    private final int cellSize;
+    private final ArrayList<int[]> cells = new ArrayList<>(); // the cell ranges {lo, hi} in the cut order
+    private final ArrayList<Integer> seams = new ArrayList<>();
+    
+    private Karp_Partition(TSP_Instance points, int cellSize) {
+        this.points = points;
+        this.cellSize = Math.max(8, cellSize);
+        int n = points.size();
+        indexes = Int_Array.allocate(points.getStorage(), n);
+        tours = Int_Array.allocate(points.getStorage(), n);
+        joined = Int_Array.allocate(points.getStorage(), n);
+        for(int i = 0; i < n; i++) {
+            indexes.set(i, i);
+        }
+    }
+    
+    /**
+     * The whole tour, a vertex order without the start vertex at the end.
+     *
+     * @param points TSP_Instance
+     * @param cellSize int, at most this many points in a cell
+     * @return int[]
+     */
+    public static int[] solve(TSP_Instance points, int cellSize) {
+        int n = points.size();
+        Karp_Partition partition = new Karp_Partition(points, cellSize);
+        partition.cut(0, n);
+        System.out.println("Karp partitioning: " + partition.cells.size() + " cells of at most "
+                + partition.cellSize + " points");
+    
+        IntStream.range(0, partition.cells.size()).parallel().forEach(c ->
+                partition.solveCell(partition.cells.get(c)[0], partition.cells.get(c)[1]));
+    
+        partition.join(0, n);
+        int[] tour = partition.tours.toArray();
+        partition.indexes.release();
+        partition.tours.release();
+        partition.joined.release();
+    
+        if(n >= 8 && !partition.seams.isEmpty()) {
+            int k = Candidate_Sets.lengthFor(Candidate_Sets.DEFAULT_K, n);
+            Int_Array candidates = Candidate_Sets.buildLists(points, k, true);
+            int[] seamPoints = new int[partition.seams.size()];
+            for(int i = 0; i < seamPoints.length; i++) {
+                seamPoints[i] = partition.seams.get(i);
+            }
+            double gain = Sub_algorithms.twoOptAndOrOpt(points, tour, candidates, k, seamPoints);
+            candidates.release();
+            System.out.println("Karp partitioning: the seams were improved by " + gain);
+        }
+        return tour;
+    }
+    
+    /**
+     * The median cuts, the cell ranges are collected in the cut order.
+     */
+    private void cut(int lo, int hi) {
+        if(hi - lo <= cellSize) {
+            cells.add(new int[] {lo, hi});
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi, mid, longerAxisIsX(lo, hi));
+        cut(lo, mid);
+        cut(mid, hi);
+    }
+    
+    /**
+     * The cut tree again, now joining the tours of the halves, the tour of lo..hi-1 is 
+     * in the same range of "tours". 
+     */
+    private void join(int lo, int hi) {
+        if(hi - lo <= cellSize) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        boolean xAxis = longerAxisIsX(lo, hi);
+        double cutLine = (maxKey(lo, mid, xAxis) + minKey(mid, hi, xAxis)) / 2;
+        join(lo, mid);
+        join(mid, hi);
+        merge(lo, mid, hi, xAxis, cutLine);
+    }
+    
+    private boolean longerAxisIsX(int lo, int hi) {
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for(int i = lo; i < hi; i++) {
+            int v = indexes.get(i);
+            minX = Math.min(minX, points.getX(v));
+            maxX = Math.max(maxX, points.getX(v));
+            minY = Math.min(minY, points.getY(v));
+            maxY = Math.max(maxY, points.getY(v));
+        }
+        return maxX - minX >= maxY - minY;
+    }
+    
+    private double maxKey(int lo, int hi, boolean xAxis) {
+        double max = -Double.MAX_VALUE;
+        for(int i = lo; i < hi; i++) {
+            max = Math.max(max, key(indexes.get(i), xAxis));
+        }
+        return max;
+    }
+    
+    private double minKey(int lo, int hi, boolean xAxis) {
+        double min = Double.MAX_VALUE;
+        for(int i = lo; i < hi; i++) {
+            min = Math.min(min, key(indexes.get(i), xAxis));
+        }
+        return min;
+    }
+    
+    private double key(int v, boolean xAxis) {
+        return xAxis ? points.getX(v) : points.getY(v);
+    }
+    
+    /**
+     * Quickselect: the "wanted" smallest key to its place, the smaller ones before it
+     * and the bigger ones after it (like KDTree.buildRange).
+     */
+    private void select(int lo, int hi, int wanted, boolean xAxis) {
+        int left = lo;
+        int right = hi - 1;
+        while(left < right) {
+            double pivot = key(indexes.get((left + right) >>> 1), xAxis);
+            int i = left;
+            int j = right;
+            while(i <= j) {
+                while(key(indexes.get(i), xAxis) < pivot) {
+                    i++;
+                }
+                while(key(indexes.get(j), xAxis) > pivot) {
+                    j--;
+                }
+                if(i <= j) {
+                    int helpVar = indexes.get(i);
+                    indexes.set(i, indexes.get(j));
+                    indexes.set(j, helpVar);
+                    i++;
+                    j--;
+                }
+            }
+            if(wanted <= j) {
+                right = j;
+            }
+            else if(wanted >= i) {
+                left = i;
+            }
+            else {
+                break;
+            }
+        }
+    }
+    
+    /**
+     * The tour of one cell: nearest neighbour, then 2-opt and Or-opt with the candidate lists.
+     * The original point indexes of the tour are written to the range lo..hi-1 of "tours".
+     */
+    private void solveCell(int lo, int hi) {
+        int c = hi - lo;
+        double[] cellXs = new double[c];
+        double[] cellYs = new double[c];
+        for(int i = 0; i < c; i++) {
+            cellXs[i] = points.getX(indexes.get(lo + i));
+            cellYs[i] = points.getY(indexes.get(lo + i));
+        }
+        int[] tour = Sub_algorithms.nearestNeighbourTour(cellXs, cellYs);
+        if(c >= 8) {
+            int k = Candidate_Sets.lengthFor(Candidate_Sets.DEFAULT_K, c);
+            Sub_algorithms.twoOptAndOrOpt(cellXs, cellYs, tour, Candidate_Sets.build(cellXs, cellYs, k, true), k);
+        }
+        for(int i = 0; i < c; i++) {
+            tours.set(lo + i, indexes.get(lo + tour[i]));
+        }
+    }
+    
+    /**
+     * Joins the tours of the two halves (the ranges lo..mid-1 and mid..hi-1 of "tours"): the edge
+     * (a, a next) of the first tour and the edge (b, b next) of the second one are removed and the
+     * ends are connected across the cut, the cheapest of the pairs whose first points are among the
+     * SEAM_POINTS nearest to the cut line. The joined tour is written to the range lo..hi-1.
+     */
+    private void merge(int lo, int mid, int hi, boolean xAxis, double cutLine) {
+        int f = mid - lo;
+        int m = hi - mid;
+        int[] firstNear = nearestToLine(lo, f, xAxis, cutLine);
+        int[] secondNear = nearestToLine(mid, m, xAxis, cutLine);
+        double bestCost = Double.MAX_VALUE;
+        int bestI = 0, bestJ = 0;
+        boolean bestReversed = false;
+        for(int i : firstNear) {
+            int a = tours.get(lo + i);
+            int a2 = tours.get(lo + (i + 1) % f);
+            double dA = distance(a, a2);
+            for(int j : secondNear) {
+                int b = tours.get(mid + j);
+                int b2 = tours.get(mid + (j + 1) % m);
+                double removed = dA + distance(b, b2);
+                double straight = distance(a, b2) + distance(b, a2) - removed;   // a -> b2 ... b -> a2
+                double reversed = distance(a, b) + distance(b2, a2) - removed;   // a -> b ... b2 -> a2
+                if(straight < bestCost) {
+                    bestCost = straight;
+                    bestI = i;
+                    bestJ = j;
+                    bestReversed = false;
+                }
+                if(reversed < bestCost) {
+                    bestCost = reversed;
+                    bestI = i;
+                    bestJ = j;
+                    bestReversed = true;
+                }
+            }
+        }
+        int p = lo;
+        for(int i = 0; i <= bestI; i++) {
+            joined.set(p++, tours.get(lo + i));
+        }
+        for(int s = 0; s < m; s++) {
+            joined.set(p++, tours.get(mid + (bestReversed ? (bestJ - s + m) % m : (bestJ + 1 + s) % m)));
+        }
+        for(int i = bestI + 1; i < f; i++) {
+            joined.set(p++, tours.get(lo + i));
+        }
+        seams.add(tours.get(lo + bestI));
+        seams.add(tours.get(lo + (bestI + 1) % f));
+        seams.add(tours.get(mid + bestJ));
+        seams.add(tours.get(mid + (bestJ + 1) % m));
+        for(int i = lo; i < hi; i++) {
+            tours.set(i, joined.get(i));
+        }
+    }
+    
+    /**
+     * The tour positions of the (at most) SEAM_POINTS points nearest to the cut line, 
+     * the tour is the range start..start+length-1 of "tours". 
+     */
+    private int[] nearestToLine(int start, int length, boolean xAxis, double cutLine) {
+        int wanted = Math.min(SEAM_POINTS, length);
+        int[] positions = new int[wanted];
+        double[] distances = new double[wanted];
+        int found = 0;
+        for(int i = 0; i < length; i++) {
+            double d = Math.abs(key(tours.get(start + i), xAxis) - cutLine);
+            if(found < wanted || d < distances[found-1]) {
+                int l = (found < wanted) ? found++ : found-1; // insertion, the furthest drops out
+                while(l > 0 && distances[l-1] > d) {
+                    distances[l] = distances[l-1];
+                    positions[l] = positions[l-1];
+                    l--;
+                }
+                distances[l] = d;
+                positions[l] = i;
+            }
+        }
+        return positions;
+    }
+    
+    private double distance(int a, int b) {
+        return points.distance(a, b);
+    }
+}
\ No newline at end of file
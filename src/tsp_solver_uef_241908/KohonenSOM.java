@@ -1,16 +1,19 @@
 package tsp_solver_uef_241908;
 import static java.lang.Math.sqrt;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 5 of 11 
+ * TSP Solver by Tuomas Hyvönen, Java file 23 of 40 
  * 
  * A class for the PhD Teuvo Kohonen's (1934–2021) self organizing map (SOM). 
  * Choose a random input all the time and move the neuron vertices towards that Best Matching Unit. 
  * Finally, move with own logic if logic stack are used. 
  * Checking that no points are on the tops of each other. 
  * 
+ * The classic elastic ring SOM is here too (performRingSOM), there the neurons are a closed ring. 
+ * 
  * Open source Java code, feel free to edit and try your own improvements. 
  * Tested with Windows 11 
  * Apache NetBeans 17 
@@ -21,6 +24,15 @@ import java.util.Random;
  * @version 2.0 
  */
 public class KohonenSOM {
+    // the ring SOM parameters (performRingSOM), the coordinates are scaled to the unit square 
+    private static final double RING_NEURONS_PER_CITY = 2.5;   // m ≈ 2–3n neurons in the ring 
+    private static final double RING_START_LEARNING_RATE = 0.8;
+    private static final double RING_END_LEARNING_RATE = 0.1;
+    private static final double RING_MAX_START_RADIUS = 100;   // in neurons, keeps the huge graphs fast 
+    private static final double RING_END_RADIUS = 0.7;         // in neurons, about only the BMU moves in the end 
+    private static final double RING_RADIUS_PHASE = 0.7;       // the radius decays during the first 70% of the run 
+    private static final double RING_WINDOW_RADII = 2.5;       // neurons further than this many radii do not move 
+    
     // https://www.youtube.com/watch?v=H9H6s-x-0YE 
     // tutorial uploaded by Thales Sehn Körting, 8.Jun.2013 
     // watched the video on 9.Nov.2022 
@@ -66,7 +78,7 @@ public class KohonenSOM {
         // 2) finding the closest Best Matching Unit neuron with the Euclidean distance (squared), 
         // 3) traversing all the neurons so that the closest BMU moves the most, 
         //    others move only a little and less and even less, depending on the distance.
-        // 4) Check that no points are on each other with the exact same coordinates.
+        // 4) Check that no points are on each other with the exact same coordinates (once per iteration).
         // 5) Repeat the steps from 1 to 4 (for maxIterations), 
         // 6) finally, classify the data into clusters, Euclidean distance with inputs is the measurement.
         
@@ -78,6 +90,42 @@ public class KohonenSOM {
             System.out.println("neuronCoordinateXs.size() != neuronCoordinateYs.size()");
             return null;
         }
+        
+        // everything the iterations need is allocated here, the loop itself creates no objects 
+        // (the logic fragments do, they are called only when the logic stacks are used) 
+        double[] inputXs = new double[inputVerticeCount];
+        double[] inputYs = new double[inputVerticeCount];
+        for(int j = 0; j < inputVerticeCount; j++) {
+            inputXs[j] = (double)inputCoordinateXs.get(j);
+            inputYs[j] = (double)inputCoordinateYs.get(j);
+        }
+        double[] neuronXs = new double[neuronCount];
+        double[] neuronYs = new double[neuronCount];
+        for(int j = 0; j < neuronCount; j++) {
+            neuronXs[j] = (double)neuronCoordinateXs.get(j);
+            neuronYs[j] = (double)neuronCoordinateYs.get(j);
+        }
+        double[] weights = new double[neuronCount];
+        double[] distances = new double[Math.max(neuronCount, inputVerticeCount)]; // for Distance_Kernels 
+        int[] equalityTable = new int[Integer.highestOneBit(Math.max(1, neuronCount)) * 4];
+        Random random = new Random();
+        
+        ArrayList x_coord = new ArrayList(); // the chromosome points do not change during the SOM 
+        ArrayList y_coord = new ArrayList();
+        int[] candidates = null;             // so their candidate neighbour lists are built once 
+        int candidateCount = 0;
+        if(useLogicStacks) {
+            ArrayList coord = c.getChromosomePoints();
+            for(int k = 0; k < coord.size(); k+=2) {
+                x_coord.add(coord.get(k));
+                y_coord.add(coord.get(k+1));
+            }
+            if(x_coord.size() > 2) {
+                candidateCount = Candidate_Sets.lengthFor(Candidate_Sets.DEFAULT_K, x_coord.size());
+                candidates = Candidate_Sets.build(x_coord, y_coord, candidateCount, false);
+            }
+        }
+        
         /**
         for(int a = 0; a < 2; a++) { // for extra 2 times 
             if(a == 2) {
@@ -86,37 +134,25 @@ public class KohonenSOM {
             **/
             for(int i = 0; i < maxIterations; i++) {
 
-                int max = inputCoordinateXs.size()-1;
+                int max = inputVerticeCount-1;
                 int min = 0;
                 int range = (max - min) + 1;     
                 int randomIndex = (int)(Math.random() * range) + min;
                 //System.out.println("\nRandom's index is " + randomIndex + "\n");
+                double inputX = inputXs[randomIndex];
+                double inputY = inputYs[randomIndex];
 
-                double bestKnownDistance = Double.MAX_VALUE;
-                double[] weights = new double[neuronCount];
-
-                for(int j = 0; j < neuronCount; j++) {
-                    // finding out the Best Matching Unit (has nothing to do with Christofides heuristic matching)
-                    distance = Sub_algorithms.Euclidean_distance_squared(
-                            (double)neuronCoordinateXs.get(j), (double)neuronCoordinateYs.get(j),
-                            (double)inputCoordinateXs.get(randomIndex), (double)inputCoordinateYs.get(randomIndex));
-
-                    if(distance < bestKnownDistance) {
-                        bestKnownDistance = distance;
-                        winnerBMU = j;
-                        //System.out.println("Winner BMU index set to " + winnerBMU);
-                    }
-                    // for(int k = 0; k < neuronCount; k++) { 
-                    // }
-                }
+                // finding out the Best Matching Unit (has nothing to do with Christofides heuristic matching)
+                winnerBMU = Distance_Kernels.nearest(neuronXs, neuronYs, neuronCount, inputX, inputY, distances);
+                //System.out.println("Winner BMU index set to " + winnerBMU);
                 
+                Distance_Kernels.squaredDistances(neuronXs, neuronYs, neuronCount, 
+                        neuronXs[winnerBMU], neuronYs[winnerBMU], weights);
                 for(int j = 0; j < neuronCount; j++) {
-                    distance = Sub_algorithms.Euclidean_distance_squared(
-                            (double)neuronCoordinateXs.get(j), (double)neuronCoordinateYs.get(j),
-                            (double)neuronCoordinateXs.get(winnerBMU), (double)neuronCoordinateYs.get(winnerBMU));
+                    distance = weights[j];
                     
                     if(distance < maxPossibleDistanceInHull / 10 ) { // divide by 10 because wanted so, can be edited 
-                        weights[j] -= (sqrt(distance));
+                        weights[j] = -(sqrt(distance));
                     }
                     else {
                         weights[j] = maxPossibleDistanceInHull;
@@ -136,39 +172,20 @@ public class KohonenSOM {
 
                     double movingPercentage = learningRate * ((weights[j])/100); 
                     
-                    ArrayList movedCoord;// = new ArrayList();
-                    movedCoord = traverse(       // The important traversing phase 
-                            (double)neuronCoordinateXs.get(j),  // movingPercentage calculation is not the official recommendation
-                            (double)inputCoordinateXs.get(randomIndex), // W(s) + theta(u,v,s) *alpha(s)*(D(t)-W(s)) would be the official 
-                            (double)neuronCoordinateYs.get(j), 
-                            (double)inputCoordinateYs.get(randomIndex), 
-                            movingPercentage);
-                    neuronCoordinateXs.set(j, movedCoord.get(0));
-                    neuronCoordinateYs.set(j, movedCoord.get(1));
-
-                    //System.out.println("X " + neuronCoordinateXs.toString());
-                    //System.out.println("Y " + neuronCoordinateYs.toString());
-                    ArrayList helpList;// = new ArrayList();
-                    helpList = makeSureThatThereAreNoEqualVertices(neuronCoordinateXs, neuronCoordinateYs);
-                    int insertIndex = 0;
-                    for(int k = 0; k < helpList.size()/2; k+=2) {
-                        neuronCoordinateXs.set(insertIndex, helpList.get(k));
-                        insertIndex++;
-                    }
-                    insertIndex = 0;
-                    for(int k = 1; k < helpList.size()/2; k+=2) {
-                        neuronCoordinateYs.set(insertIndex, helpList.get(k));
-                        insertIndex++;
+                    // The important traversing phase, in place (same as the "traverse" method) 
+                    // movingPercentage calculation is not the official recommendation 
+                    // W(s) + theta(u,v,s) *alpha(s)*(D(t)-W(s)) would be the official 
+                    if(movingPercentage > -1 && movingPercentage < 1) {
+                        neuronXs[j] += (inputX - neuronXs[j]) * movingPercentage;
+                        neuronYs[j] += (inputY - neuronYs[j]) * movingPercentage;
                     }
-                    //System.out.println("x " + neuronCoordinateXs.toString());
-                    //System.out.println("y " + neuronCoordinateYs.toString());
-                    //Sub_algorithms.makeSureThatThereAreNoEqualVertices(inputCoordinateXs, inputCoordinateYs);
                 }
+                separateEqualNeurons(neuronXs, neuronYs, equalityTable, random); // once per iteration 
                 
                 if(useLogicStacks) {
                     // make the neurons have a feeling of "on a second thought, I'll also move as I want"
                     for(int j = 0; j < neuronCount; j++) {
-                        ArrayList movedCoord = new ArrayList();
+                        ArrayList movedCoord = null;
                         
                         // j should point to a chromosome that has logic stacks 
                         int moveDecision = c.getStack().top();
@@ -176,25 +193,20 @@ public class KohonenSOM {
 
                         double movingPercentage = 0.7777; // can be edited! 
                         
-                        ArrayList x_coord = new ArrayList();
-                        ArrayList y_coord = new ArrayList();
-                        ArrayList coord = c.getChromosomePoints();
-                        for(int k = 0; k < coord.size(); k+=2) {
-                            x_coord.add(coord.get(k));
-                            y_coord.add(coord.get(k+1));
-                        }
-                        
                         switch(moveDecision) {  // 0 = sprout start index, NO ZERO ALLOWED SO 1 
                              case 1: {
-                                 movedCoord = Logic_Fragments.nnhSprout3AndMoveTowards3rd(movingPercentage, 1, x_coord, y_coord); 
+                                 movedCoord = Logic_Fragments.nnhSprout3AndMoveTowards3rd(movingPercentage, 1, x_coord, y_coord, 
+                                         candidates, candidateCount); 
                                  break;
                              }
                              case 2: {
-                                 movedCoord = Logic_Fragments.chriSprout9AndMove(movingPercentage, 1, x_coord, y_coord); 
+                                 movedCoord = Logic_Fragments.chriSprout9AndMove(movingPercentage, 1, x_coord, y_coord, 
+                                         candidates, candidateCount); 
                                  break;
                              }
                              case 3: {
-                                 movedCoord = Logic_Fragments.moveTowardsTheClosest(movingPercentage, 1, x_coord, y_coord); 
+                                 movedCoord = Logic_Fragments.moveTowardsTheClosest(movingPercentage, 1, x_coord, y_coord, 
+                                         candidates, candidateCount); 
                                  break;
                              }
                              case 4: {
@@ -202,7 +214,8 @@ public class KohonenSOM {
                                  break;
                              }
                              case 5: {
-                                 movedCoord = Logic_Fragments.moveAwayFromTheClosestThenUDLR(movingPercentage, 1, x_coord, y_coord); 
+                                 movedCoord = Logic_Fragments.moveAwayFromTheClosestThenUDLR(movingPercentage, 1, x_coord, y_coord, 
+                                         candidates, candidateCount); 
                                  break;
                              } // Comment (//) the method calls above in order to ignore them. 
                              // Write your own cases 6, 7, 8 etc. here if you make more logic fragments. 
@@ -214,29 +227,21 @@ public class KohonenSOM {
                              
                         } // when adding new logic fragment methods into "Logic_fragments.java", remember to add the calls here too^! 
                         
-                        if(!movedCoord.isEmpty()) {
+                        if(movedCoord != null && !movedCoord.isEmpty()) {
                             //System.out.println("movedCoord.size() is " + movedCoord.size());
-                            neuronCoordinateXs.set(j, movedCoord.get(0));
-                            neuronCoordinateYs.set(j, movedCoord.get(1));
+                            neuronXs[j] = (double)movedCoord.get(0);
+                            neuronYs[j] = (double)movedCoord.get(1);
                         }
-                            ArrayList helpList;// = new ArrayList();
-                            helpList = makeSureThatThereAreNoEqualVertices(neuronCoordinateXs, neuronCoordinateYs);
-                            int insertIndex = 0;
-                            for(int k = 0; k < helpList.size()/2; k+=2) {
-                                neuronCoordinateXs.set(insertIndex, helpList.get(k));
-                                insertIndex++;
-                            }
-                            insertIndex = 0;
-                            for(int k = 1; k < helpList.size()/2; k+=2) {
-                                neuronCoordinateYs.set(insertIndex, helpList.get(k));
-                                insertIndex++;
-                            }
-                        
                     }
+                    separateEqualNeurons(neuronXs, neuronYs, equalityTable, random);
                 }
             }
         //}
         
+        for(int j = 0; j < neuronCount; j++) { // the callers keep using the same neuron lists 
+            neuronCoordinateXs.set(j, neuronXs[j]);
+            neuronCoordinateYs.set(j, neuronYs[j]);
+        }
         //System.out.println("performSOM - " + neuronCoordinateXs.toString() + ", " + neuronCoordinateYs.toString());
         
         ArrayList answer = new ArrayList(); // xyC xyC xyC xyC xyC xyC ... where C = cluster, 0 is included
@@ -244,21 +249,13 @@ public class KohonenSOM {
         int[] clusters = new int[neuronCount];
         
         for(int i = 0; i < neuronCount; i++) {
-            double bestKnownDistance = Double.MAX_VALUE;
-            for(int j = 0; j < inputVerticeCount; j++) {
-                distance = Sub_algorithms.Euclidean_distance_squared(
-                        (double)neuronCoordinateXs.get(i), (double)neuronCoordinateYs.get(i),
-                        (double)inputCoordinateXs.get(j), (double)inputCoordinateYs.get(j));
-                if(distance < bestKnownDistance) {
-                    bestKnownDistance = distance;
-                    clusters[i] = j;
-                }
-            }
+            clusters[i] = Math.max(0, Distance_Kernels.nearest(inputXs, inputYs, inputVerticeCount, 
+                    neuronXs[i], neuronYs[i], distances));
         }
         
         for(int i = 0; i < neuronCount; i++) {
-            answer.add(neuronCoordinateXs.get(i));
-            answer.add(neuronCoordinateYs.get(i));
+            answer.add(neuronXs[i]);
+            answer.add(neuronYs[i]);
             answer.add(clusters[i]);
         }
         System.out.println(answer.toString() + ", size is: " + answer.size() + " after performSOM\n");
@@ -409,4 +406,219 @@ public class KohonenSOM {
         //System.out.println("\n\n" + Xs.toString() + " \n" + Ys.toString());
         return answer;
     }
+    
+    /**
+     * The primitive array version of "makeSureThatThereAreNoEqualVertices" for the SOM loop: 
+     * a neuron whose coordinates are equal to an earlier neuron's is moved a bit, like 
+     * 6.0 -> 6.0000000013. The equal ones are found with a hash table, O(n) instead of O(n²). 
+     * "table" is an int array with a power of 2 length of at least 2n, it is reused between 
+     * the calls, so nothing is allocated here. 
+     * 
+     * @param Xs double[]
+     * @param Ys double[]
+     * @param table int[]
+     * @param r Random
+     */
+    public static void separateEqualNeurons(double[] Xs, double[] Ys, int[] table, Random r) {
+        Arrays.fill(table, 0); // 0 = empty, otherwise the neuron index + 1 
+        int mask = table.length - 1;
+        double rangeMin = 0.00000001;
+        double rangeMax = 0.00000002;
+        for(int i = 0; i < Xs.length; i++) {
+            int slot = coordinateHash(Xs[i], Ys[i]) & mask;
+            while(table[slot] != 0) {
+                int j = table[slot] - 1;
+                if(Xs[i] == Xs[j] && Ys[i] == Ys[j]) {
+                    //System.out.println("\n\nEqual coordinates found, changing");
+                    Xs[i] += rangeMin + (rangeMax - rangeMin) * r.nextDouble();
+                    Ys[i] -= rangeMin + (rangeMax - rangeMin) * r.nextDouble();
+                    slot = coordinateHash(Xs[i], Ys[i]) & mask; // search again with the new coordinates 
+                }
+                else {
+                    slot = (slot + 1) & mask;
+                }
+            }
+            table[slot] = i + 1;
+        }
+    }
+    
+    private static int coordinateHash(double x, double y) {
+        long bits = Double.doubleToLongBits(x + 0.0) * 31 + Double.doubleToLongBits(y + 0.0); // + 0.0 makes -0.0 to 0.0 
+        bits *= 0x9E3779B97F4A7C15L;
+        return (int)(bits ^ (bits >>> 32));
+    }
+    
+    /**
+     * The classic elastic ring SOM for the TSP (next to the hull target SOM above): a closed ring 
+     * of m ≈ 2.5n neurons is pulled towards randomly chosen cities. The Best Matching Unit (BMU) 
+     * is the nearest neuron, found with a k-d tree that is rebuilt now and then, and checked along 
+     * the ring because the neurons have moved after the rebuild. The BMU and its ring neighbours 
+     * move towards the city, the neighbourhood is a Gaussian over the ring index distance. 
+     * Both the learning rate and the neighbourhood radius decay during the run. 
+     * 
+     * Finally the tour is read off: every city gets the ring position of its BMU and the cities 
+     * are sorted by those positions. O(iterations * (log n + radius)), only primitive arrays. 
+     * 
+     * If "iterations" is 0 or less, a count that depends on the city count is used. 
+     * 
+     * @param xs double[]
+     * @param ys double[]
+     * @param iterations int
+     * @param seed long
+     * @return int[], the city indexes in the tour order 
+     */
+    public static int[] performRingSOM(double[] xs, double[] ys, int iterations, long seed) {
+        if(ys.length != xs.length) {
+            System.out.println("Wrong coordinate arrays in performRingSOM");
+            return null;
+        }
+        return performRingSOM(new Double_Instance(xs, ys), iterations, seed);
+    }
+    
+    /**
+     * Same as above for a TSP_Instance (any coordinate storage). The city coordinates are 
+     * read from the instance directly, only the neurons have their own arrays. 
+     * 
+     * @param cities TSP_Instance
+     * @param iterations int
+     * @param seed long
+     * @return int[], the city indexes in the tour order 
+     */
+    public static int[] performRingSOM(TSP_Instance cities, int iterations, long seed) {
+        int n = cities.size();
+        if(n < 1) {
+            System.out.println("No cities in performRingSOM");
+            return null;
+        }
+        int m = Math.max(8, (int)(RING_NEURONS_PER_CITY * n));
+        if(iterations <= 0) {
+            iterations = Math.max(50000, 40 * n);
+        }
+        
+        // the cities to the unit square, the parameters below do not depend on the coordinate scale 
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for(int i = 0; i < n; i++) {
+            minX = Math.min(minX, cities.getX(i));
+            maxX = Math.max(maxX, cities.getX(i));
+            minY = Math.min(minY, cities.getY(i));
+            maxY = Math.max(maxY, cities.getY(i));
+        }
+        double scale = Math.max(maxX - minX, maxY - minY);
+        if(scale <= 0) {
+            scale = 1;
+        }
+        double centreX = 0;
+        double centreY = 0;
+        for(int i = 0; i < n; i++) {
+            centreX += (cities.getX(i) - minX) / scale / n;
+            centreY += (cities.getY(i) - minY) / scale / n;
+        }
+        
+        // the ring starts as a small circle around the centre of the cities 
+        double[] neuronXs = new double[m];
+        double[] neuronYs = new double[m];
+        for(int j = 0; j < m; j++) {
+            double angle = 2 * Math.PI * j / m;
+            neuronXs[j] = centreX + 0.1 * Math.cos(angle);
+            neuronYs[j] = centreY + 0.1 * Math.sin(angle);
+        }
+        
+        double learningRate = RING_START_LEARNING_RATE;
+        double learningRateDecay = Math.pow(RING_END_LEARNING_RATE / RING_START_LEARNING_RATE, 1.0 / iterations);
+        double radius = Math.max(RING_END_RADIUS, Math.min(m / 10.0, RING_MAX_START_RADIUS));
+        double radiusDecay = Math.pow(RING_END_RADIUS / radius, 1.0 / (RING_RADIUS_PHASE * iterations));
+        int rebuildInterval = Math.max(1000, m / 16); // the BMU check along the ring fixes the small moves 
+        
+        KDTree tree = new KDTree(m);
+        Random random = new Random(seed);
+        for(int iteration = 0; iteration < iterations; iteration++) {
+            if(iteration % rebuildInterval == 0) {
+                tree.build(neuronXs, neuronYs, m);
+            }
+            int city = random.nextInt(n);
+            double x = (cities.getX(city) - minX) / scale;
+            double y = (cities.getY(city) - minY) / scale;
+            int bmu = ringBMU(tree, neuronXs, neuronYs, x, y);
+            
+            // the Gaussian h(d) = exp(-d²/2r²) without an exp call per neuron: 
+            // h(d+1) = h(d) * step(d), step(d+1) = step(d) * q 
+            int window = Math.min(m/2, (int)(RING_WINDOW_RADII * radius) + 1);
+            double q = Math.exp(-1.0 / (radius * radius));
+            double step = Math.exp(-1.0 / (2 * radius * radius));
+            double h = learningRate;
+            neuronXs[bmu] += h * (x - neuronXs[bmu]);
+            neuronYs[bmu] += h * (y - neuronYs[bmu]);
+            for(int d = 1; d <= window; d++) {
+                h *= step;
+                step *= q;
+                int right = bmu + d;
+                if(right >= m) {
+                    right -= m;
+                }
+                int left = bmu - d;
+                if(left < 0) {
+                    left += m;
+                }
+                neuronXs[right] += h * (x - neuronXs[right]);
+                neuronYs[right] += h * (y - neuronYs[right]);
+                if(left != right) {
+                    neuronXs[left] += h * (x - neuronXs[left]);
+                    neuronYs[left] += h * (y - neuronYs[left]);
+                }
+            }
+            learningRate *= learningRateDecay;
+            if(radius > RING_END_RADIUS) {
+                radius *= radiusDecay;
+            }
+        }
+        
+        // reading the tour: ring position of the BMU, plus the position between the ring neighbours 
+        tree.build(neuronXs, neuronYs, m);
+        double[] ringPositions = new double[n];
+        int[] tour = new int[n];
+        for(int i = 0; i < n; i++) {
+            double x = (cities.getX(i) - minX) / scale;
+            double y = (cities.getY(i) - minY) / scale;
+            int bmu = ringBMU(tree, neuronXs, neuronYs, x, y);
+            int next = (bmu + 1 == m) ? 0 : bmu + 1;
+            int previous = (bmu == 0) ? m - 1 : bmu - 1;
+            double dx = neuronXs[next] - neuronXs[previous];
+            double dy = neuronYs[next] - neuronYs[previous];
+            double lengthSquared = dx*dx + dy*dy;
+            double offset = 0;
+            if(lengthSquared > 0) {
+                offset = ((x - neuronXs[bmu]) * dx + (y - neuronYs[bmu]) * dy) / lengthSquared;
+                offset = Math.max(-0.49, Math.min(0.49, offset));
+            }
+            ringPositions[i] = bmu + offset;
+            tour[i] = i;
+        }
+        Sub_algorithms.sortIndexesByKeys(tour, ringPositions, null);
+        return tour;
+    }
+    
+    /**
+     * The Best Matching Unit of the ring SOM: the k-d tree result (nearest when the tree was built) 
+     * is moved along the ring as long as the current neuron positions are nearer. 
+     */
+    private static int ringBMU(KDTree tree, double[] neuronXs, double[] neuronYs, double x, double y) {
+        int m = neuronXs.length;
+        int bmu = tree.nearest(x, y);
+        double best = Sub_algorithms.Euclidean_distance_squared(x, y, neuronXs[bmu], neuronYs[bmu]);
+        for(int direction = -1; direction <= 1; direction += 2) {
+            boolean moved = true;
+            while(moved) {
+                moved = false;
+                int candidate = (bmu + direction + m) % m;
+                double d = Sub_algorithms.Euclidean_distance_squared(x, y, neuronXs[candidate], neuronYs[candidate]);
+                if(d < best) {
+                    best = d;
+                    bmu = candidate;
+                    moved = true;
+                }
+            }
+        }
+        return bmu;
+    }
 }
\ No newline at end of file
@@ -2,7 +2,7 @@ package tsp_solver_uef_241908;
 import java.util.ArrayList;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 6 of 11 
+ * TSP Solver by Tuomas Hyvönen, Java file 24 of 40 
  * 
  * A class for logic fragments that are popped from a stack when moving the SOM neurons. 
  * 
@@ -80,6 +80,23 @@ public class Logic_Fragments {
      */
     public static ArrayList nnhSprout3AndMoveTowards3rd(double threshold, int startingNodeIndex_NO_ZERO, 
                 ArrayList coordinates_x, ArrayList coordinates_y) {
+        return nnhSprout3AndMoveTowards3rd(threshold, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y, null, 0);
+    }
+    
+    /**
+     * Same as above, the NN sprout uses the candidate neighbour lists of the coordinates 
+     * (Candidate_Sets), "candidates" can be null. 
+     * 
+     * @param threshold double
+     * @param startingNodeIndex_NO_ZERO int
+     * @param coordinates_x ArrayList
+     * @param coordinates_y ArrayList
+     * @param candidates int[]
+     * @param k int
+     * @return ArrayList
+     */
+    public static ArrayList nnhSprout3AndMoveTowards3rd(double threshold, int startingNodeIndex_NO_ZERO, 
+                ArrayList coordinates_x, ArrayList coordinates_y, int[] candidates, int k) {
         
         double[][] coordinates;// = new double[3][2]; // the last one is "is Y?"
         
@@ -88,7 +105,7 @@ public class Logic_Fragments {
             return null;
         }
                                             // sprout length, start index, then coordinates
-        coordinates = Sub_algorithms.NNHsprout(3, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y);
+        coordinates = Sub_algorithms.NNHsprout(3, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y, candidates, k);
         
         //double[] traversed = new double[2];
         ArrayList traversed;// = new ArrayList();
@@ -105,7 +122,8 @@ public class Logic_Fragments {
     }
     
     /**
-     * Try a Christofides sprout after NNH sprout's selection of nodes and move towards a point. 
+     * Try a sprout tour after NNH sprout's selection of nodes and move towards a point. 
+     * The 9 nodes are ordered optimally (Exact_DP), earlier this was a Christofides sprout. 
      * At least 9 nodes expected. Can be improved. If less than 9 nodes, do nothing. 
      * 
      * @param threshold double
@@ -116,6 +134,23 @@ public class Logic_Fragments {
      */
     public static ArrayList chriSprout9AndMove(double threshold, int startingNodeIndex_NO_ZERO, 
                 ArrayList coordinates_x, ArrayList coordinates_y) {
+        return chriSprout9AndMove(threshold, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y, null, 0);
+    }
+    
+    /**
+     * Same as above, the NN sprout uses the candidate neighbour lists of the coordinates 
+     * (Candidate_Sets), "candidates" can be null. 
+     * 
+     * @param threshold double
+     * @param startingNodeIndex_NO_ZERO int
+     * @param coordinates_x ArrayList
+     * @param coordinates_y ArrayList
+     * @param candidates int[]
+     * @param k int
+     * @return ArrayList
+     */
+    public static ArrayList chriSprout9AndMove(double threshold, int startingNodeIndex_NO_ZERO, 
+                ArrayList coordinates_x, ArrayList coordinates_y, int[] candidates, int k) {
         
         //int difference = 5;
         double[][] coordinates;// = new double[9][2]; // the last one is "is Y?"
@@ -128,7 +163,7 @@ public class Logic_Fragments {
         if(coordinates_x.size() > 8) {
                                                 // NN sprout will select 9 vertices
                                                 // sprout length, start index, then coordinates
-            coordinates = Sub_algorithms.NNHsprout(9, 1, coordinates_x, coordinates_y);
+            coordinates = Sub_algorithms.NNHsprout(9, 1, coordinates_x, coordinates_y, candidates, k);
                                                    // the start index is 1 when making NNH sprout selection
                                                    
             /**
@@ -139,23 +174,19 @@ public class Logic_Fragments {
             }
             **/
 
-            // Christofides call: 
-            String[] coordinatesS = Sub_algorithms.Christofides(startingNodeIndex_NO_ZERO, coordinates);
+            // the exact sprout tour (earlier a Christofides call), 9 nodes are only 2^8 * 8² steps: 
+            double[] sproutXs = new double[coordinates.length];
+            double[] sproutYs = new double[coordinates.length];
+            for(int i = 0; i < coordinates.length; i++) {
+                sproutXs[i] = coordinates[i][0];
+                sproutYs[i] = coordinates[i][1];
+            }
+            int[] sproutOrder = new int[coordinates.length];
+            Exact_DP.tour(sproutXs, sproutYs, coordinates.length, sproutOrder);
             double[][] coordinatesD = new double[(coordinates_x.size() *2)+1][2];
-
-            for(int i = 0; i < coordinatesS.length-1; i++) {
-                if(coordinatesS[i] == null) {
-                    System.out.println("ERROR: coordinates string is null in logic fragments class");
-                }
-                else {
-                    String[] splittedCoord = coordinatesS[i].split(" ");
-                    System.out.println(Double.parseDouble(splittedCoord[0]));
-                    System.out.println(Double.parseDouble(splittedCoord[1]));
-
-                    coordinatesD[i][0] = Double.parseDouble(splittedCoord[0]);
-                    coordinatesD[i][1] = Double.parseDouble(splittedCoord[1]);
-                    //System.out.println("coordinatesD has " + coordinatesD[i][0] + ", " + coordinatesD[i][1]);
-                }
+            for(int i = 0; i < coordinates.length; i++) {
+                coordinatesD[i][0] = sproutXs[sproutOrder[i]];
+                coordinatesD[i][1] = sproutYs[sproutOrder[i]];
             }
             
             
@@ -207,6 +238,23 @@ public class Logic_Fragments {
      */
     public static ArrayList moveTowardsTheClosest(double threshold, int startingNodeIndex_NO_ZERO, 
                 ArrayList coordinates_x, ArrayList coordinates_y) {
+        return moveTowardsTheClosest(threshold, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y, null, 0);
+    }
+    
+    /**
+     * Same as above, the NN sprout uses the candidate neighbour lists of the coordinates 
+     * (Candidate_Sets), "candidates" can be null. 
+     * 
+     * @param threshold double
+     * @param startingNodeIndex_NO_ZERO int
+     * @param coordinates_x ArrayList
+     * @param coordinates_y ArrayList
+     * @param candidates int[]
+     * @param k int
+     * @return ArrayList
+     */
+    public static ArrayList moveTowardsTheClosest(double threshold, int startingNodeIndex_NO_ZERO, 
+                ArrayList coordinates_x, ArrayList coordinates_y, int[] candidates, int k) {
         
         double[][] coordinates;// = new double[2][2]; // the last one is "is Y?"
         
@@ -216,7 +264,7 @@ public class Logic_Fragments {
         }
         
                                             // sprout length, start index, then coordinates
-        coordinates = Sub_algorithms.NNHsprout(1, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y);
+        coordinates = Sub_algorithms.NNHsprout(1, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y, candidates, k);
         
         //double[] traversed = new double[2];
         ArrayList traversed;// = new ArrayList();
@@ -273,6 +321,23 @@ public class Logic_Fragments {
      */
     public static ArrayList moveAwayFromTheClosestThenUDLR(double threshold, int startingNodeIndex_NO_ZERO, 
                 ArrayList coordinates_x, ArrayList coordinates_y) {
+        return moveAwayFromTheClosestThenUDLR(threshold, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y, null, 0);
+    }
+    
+    /**
+     * Same as above, the NN sprout uses the candidate neighbour lists of the coordinates 
+     * (Candidate_Sets), "candidates" can be null. 
+     * 
+     * @param threshold double
+     * @param startingNodeIndex_NO_ZERO int
+     * @param coordinates_x ArrayList
+     * @param coordinates_y ArrayList
+     * @param candidates int[]
+     * @param k int
+     * @return ArrayList
+     */
+    public static ArrayList moveAwayFromTheClosestThenUDLR(double threshold, int startingNodeIndex_NO_ZERO, 
+                ArrayList coordinates_x, ArrayList coordinates_y, int[] candidates, int k) {
         threshold *= -1; // change the moving percent into a negative number, additive inverse number 
         
         double[][] coordinates;// = new double[2][2]; // the last one is "is Y?"
@@ -282,7 +347,7 @@ public class Logic_Fragments {
             return null;
         }
         
-        coordinates = Sub_algorithms.NNHsprout(1, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y);
+        coordinates = Sub_algorithms.NNHsprout(1, startingNodeIndex_NO_ZERO, coordinates_x, coordinates_y, candidates, k);
         
         ArrayList traversed;// = new ArrayList();
         traversed = KohonenSOM.traverse((double)coordinates_x.get(startingNodeIndex_NO_ZERO -1), coordinates[1][0], 
@@ -1,10 +1,14 @@
 package tsp_solver_uef_241908;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 7 of 11 
+ * TSP Solver by Tuomas Hyvönen, Java file 25 of 40 
  * 
  * A logic stack, used for inner vertices' (neurons') movements in order to decide the traverse logic 
  * when not moving towards the SOM goal. In practice, this is a simple integer ID stack, nothing too complex. 
+ * The array starts small and grows when needed (up to MAX_SIZE), the temporary stacks can be 
+ * borrowed from a per-thread pool (borrow, giveBack). 
  * 
  * Open source Java code, feel free to edit and try your own improvements. 
  * Tested with Windows 11 
@@ -18,7 +22,11 @@ package tsp_solver_uef_241908;
 public class Logic_Stack {
     private int topIndex;
     private static final int MAX_SIZE = 5000000;
-    private final int[] DATA; // DATA has integers, which are actually IDs that 
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int POOL_SIZE = 8;                      // stacks kept per thread 
+    private static final int MAX_POOLED_CAPACITY = 1 << 20;      // 4 MB 
+    private static final ThreadLocal<ArrayDeque<Logic_Stack>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+    private int[] data;       // data has integers, which are actually IDs that 
                               // tell what logic fragment method to call.
                               // For example, 1 would be "use NN sprout and move towards 3rd" or
                               // some number would be "use Christofides and move towards 5th CW" and so on.
@@ -38,11 +46,38 @@ public class Logic_Stack {
      * The constructor
      */
     public Logic_Stack() {
-        System.gc();
-        DATA = new int[MAX_SIZE];
+        data = new int[INITIAL_CAPACITY];
         topIndex = -1;
     }
     
+    /**
+     * Takes an empty stack from the pool of this thread, or creates a new one if the pool is empty. 
+     * Give it back with "giveBack" when it is not needed anymore, then the next "borrow" 
+     * does not have to allocate and grow a new array again. 
+     * 
+     * @return Logic_Stack
+     */
+    public static Logic_Stack borrow() {
+        ArrayDeque<Logic_Stack> pool = POOL.get();
+        Logic_Stack stack = pool.pollFirst();
+        return (stack != null) ? stack : new Logic_Stack();
+    }
+    
+    /**
+     * Returns a borrowed stack to the pool of this thread, the caller must not use it after this. 
+     * The very large stacks are left to the garbage collector, so the pool does not keep 
+     * the memory of one huge run. 
+     * 
+     * @param stack Logic_Stack
+     */
+    public static void giveBack(Logic_Stack stack) {
+        ArrayDeque<Logic_Stack> pool = POOL.get();
+        if(stack != null && pool.size() < POOL_SIZE && stack.data.length <= MAX_POOLED_CAPACITY) {
+            stack.empty();
+            pool.addFirst(stack);
+        }
+    }
+    
     /**
      * Return the top index.
      * @return topIndex integer
@@ -81,7 +116,10 @@ public class Logic_Stack {
     public void push(int x) {
         if(isFull() == false) {
             topIndex++;
-            DATA[topIndex] = x;
+            if(topIndex == data.length) {
+                data = Arrays.copyOf(data, (int)Math.min(2L * data.length, MAX_SIZE));
+            }
+            data[topIndex] = x;
             //System.out.println("push: Pushes " + data[topIndex] + 
             //        " to the stack. ");
         }
@@ -98,7 +136,7 @@ public class Logic_Stack {
     public int top() {
         if(isEmpty() == false) {
             //System.out.println("top(): Returns " + data[topIndex] + ". ");
-            return DATA[topIndex];
+            return data[topIndex];
         }
         else{
             //System.out.println("\t\t top(): Tried to return the top "
@@ -113,7 +151,7 @@ public class Logic_Stack {
     public void pop() {
         if(isEmpty() == false) {
             //System.out.println("pop(): Removes " + data[topIndex] + ". ");
-            DATA[topIndex] = Integer.MAX_VALUE; 
+            data[topIndex] = Integer.MAX_VALUE; 
             topIndex--;
         }
         else{
@@ -0,0 +1,87 @@
+package tsp_solver_uef_241908;
+import java.util.Arrays;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 26 of 40
+ *
+ * Distance_Oracle with a packed upper triangular matrix: the pair a < b is at
+ * a*(2n-a-1)/2 + b-a-1. The matrix is filled when the pairs are asked. The integer weight
+ * types (CEIL_2D, ATT, GEO, MAN_2D, EXPLICIT) are stored as ints, exactly, NOT_COMPUTED marks
+ * the pairs not asked yet. EUC_2D is stored as floats, NaN marks the pairs not asked yet. A
+ * float has about 7 significant digits, so a stored Euclidean distance can differ from the
+ * computed one by about 1e-7 of it: the same pair always gets the same value, so the moves of a
+ * local search stay consistent, but a tour length summed from the stored distances can differ
+ * from the exact one by that much (Guided_Local_Search sums the exact length again now and then).
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Matrix_Oracle extends Distance_Oracle {
+    private static final int NOT_COMPUTED = Integer.MIN_VALUE;
+    
+    private final float[] matrix;       // EUC_2D, otherwise null
+    private final int[] intMatrix;      // the integer weight types, otherwise null
+    
+    /**
+     * The empty matrix of the graph (at most Distance_Oracle.MATRIX_SIZE of them).
+     *
+     * @param points TSP_Instance
+     * @param explicit Explicit_Matrix, the weights of EXPLICIT (points is null), otherwise null
+     * @param weightType int, Edge_Weights.EUC_2D, CEIL_2D...
+     * @param neighbours int[], the candidate lists (Candidate_Sets), can be null
+     * @param k int
+     */
+    public Matrix_Oracle(TSP_Instance points, Explicit_Matrix explicit, int weightType, int[] neighbours, int k) {
+        super(points, explicit, weightType, neighbours, k);
+        int size = (int)((long)n * (n - 1) / 2);
+        if(weightType == Edge_Weights.EUC_2D) {
+            matrix = new float[size];
+            intMatrix = null;
+            Arrays.fill(matrix, Float.NaN);
+        }
+        else {
+            matrix = null;
+            intMatrix = new int[size];
+            Arrays.fill(intMatrix, NOT_COMPUTED);
+        }
+    }
+    
+    @Override
+    public double distance(int a, int b) {
+        if(a == b) {
+            return 0;
+        }
+        if(a > b) {
+            int helpVar = a;
+            a = b;
+            b = helpVar;
+        }
+        int index = (int)((long)a * (2*n - a - 1) / 2) + b - a - 1;
+        if(intMatrix != null) {
+            int weight = intMatrix[index];
+            if(weight != NOT_COMPUTED) {
+                hits++;
+                return weight;
+            }
+            misses++;
+            weight = (int)compute(a, b);
+            intMatrix[index] = weight;
+            return weight;
+        }
+        float value = matrix[index];
+        if(!Float.isNaN(value)) {
+            hits++;
+            return value;
+        }
+        misses++;
+        value = (float)compute(a, b);
+        matrix[index] = value;
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,235 @@
+package tsp_solver_uef_241908;
+import java.util.ArrayList;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 27 of 40
+ *
+ * Multilevel engine for the huge graphs (millions of vertices): the point set is coarsened
+ * again and again by merging the mutual nearest neighbours into their midpoints (the rest of
+ * the points merge with their nearest free candidate), every level has about half of the points
+ * of the previous one. The coarsest level (about COARSEST points) gets the quick LK of this
+ * solver, then the levels are uncoarsened one by one: every coarse vertex is replaced by its
+ * two points and the tour of the level is refined with 2-opt and Or-opt (candidate lists).
+ *
+ * The tour of the coarser level is a good guide, so the local search only repairs the new
+ * details and every level takes about linear time.
+ *
+ * The coarse levels, the candidate lists and the child arrays have the storage of the input 
+ * TSP_Instance (off-heap Int_Arrays with the off-heap coordinates) and are released when their 
+ * tour is expanded, only the coarsest level is copied to double arrays for the nearest neighbour 
+ * tour and Exact_DP. The tours themselves are int[] like in the other engines. 
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Multilevel_Solver {
+    
+    public static final int COARSEST = 1000;            // the coarsening stops at about this many points
+    private static final double MIN_CONTRACTION = 0.9;  // stop when a level keeps more than 90 % of the points
+    
+    /**
+     * One level: the points, their candidate lists and the two children of every point
+     * in the finer level (child2 is -1 when the point was not merged).
+     */
+    private static class Level {
+        TSP_Instance points;
+        Int_Array candidates;
+        int k;
+        Int_Array child1;
+        Int_Array child2;
+    }
+    
+    /**
+     * The whole tour, a vertex order without the start vertex at the end.
+     *
+     * @param points TSP_Instance
+     * @return int[]
+     */
+    public static int[] solve(TSP_Instance points) {
+        ArrayList<Level> levels = new ArrayList<>();
+        Level level = new Level();
+        level.points = points;
+        levels.add(level);
+        while(level.points.size() > COARSEST) {
+            withCandidates(level);
+            Level coarser = coarsen(level);
+            if(coarser.points.size() > MIN_CONTRACTION * level.points.size()) {
+                coarser.points.release();
+                coarser.child1.release();
+                coarser.child2.release();
+                break;
+            }
+            levels.add(coarser);
+            level = coarser;
+        }
+        System.out.println("Multilevel: " + levels.size() + " levels, the coarsest has " + level.points.size() + " points");
+    
+        int[] tour = solveCoarsest(level);
+        for(int l = levels.size() - 2; l >= 0; l--) {
+            Level finer = levels.get(l);
+            tour = uncoarsen(tour, levels.get(l+1), finer);
+            Level coarse = levels.get(l+1); // the coarse levels are not needed anymore
+            coarse.points.release();
+            coarse.child1.release();
+            coarse.child2.release();
+            coarse.points = null;
+            coarse.child1 = null;
+            coarse.child2 = null;
+            if(finer.points.size() >= 8) {
+                Sub_algorithms.twoOptAndOrOpt(finer.points, tour, finer.candidates, finer.k);
+            }
+            finer.candidates.release();
+            finer.candidates = null;
+        }
+        return tour;
+    }
+    
+    private static void withCandidates(Level level) {
+        if(level.candidates == null) {
+            level.k = Candidate_Sets.lengthFor(Candidate_Sets.DEFAULT_K, level.points.size());
+            level.candidates = Candidate_Sets.buildLists(level.points, level.k, true);
+        }
+    }
+    
+    /**
+     * The next coarser level: first the mutual nearest neighbours are merged, then every point
+     * still alone is merged with its nearest candidate that is also alone (if there is one).
+     */
+    private static Level coarsen(Level level) {
+        TSP_Instance points = level.points;
+        int n = points.size();
+        int k = level.k;
+        Int_Array candidates = level.candidates;
+        Int_Array nearest = Int_Array.allocate(points.getStorage(), n);
+        for(int i = 0; i < n; i++) {
+            nearest.set(i, -1);
+            double best = Double.MAX_VALUE;
+            for(int c = 0; c < k; c++) {
+                int j = candidates.get(i*k + c);
+                if(j < 0 || j == i) {
+                    continue;
+                }
+                double d = points.distance(i, j);
+                if(d < best) {
+                    best = d;
+                    nearest.set(i, j);
+                }
+            }
+        }
+        Int_Array partner = Int_Array.allocate(points.getStorage(), n);
+        for(int i = 0; i < n; i++) {
+            int j = nearest.get(i);
+            partner.set(i, (j >= 0 && nearest.get(j) == i) ? j : -1);
+        }
+        nearest.release();
+        for(int i = 0; i < n; i++) {
+            if(partner.get(i) >= 0) {
+                continue;
+            }
+            double best = Double.MAX_VALUE;
+            int bestJ = -1;
+            for(int c = 0; c < k; c++) {
+                int j = candidates.get(i*k + c);
+                if(j < 0 || j == i || partner.get(j) >= 0) {
+                    continue;
+                }
+                double d = points.distance(i, j);
+                if(d < best) {
+                    best = d;
+                    bestJ = j;
+                }
+            }
+            if(bestJ >= 0) {
+                partner.set(i, bestJ);
+                partner.set(bestJ, i);
+            }
+        }
+    
+        int coarseCount = 0;
+        for(int i = 0; i < n; i++) {
+            if(partner.get(i) < 0 || i < partner.get(i)) {
+                coarseCount++;
+            }
+        }
+        Level coarser = new Level();
+        coarser.points = TSP_Instance.allocate(points.getStorage(), coarseCount);
+        coarser.child1 = Int_Array.allocate(points.getStorage(), coarseCount);
+        coarser.child2 = Int_Array.allocate(points.getStorage(), coarseCount);
+        int p = 0;
+        for(int i = 0; i < n; i++) {
+            int j = partner.get(i);
+            if(j >= 0 && j < i) {
+                continue;
+            }
+            coarser.child1.set(p, i);
+            coarser.child2.set(p, j);
+            if(j < 0) {
+                coarser.points.setPoint(p, points.getX(i), points.getY(i));
+            }
+            else {
+                coarser.points.setPoint(p, (points.getX(i) + points.getX(j)) / 2, (points.getY(i) + points.getY(j)) / 2);
+            }
+            p++;
+        }
+        partner.release();
+        return coarser;
+    }
+    
+    /**
+     * The quick LK of this solver for the coarsest level: nearest neighbour tour, 2-opt and
+     * Or-opt with the candidate lists, then the exact windows (Exact_DP). The coarsest level 
+     * is small, its coordinates are copied to double arrays. 
+     */
+    private static int[] solveCoarsest(Level level) {
+        int n = level.points.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for(int i = 0; i < n; i++) {
+            xs[i] = level.points.getX(i);
+            ys[i] = level.points.getY(i);
+        }
+        int[] tour = Sub_algorithms.nearestNeighbourTour(xs, ys);
+        if(n >= 8) {
+            withCandidates(level);
+            Sub_algorithms.twoOptAndOrOpt(new Double_Instance(xs, ys), tour, level.candidates, level.k);
+            Exact_DP.optimizeWindows(xs, ys, tour, Exact_DP.DEFAULT_WINDOW);
+            level.candidates.release();
+        }
+        level.candidates = null;
+        return tour;
+    }
+    
+    /**
+     * Every coarse vertex of the tour is replaced by its children, the child nearer to the
+     * previous vertex of the finer tour goes first.
+     */
+    private static int[] uncoarsen(int[] coarseTour, Level coarse, Level finer) {
+        int[] tour = new int[finer.points.size()];
+        int p = 0;
+        for(int c : coarseTour) {
+            int a = coarse.child1.get(c);
+            int b = coarse.child2.get(c);
+            if(b >= 0 && p > 0) {
+                int previous = tour[p-1];
+                double dA = finer.points.distance(previous, a);
+                double dB = finer.points.distance(previous, b);
+                if(dB < dA) {
+                    int helpVar = a;
+                    a = b;
+                    b = helpVar;
+                }
+            }
+            tour[p++] = a;
+            if(b >= 0) {
+                tour[p++] = b;
+            }
+        }
+        return tour;
+    }
+}
\ No newline at end of file
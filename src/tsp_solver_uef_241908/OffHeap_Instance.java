@@ -0,0 +1,224 @@
+package tsp_solver_uef_241908;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 28 of 40 
+ * 
+ * TSP_Instance with double coordinates outside of the Java heap (direct ByteBuffers), for the 
+ * graphs of 10 million and more vertices: the garbage collector does not have to copy or scan 
+ * the coordinates and the heap can stay small. The algorithms use the same TSP_Instance methods 
+ * as with the heap storages. 
+ * 
+ * The memory is freed explicitly with "release" when the run is over, do not use the instance 
+ * after that. If "release" is forgotten, the garbage collector frees the memory some time later. 
+ * The off-heap memory is limited by -XX:MaxDirectMemorySize (the default is the maximum heap size). 
+ * One direct buffer can have at most 2 GB, so at most 268 435 455 vertices (8 bytes per axis). 
+ * 
+ * java.lang.foreign.MemorySegment would be the newer way to do this, but it needs Java 22 and 
+ * this project is compiled for Java 8. 
+ * 
+ * Open source Java code, feel free to edit and try your own improvements. 
+ * Tested with Windows 11 
+ * Apache NetBeans 17 
+ * Java JRE 8u371 64bit 
+ * Java JDK 18.0.2 64bit 
+ * 
+ * @author Tuomas Hyvönen 
+ * @version 2.0 
+ */
+public class OffHeap_Instance extends TSP_Instance {
+    private static final AtomicLong allocatedBytes = new AtomicLong(); // all live off-heap buffers 
+    
+    private final int size;
+    private ByteBuffer xs;  // null after "release", so a late use is a NullPointerException 
+    private ByteBuffer ys;  // and not a read of freed memory 
+    
+    /**
+     * The constructor, all coordinates are 0 at first.
+     * 
+     * @param size int
+     */
+    public OffHeap_Instance(int size) {
+        if(size < 0 || size > Integer.MAX_VALUE / 8) {
+            throw new IllegalArgumentException("Too many vertices for one off-heap buffer: " + size);
+        }
+        this.size = size;
+        xs = allocateDirect((long)size * 8);
+        ys = allocateDirect((long)size * 8);
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public int getStorage() {
+        return STORAGE_OFF_HEAP;
+    }
+    
+    @Override
+    public double getX(int i) {
+        return xs.getDouble(i << 3);
+    }
+    
+    @Override
+    public double getY(int i) {
+        return ys.getDouble(i << 3);
+    }
+    
+    @Override
+    public void setPoint(int i, double x, double y) {
+        xs.putDouble(i << 3, x);
+        ys.putDouble(i << 3, y);
+    }
+    
+    @Override
+    public int nearest(double qx, double qy, int count, double[] scratch) {
+        ByteBuffer bx = xs;
+        ByteBuffer by = ys;
+        for(int i = 0; i < count; i++) {
+            double dx = bx.getDouble(i << 3) - qx;
+            double dy = by.getDouble(i << 3) - qy;
+            scratch[i] = dx*dx + dy*dy;
+        }
+        return Distance_Kernels.argMin(scratch, count);
+    }
+    
+    @Override
+    public double distance(int i, int j) {
+        double dx = xs.getDouble(i << 3) - xs.getDouble(j << 3);
+        double dy = ys.getDouble(i << 3) - ys.getDouble(j << 3);
+        return Math.sqrt(dx*dx + dy*dy);
+    }
+    
+    @Override
+    public boolean hasEqualPoints() {
+        // one long per vertex: a 36 bit hash of the point and the 28 bit index, 
+        // after sorting the equal points are next to each other (in the same hash run) 
+        long[] keys = new long[size];
+        for(int j = 0; j < size; j++) {
+            keys[j] = (pointHash(getX(j), getY(j)) & ~0xFFFFFFFL) | j;
+        }
+        Arrays.sort(keys);
+        int runStart = 0;
+        for(int j = 1; j <= size; j++) {
+            if(j < size && (keys[j] & ~0xFFFFFFFL) == (keys[runStart] & ~0xFFFFFFFL)) {
+                continue;
+            }
+            for(int a = runStart; a < j-1; a++) { // a run is almost always 1 or 2 keys long 
+                int p = (int)(keys[a] & 0xFFFFFFFL);
+                for(int b = a+1; b < j; b++) {
+                    int q = (int)(keys[b] & 0xFFFFFFFL);
+                    if(getX(p) == getX(q) && getY(p) == getY(q)) {
+                        System.out.println("equal coordinates " + getX(p) + ", " + getY(p));
+                        return true;
+                    }
+                }
+            }
+            runStart = j;
+        }
+        return false;
+    }
+    
+    private static long pointHash(double x, double y) {
+        long h = Double.doubleToLongBits(x + 0.0) * 0x9E3779B97F4A7C15L; // + 0.0 makes -0.0 to 0.0 
+        h ^= Double.doubleToLongBits(y + 0.0);
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 32);
+    }
+    
+    /**
+     * Frees the off-heap memory now. The instance must not be used after this, 
+     * calling this again does nothing. 
+     */
+    @Override
+    public void release() {
+        if(xs != null) {
+            freeDirect(xs);
+            freeDirect(ys);
+            xs = null;
+            ys = null;
+        }
+    }
+    
+    /**
+     * The bytes of all off-heap buffers that have not been released yet 
+     * (also OffHeap_Ints). 
+     * 
+     * @return long
+     */
+    public static long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+    
+    /**
+     * A zeroed direct buffer in the native byte order, counted to "getAllocatedBytes". 
+     * 
+     * @param bytes long
+     * @return ByteBuffer
+     */
+    static ByteBuffer allocateDirect(long bytes) {
+        if(bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Over 2 GB for one off-heap buffer: " + bytes);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int)bytes).order(ByteOrder.nativeOrder());
+        allocatedBytes.addAndGet(bytes);
+        return buffer;
+    }
+    
+    /**
+     * Frees a buffer from "allocateDirect" immediately. The JDK has no public method for this: 
+     * Java 9 and newer have sun.misc.Unsafe.invokeCleaner, Java 8 has the cleaner of the buffer. 
+     * If neither works, the garbage collector frees the memory later. 
+     * 
+     * @param buffer ByteBuffer
+     */
+    static void freeDirect(ByteBuffer buffer) {
+        if(buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        allocatedBytes.addAndGet(-buffer.capacity());
+        clean(buffer);
+    }
+    
+    /**
+     * Frees the memory of a direct or a memory mapped buffer immediately (a mapped file is 
+     * unmapped), not counted to "getAllocatedBytes". 
+     * 
+     * @param buffer ByteBuffer
+     */
+    static void clean(ByteBuffer buffer) {
+        try { // Java 9 and newer 
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } 
+        catch(NoSuchMethodException e) { // Java 8 
+            try {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if(cleaner != null) {
+                    Method clean = cleaner.getClass().getMethod("clean");
+                    clean.setAccessible(true);
+                    clean.invoke(cleaner);
+                }
+            } 
+            catch(ReflectiveOperationException | RuntimeException e2) {
+                System.out.println("The off-heap memory is freed later by the garbage collector: " + e2);
+            }
+        } 
+        catch(ReflectiveOperationException | RuntimeException e) {
+            System.out.println("The off-heap memory is freed later by the garbage collector: " + e);
+        }
+    }
+}
\ No newline at end of file
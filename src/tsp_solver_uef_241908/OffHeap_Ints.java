@@ -0,0 +1,69 @@
+package tsp_solver_uef_241908;
+import java.nio.ByteBuffer;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 29 of 40 
+ * 
+ * Int_Array outside of the Java heap for the huge graphs (see OffHeap_Instance), for example 
+ * a tour (the vertex indexes in the tour order) or the flat neighbour lists where the k neighbours 
+ * of vertex i are at i*k ... i*k + k-1. At most 536 870 911 ints (2 GB). The absolute reads and 
+ * writes of the buffer are safe from several threads when they use different indexes. 
+ * 
+ * Free the memory with "release" when it is not needed anymore. 
+ * 
+ * Open source Java code, feel free to edit and try your own improvements. 
+ * Tested with Windows 11 
+ * Apache NetBeans 17 
+ * Java JRE 8u371 64bit 
+ * Java JDK 18.0.2 64bit 
+ * 
+ * @author Tuomas Hyvönen 
+ * @version 2.0 
+ */
+public class OffHeap_Ints extends Int_Array {
+    private final int length;
+    private ByteBuffer buffer; // null after "release" 
+    
+    /**
+     * The constructor, all values are 0 at first.
+     * 
+     * @param length int
+     */
+    public OffHeap_Ints(int length) {
+        if(length < 0 || length > Integer.MAX_VALUE / 4) {
+            throw new IllegalArgumentException("Too many ints for one off-heap buffer: " + length);
+        }
+        this.length = length;
+        buffer = OffHeap_Instance.allocateDirect((long)length * 4);
+    }
+    
+    @Override
+    public int length() {
+        return length;
+    }
+    
+    @Override
+    public int get(int i) {
+        return buffer.getInt(i << 2);
+    }
+    
+    @Override
+    public void set(int i, int value) {
+        buffer.putInt(i << 2, value);
+    }
+    
+    @Override
+    public int[] toArray() {
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        return values;
+    }
+    
+    @Override
+    public void release() {
+        if(buffer != null) {
+            OffHeap_Instance.freeDirect(buffer);
+            buffer = null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,661 @@
+package tsp_solver_uef_241908;
+import java.util.stream.IntStream;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 30 of 40
+ *
+ * The minimum 1-tree with node penalties (pi values) and the alpha-nearness of the edges,
+ * the candidate edges of the Lin-Kernighan-Helsgaun style solvers.
+ *
+ * A 1-tree is a minimum spanning tree plus one more edge from a leaf, every tour is a 1-tree,
+ * so the 1-tree length is a lower bound for the optimal tour. The edge costs are
+ * d(i,j) + pi[i] + pi[j]: that does not change which tour is optimal, but the subgradient
+ * optimization ("optimize") moves the pi values so that the 1-tree becomes more like a tour
+ * (every degree 2) and the bound (the Held-Karp bound) rises.
+ *
+ * alpha(i,j) is how much the minimum 1-tree grows if it must contain the edge (i,j):
+ * the edge cost minus the longest edge on the tree path between i and j. The optimal tour
+ * edges have small alpha values, so 5 alpha-nearest candidates per vertex are about as good
+ * as 8-10 nearest neighbours.
+ *
+ * Prim's algorithm runs on the candidate graph (Candidate_Sets, both directions of every list)
+ * with a binary heap, O(m log n) per 1-tree instead of the O(n³) of Sub_algorithms.MST_Prim.
+ * Sub_algorithms.MST_Prim works on coordinate edges without the pi penalties, so it could
+ * not be used here. If the candidate graph is not connected, the parts are connected with
+ * the nearest vertex.
+ *
+ * The edge lengths of the candidate graph are computed once (in parallel for the huge graphs),
+ * then every 1-tree only adds the pi values. A minimum 1-tree of the candidate graph can be
+ * longer than the one of the complete graph, so its length is not sure to be a lower bound.
+ * "heldKarpBound", the lower bound of the optimality gap reports
+ * (TSP_Solver_UEF_241908.lowerBound), computes the last 1-tree at the best pi values on the
+ * complete graph ("completeGraphBound", O(n²)), up to COMPLETE_GRAPH_SIZE vertices.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class One_Tree {
+    private static final int MAX_PERIOD = 100;    // 1-trees per step size of the subgradient optimization
+    private static final int POLYAK_PERIOD = 200; // 1-trees without a better bound before the Polyak step is halved
+    private static final double MIN_LAMBDA = 1e-4; // the Polyak optimization stops when the step factor is this small
+    private static final int PARALLEL_LIMIT = 20000; // smaller graphs are handled in one thread
+    private static final int CHUNK = 4096;           // vertices per parallel task
+    public static final int COMPLETE_GRAPH_SIZE = 20000; // the biggest graph with a Held-Karp bound
+    private final int n;
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] adjacencyStart;   // the candidate graph, neighbours of i at adjacency[adjacencyStart[i]...adjacencyStart[i+1]-1]
+    private final int[] adjacency;
+    private final double[] edgeLength;    // the distance of every candidate graph edge, same indexes as "adjacency"
+    private final double[] pi;
+    
+    private final int[] parent;           // the minimum spanning tree, -1 for the root
+    private final int[] depth;
+    private final int[] degree;           // degrees in the 1-tree
+    private int specialLeaf = -1;         // the extra edge of the 1-tree
+    private int specialPartner = -1;
+    private double lowerBound = -Double.MAX_VALUE;
+    
+    private final double[] key;           // the Prim heap
+    private final int[] heap;
+    private final int[] heapPosition;
+    private final boolean[] inTree;
+    
+    /**
+     * The constructor: the candidate graph from the flat k nearest lists (Candidate_Sets), all pi values 0.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param candidates int[]
+     * @param k int
+     */
+    public One_Tree(double[] xs, double[] ys, int[] candidates, int k) {
+        this.n = xs.length;
+        this.xs = xs;
+        this.ys = ys;
+        int[] count = new int[n+1];
+        for(int i = 0; i < n; i++) {
+            for(int l = 0; l < k; l++) {
+                int j = candidates[i*k + l];
+                count[i]++;
+                if(!isCandidate(candidates, k, j, i)) { // j does not have i, add the other direction too
+                    count[j]++;
+                }
+            }
+        }
+        adjacencyStart = new int[n+1];
+        for(int i = 0; i < n; i++) {
+            adjacencyStart[i+1] = adjacencyStart[i] + count[i];
+        }
+        adjacency = new int[adjacencyStart[n]];
+        int[] fill = new int[n];
+        for(int i = 0; i < n; i++) {
+            for(int l = 0; l < k; l++) {
+                int j = candidates[i*k + l];
+                adjacency[adjacencyStart[i] + fill[i]++] = j;
+                if(!isCandidate(candidates, k, j, i)) {
+                    adjacency[adjacencyStart[j] + fill[j]++] = i;
+                }
+            }
+        }
+        edgeLength = new double[adjacency.length];
+        forEachChunk(c -> {
+            for(int i = c * CHUNK; i < Math.min(n, (c+1) * CHUNK); i++) {
+                for(int a = adjacencyStart[i]; a < adjacencyStart[i+1]; a++) {
+                    int j = adjacency[a];
+                    edgeLength[a] = Sub_algorithms.Euclidean_distance(xs[i], ys[i], xs[j], ys[j]);
+                }
+            }
+        });
+        pi = new double[n];
+        parent = new int[n];
+        depth = new int[n];
+        degree = new int[n];
+        key = new double[n];
+        heap = new int[n];
+        heapPosition = new int[n];
+        inTree = new boolean[n];
+    }
+    
+    /**
+     * The Held-Karp lower bound of the points: at most "iterations" Polyak subgradient steps on
+     * the quadrant balanced 10 nearest graph (the upper bound is a 2-opt tour, "tourLength"),
+     * then the 1-tree of the best pi values on the complete graph. Needs 3...COMPLETE_GRAPH_SIZE
+     * points, otherwise 0.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param iterations int
+     * @return double
+     */
+    public static double heldKarpBound(double[] xs, double[] ys, int iterations) {
+        if(xs.length < 3 || xs.length > COMPLETE_GRAPH_SIZE) {
+            return 0;
+        }
+        int k = Candidate_Sets.lengthFor(10, xs.length);
+        int[] candidates = Candidate_Sets.build(xs, ys, k, true);
+        One_Tree tree = new One_Tree(xs, ys, candidates, k);
+        tree.optimize(iterations, tourLength(xs, ys, candidates, k));
+        return tree.completeGraphBound();
+    }
+    
+    /**
+     * Runs the task for every chunk of CHUNK vertices, with all processor cores if the graph is huge.
+     */
+    private void forEachChunk(java.util.function.IntConsumer task) {
+        IntStream range = IntStream.range(0, (n + CHUNK - 1) / CHUNK);
+        if(n >= PARALLEL_LIMIT) {
+            range = range.parallel();
+        }
+        range.forEach(task);
+    }
+    
+    private static boolean isCandidate(int[] candidates, int k, int i, int j) {
+        for(int l = 0; l < k; l++) {
+            if(candidates[i*k + l] == j) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * The penalized edge cost d(i,j) + pi[i] + pi[j].
+     *
+     * @param i int
+     * @param j int
+     * @return double
+     */
+    public double cost(int i, int j) {
+        return Sub_algorithms.Euclidean_distance(xs[i], ys[i], xs[j], ys[j]) + pi[i] + pi[j];
+    }
+    
+    /**
+     * Subgradient optimization of the pi values (the step size schedule of Helsgaun's LKH):
+     * after every 1-tree, pi[i] moves by the step times (degree - 2), the step is doubled in
+     * the first period while the bound rises, halved after every period. The pi values of the
+     * best bound are kept. Returns the best lower bound, at most "maxIterations" 1-trees.
+     *
+     * @param maxIterations int
+     * @return double
+     */
+    public double optimize(int maxIterations) {
+        double[] bestPi = new double[n];
+        int[] lastV = new int[n];
+        double bestW = computeOneTree();
+        if(isTour()) {
+            return bestW;
+        }
+        double step = 0.01 * bestW / n;   // a small part of the average edge
+        int period = Math.max(Math.min(n/2, MAX_PERIOD), 10);
+        boolean firstPeriod = true;
+        for(int i = 0; i < n; i++) {
+            lastV[i] = degree[i] - 2;
+        }
+        int iterations = 0;
+        while(iterations < maxIterations && step > 1e-9 * bestW / n && period > 0) {
+            boolean improvedInPeriod = false;
+            for(int p = 0; p < period && iterations < maxIterations; p++, iterations++) {
+                for(int i = 0; i < n; i++) {
+                    int v = degree[i] - 2;
+                    pi[i] += step * (0.7*v + 0.3*lastV[i]);
+                    lastV[i] = v;
+                }
+                double w = computeOneTree();
+                if(w > bestW + 1e-12 * Math.abs(bestW)) {
+                    bestW = w;
+                    System.arraycopy(pi, 0, bestPi, 0, n);
+                    improvedInPeriod = true;
+                    if(firstPeriod) {
+                        step *= 2;
+                    }
+                    if(p == period-1) {
+                        period *= 2;
+                    }
+                    if(isTour()) {
+                        iterations = maxIterations;
+                    }
+                }
+                else if(firstPeriod && p > n/4) {
+                    firstPeriod = false;
+                }
+            }
+            firstPeriod = false;
+            step /= 2;
+            period /= 2;
+            if(!improvedInPeriod && period == 0) {
+                break;
+            }
+        }
+        System.arraycopy(bestPi, 0, pi, 0, n);
+        lowerBound = computeOneTree();
+        System.out.println("Candidate graph 1-tree " + lowerBound + " after " + iterations + " subgradient iterations");
+        return lowerBound;
+    }
+    
+    /**
+     * Subgradient optimization for the Held-Karp bound itself, when thousands of 1-trees can be
+     * afforded. The LKH schedule above halves the step and the period until the period is 0, so
+     * it always stops after a few hundred 1-trees, far below the bound on clustered points. Here
+     * every step is the Polyak step lambda * (upperBound - best W) / |g|² along g (the degree - 2,
+     * mixed with the previous g like above), so the step shrinks by itself as the bound gets near
+     * the tour length. lambda starts at 2 and is halved only when the bound has not risen in
+     * POLYAK_PERIOD 1-trees, the optimization goes on while the bound rises, at most
+     * "maxIterations" 1-trees. The pi values of the best bound are kept, returns the best bound.
+     *
+     * @param maxIterations int
+     * @param upperBound double, the length of any tour (see "tourLength")
+     * @return double
+     */
+    public double optimize(int maxIterations, double upperBound) {
+        double[] bestPi = new double[n];
+        double[] direction = new double[n];
+        double bestW = computeOneTree();
+        System.arraycopy(pi, 0, bestPi, 0, n);
+        int period = Math.max(Math.min(n/2, POLYAK_PERIOD), 10);
+        double lambda = 2;
+        int withoutImprovement = 0;
+        for(int i = 0; i < n; i++) {
+            direction[i] = degree[i] - 2;
+        }
+        int iterations = 0;
+        while(iterations < maxIterations && lambda > MIN_LAMBDA && bestW < upperBound && !isTour()) {
+            double squaredNorm = 0;
+            for(int i = 0; i < n; i++) {
+                direction[i] = 0.7*(degree[i] - 2) + 0.3*direction[i];
+                squaredNorm += direction[i]*direction[i];
+            }
+            double step = lambda * (upperBound - bestW) / squaredNorm;
+            for(int i = 0; i < n; i++) {
+                pi[i] += step * direction[i];
+            }
+            double w = computeOneTree();
+            iterations++;
+            if(w > bestW + 1e-12 * Math.abs(bestW)) {
+                bestW = w;
+                System.arraycopy(pi, 0, bestPi, 0, n);
+                withoutImprovement = 0;
+            }
+            else if(++withoutImprovement >= period) {
+                lambda /= 2;
+                withoutImprovement = 0;
+            }
+        }
+        System.arraycopy(bestPi, 0, pi, 0, n);
+        lowerBound = computeOneTree();
+        System.out.println("Candidate graph 1-tree " + lowerBound + " after " + iterations + " Polyak subgradient iterations");
+        return lowerBound;
+    }
+    
+    /**
+     * The upper bound for "optimize": a nearest neighbour tour improved with 2-opt and Or-opt
+     * (the candidate lists), its length.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param candidates int[]
+     * @param k int
+     * @return double
+     */
+    public static double tourLength(double[] xs, double[] ys, int[] candidates, int k) {
+        int[] tour = Sub_algorithms.nearestNeighbourTour(xs, ys);
+        Sub_algorithms.twoOptAndOrOpt(xs, ys, tour, candidates, k);
+        return Sub_algorithms.calculateTourLength(xs, ys, tour);
+    }
+    
+    private boolean isTour() {
+        for(int i = 0; i < n; i++) {
+            if(degree[i] != 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * The minimum 1-tree of the complete graph with the current pi values, the sure lower bound
+     * L(T) - 2 * sum(pi). Prim with an array instead of the heap: every step updates the keys of
+     * all the vertices outside the tree and finds the next one in the same scan, O(n²). The
+     * second edge of a leaf is its cheapest edge to any vertex other than its tree neighbour.
+     * The tree replaces the candidate graph 1-tree (alpha is then of the complete graph tree).
+     *
+     * @return double
+     */
+    public double completeGraphBound() {
+        for(int i = 0; i < n; i++) {
+            key[i] = Double.MAX_VALUE;
+            parent[i] = -1;
+            inTree[i] = false;
+            degree[i] = 0;
+        }
+        double length = 0;
+        depth[0] = 0;
+        int u = 0;
+        for(int reached = 1; reached < n; reached++) {
+            inTree[u] = true;
+            int nextU = -1;
+            for(int v = 0; v < n; v++) {
+                if(!inTree[v]) {
+                    double c = cost(u, v);
+                    if(c < key[v]) {
+                        key[v] = c;
+                        parent[v] = u;
+                    }
+                    if(nextU < 0 || key[v] < key[nextU]) {
+                        nextU = v;
+                    }
+                }
+            }
+            u = nextU;
+            length += key[u];
+            degree[u]++;
+            degree[parent[u]]++;
+            depth[u] = depth[parent[u]] + 1;
+        }
+        inTree[u] = true;
+        // the second edge of every leaf (in "key"), then the longest one
+        forEachChunk(c -> {
+            for(int i = c * CHUNK; i < Math.min(n, (c+1) * CHUNK); i++) {
+                key[i] = Double.MAX_VALUE;
+                if(degree[i] == 1) {
+                    int treeNeighbour = (parent[i] >= 0) ? parent[i] : onlyChild(i);
+                    for(int v = 0; v < n; v++) {
+                        if(v != i && v != treeNeighbour) {
+                            key[i] = Math.min(key[i], cost(i, v));
+                        }
+                    }
+                }
+            }
+        });
+        specialLeaf = -1;
+        specialPartner = -1;
+        for(int i = 0; i < n; i++) {
+            if(degree[i] == 1 && (specialLeaf < 0 || key[i] > key[specialLeaf])) {
+                specialLeaf = i;
+            }
+        }
+        int treeNeighbour = (parent[specialLeaf] >= 0) ? parent[specialLeaf] : onlyChild(specialLeaf);
+        for(int v = 0; v < n; v++) {
+            if(v != specialLeaf && v != treeNeighbour && cost(specialLeaf, v) == key[specialLeaf]) {
+                specialPartner = v;
+                break;
+            }
+        }
+        length += key[specialLeaf];
+        degree[specialLeaf]++;
+        degree[specialPartner]++;
+        double piSum = 0;
+        for(int i = 0; i < n; i++) {
+            piSum += pi[i];
+        }
+        lowerBound = length - 2*piSum;
+        System.out.println("Complete graph 1-tree lower bound " + lowerBound);
+        return lowerBound;
+    }
+    
+    /**
+     * Returns the latest lower bound (the 1-tree length minus 2 times the pi sum).
+     *
+     * @return double
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+    
+    /**
+     * Returns the pi values themselves.
+     *
+     * @return double[]
+     */
+    public double[] getPenalties() {
+        return pi;
+    }
+    
+    /**
+     * The minimum 1-tree with the current pi values: Prim from vertex 0, then the leaf whose
+     * second edge (the cheapest edge that is not in the tree) is the longest gets that edge.
+     * Returns the bound L(T) - 2 * sum(pi).
+     */
+    private double computeOneTree() {
+        for(int i = 0; i < n; i++) {
+            key[i] = Double.MAX_VALUE;
+            parent[i] = -1;
+            heapPosition[i] = -1;
+            inTree[i] = false;
+            degree[i] = 0;
+        }
+        double length = 0;
+        int heapSize = 0;
+        int reached = 0;
+        int start = 0;
+        key[start] = 0;
+        depth[start] = 0;
+        heap[heapSize] = start;
+        heapPosition[start] = heapSize++;
+        while(reached < n) {
+            if(heapSize == 0) { // the candidate graph is not connected, the nearest vertex outside
+                int[] edge = nearestOutsideEdge();
+                int v = edge[1];
+                key[v] = cost(edge[0], v);
+                parent[v] = edge[0];
+                heap[heapSize] = v;
+                heapPosition[v] = heapSize++;
+            }
+            int u = heap[0];
+            heapSize--;
+            heapPosition[u] = -1;
+            if(heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapPosition[heap[0]] = 0;
+                siftDown(0, heapSize);
+            }
+            inTree[u] = true;
+            reached++;
+            if(parent[u] >= 0) {
+                length += key[u];
+                degree[u]++;
+                degree[parent[u]]++;
+                depth[u] = depth[parent[u]] + 1;
+            }
+            for(int a = adjacencyStart[u]; a < adjacencyStart[u+1]; a++) {
+                int v = adjacency[a];
+                if(!inTree[v]) {
+                    double c = edgeLength[a] + pi[u] + pi[v];
+                    if(c < key[v]) {
+                        key[v] = c;
+                        parent[v] = u;
+                        if(heapPosition[v] < 0) {
+                            heap[heapSize] = v;
+                            heapPosition[v] = heapSize++;
+                        }
+                        siftUp(heapPosition[v]);
+                    }
+                }
+            }
+        }
+        // the special leaf and its second edge
+        specialLeaf = -1;
+        specialPartner = -1;
+        double bestSecond = -Double.MAX_VALUE;
+        for(int i = 0; i < n; i++) {
+            if(degree[i] == 1) {
+                int treeNeighbour = (parent[i] >= 0) ? parent[i] : onlyChild(i);
+                double second = Double.MAX_VALUE;
+                int partner = -1;
+                for(int a = adjacencyStart[i]; a < adjacencyStart[i+1]; a++) {
+                    int v = adjacency[a];
+                    double c = edgeLength[a] + pi[i] + pi[v];
+                    if(v != treeNeighbour && c < second) {
+                        second = c;
+                        partner = v;
+                    }
+                }
+                if(partner >= 0 && second > bestSecond) {
+                    bestSecond = second;
+                    specialLeaf = i;
+                    specialPartner = partner;
+                }
+            }
+        }
+        if(specialLeaf >= 0) {
+            length += bestSecond;
+            degree[specialLeaf]++;
+            degree[specialPartner]++;
+        }
+        double piSum = 0;
+        for(int i = 0; i < n; i++) {
+            piSum += pi[i];
+        }
+        return length - 2*piSum;
+    }
+    
+    private int onlyChild(int root) {
+        for(int a = adjacencyStart[root]; a < adjacencyStart[root+1]; a++) {
+            if(parent[adjacency[a]] == root) {
+                return adjacency[a];
+            }
+        }
+        for(int i = 0; i < n; i++) { // connected by "nearestOutsideEdge"
+            if(parent[i] == root) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * The cheapest edge from the tree to a vertex outside of it, O(n²) but only needed
+     * when the candidate graph has separate parts.
+     */
+    private int[] nearestOutsideEdge() {
+        int[] best = {-1, -1};
+        double bestCost = Double.MAX_VALUE;
+        for(int u = 0; u < n; u++) {
+            if(inTree[u]) {
+                for(int v = 0; v < n; v++) {
+                    if(!inTree[v] && cost(u, v) < bestCost) {
+                        bestCost = cost(u, v);
+                        best[0] = u;
+                        best[1] = v;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+    
+    private void siftUp(int position) {
+        int v = heap[position];
+        while(position > 0) {
+            int up = (position - 1) >>> 1;
+            if(key[heap[up]] <= key[v]) {
+                break;
+            }
+            heap[position] = heap[up];
+            heapPosition[heap[position]] = position;
+            position = up;
+        }
+        heap[position] = v;
+        heapPosition[v] = position;
+    }
+    
+    private void siftDown(int position, int heapSize) {
+        int v = heap[position];
+        while(true) {
+            int child = 2*position + 1;
+            if(child >= heapSize) {
+                break;
+            }
+            if(child + 1 < heapSize && key[heap[child+1]] < key[heap[child]]) {
+                child++;
+            }
+            if(key[heap[child]] >= key[v]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPosition[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = v;
+        heapPosition[v] = position;
+    }
+    
+    /**
+     * The alpha value of the edge (i,j) in the current 1-tree, 0 for the 1-tree edges.
+     *
+     * @param i int
+     * @param j int
+     * @return double
+     */
+    public double alpha(int i, int j) {
+        if(parent[i] == j || parent[j] == i ||
+                (i == specialLeaf && j == specialPartner) || (j == specialLeaf && i == specialPartner)) {
+            return 0;
+        }
+        if(i == specialLeaf || j == specialLeaf) { // replaces the longer edge of the special leaf
+            int leafTreeNeighbour = (parent[specialLeaf] >= 0) ? parent[specialLeaf] : onlyChild(specialLeaf);
+            double longer = Math.max(cost(specialLeaf, leafTreeNeighbour), cost(specialLeaf, specialPartner));
+            return Math.max(0, cost(i, j) - longer);
+        }
+        // beta: the longest edge on the tree path, climbing from the deeper end
+        double beta = 0;
+        int a = i;
+        int b = j;
+        while(a != b) {
+            if(depth[a] < depth[b]) {
+                int helpVar = a;
+                a = b;
+                b = helpVar;
+            }
+            beta = Math.max(beta, cost(a, parent[a]));
+            a = parent[a];
+        }
+        return Math.max(0, cost(i, j) - beta);
+    }
+    
+    /**
+     * The "count" alpha-nearest vertices of every vertex from its candidate graph neighbours,
+     * smallest alpha first (equal alphas by the edge cost), in the flat format of Candidate_Sets.
+     *
+     * @param count int
+     * @return int[]
+     */
+    public int[] alphaNearest(int count) {
+        int[] result = new int[n*count];
+        forEachChunk(c -> {
+            int[] bestIndexes = new int[count];
+            double[] bestAlphas = new double[count];
+            double[] bestCosts = new double[count];
+            for(int i = c * CHUNK; i < Math.min(n, (c+1) * CHUNK); i++) {
+                int found = 0;
+                for(int a = adjacencyStart[i]; a < adjacencyStart[i+1]; a++) {
+                    int j = adjacency[a];
+                    double al = alpha(i, j);
+                    double co = edgeLength[a] + pi[i] + pi[j];
+                    if(found < count || al < bestAlphas[found-1] || (al == bestAlphas[found-1] && co < bestCosts[found-1])) {
+                        int l = (found < count) ? found++ : found-1; // insertion, the last one drops out
+                        while(l > 0 && (bestAlphas[l-1] > al || (bestAlphas[l-1] == al && bestCosts[l-1] > co))) {
+                            bestAlphas[l] = bestAlphas[l-1];
+                            bestCosts[l] = bestCosts[l-1];
+                            bestIndexes[l] = bestIndexes[l-1];
+                            l--;
+                        }
+                        bestAlphas[l] = al;
+                        bestCosts[l] = co;
+                        bestIndexes[l] = j;
+                    }
+                }
+                for(int l = 0; l < count; l++) { // fewer graph neighbours than "count": repeat the best
+                    result[i*count + l] = bestIndexes[Math.min(l, found-1)];
+                }
+            }
+        });
+        return result;
+    }
+}
\ No newline at end of file
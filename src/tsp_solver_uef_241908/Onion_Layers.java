@@ -0,0 +1,301 @@
+package tsp_solver_uef_241908;
+import java.util.Arrays;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 31 of 40
+ *
+ * Onion peeling: the convex hull of the points is the first layer, the hull of the remaining
+ * points the second one and so on until no points are left (the points are sorted by x once,
+ * every layer is then a linear monotone chain scan of the remaining points). The layers are
+ * cycles and the tour starts as the outermost one. The vertices of every next layer are
+ * inserted cheapest first (a binary heap with lazy updates), each one to the cheapest tour edge
+ * next to its nearest neighbours (Candidate_Sets) that are already in the tour, the outer layers
+ * always are. Finally 2-opt and Or-opt with the same neighbours repair the tour.
+ *
+ * The CHH (ConvexHull_Algorithm) tries every tour edge for every inner vertex, here only the
+ * edges around the 10 nearest neighbours are tried. The insertion alone is about 30-40 % above
+ * the Held-Karp bound on uniform points (the layers force the tour around), after the repair
+ * about 10 %, shorter than the nearest neighbour and greedy tours.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Onion_Layers {
+    
+    public static final int CANDIDATES = 10;    // a vertex is inserted next to these nearest neighbours
+    
+    private final TSP_Instance points;
+    private final int[] next;                   // the tour as a doubly linked list, -1 = not in the tour yet
+    private final int[] previous;
+    private final int[] candidates;             // the k nearest neighbours, the insertion places
+    private final int k;
+    private double bestCost;                    // the insertion search state
+    private int bestU;
+    private final int[] layerOf;                // the layer number of every vertex, -1 = not peeled yet
+    private final int[] insertAfter;            // the best tour edge (u, next u) found for a layer vertex
+    private final int[] insertBefore;           // next u when it was found, the edge is gone if it changed
+    private final int[] stamp;                  // the newest heap entry of every vertex, the older ones are stale
+    private double[] heapCosts;                 // the insertion heap, the cheapest insertion first
+    private int[] heapVertexes;
+    private int[] heapStamps;
+    private int heapSize;
+    
+    private Onion_Layers(TSP_Instance points) {
+        this.points = points;
+        int n = points.size();
+        next = new int[n];
+        previous = new int[n];
+        layerOf = new int[n];
+        insertAfter = new int[n];
+        insertBefore = new int[n];
+        stamp = new int[n];
+        for(int i = 0; i < next.length; i++) {
+            next[i] = -1;
+            previous[i] = -1;
+            layerOf[i] = -1;
+        }
+        heapCosts = new double[16];
+        heapVertexes = new int[16];
+        heapStamps = new int[16];
+        k = Candidate_Sets.lengthFor(CANDIDATES, n);
+        candidates = Candidate_Sets.build(points, k, false);
+    }
+    
+    /**
+     * The onion tour, a vertex order without the start vertex at the end.
+     *
+     * @param points TSP_Instance
+     * @return int[]
+     */
+    public static int[] tour(TSP_Instance points) {
+        int n = points.size();
+        int[] remaining = new int[n];
+        for(int i = 0; i < n; i++) {
+            remaining[i] = i;
+        }
+        Sub_algorithms.sortIndexesByPoints(remaining, points);
+        Onion_Layers onion = new Onion_Layers(points);
+        int remainingCount = n;
+        int[] layer = new int[n + 1];              // the hull repeats its first point at the end
+        int[] previousLayer = null;
+        int layers = 0;
+        boolean[] onHull = new boolean[n];
+        while(remainingCount > 0) {
+            int size = hull(points, remaining, remainingCount, layer);
+            int[] cycle = new int[size];
+            System.arraycopy(layer, 0, cycle, 0, size);
+            if(previousLayer == null) {
+                for(int i = 0; i < size; i++) {
+                    onion.next[cycle[i]] = cycle[(i + 1) % size];
+                    onion.previous[cycle[(i + 1) % size]] = cycle[i];
+                }
+            }
+            else {
+                onion.insertLayer(previousLayer, cycle, layers);
+            }
+            previousLayer = cycle;
+            layers++;
+    
+            for(int v : cycle) { // the rest keep their x order
+                onHull[v] = true;
+            }
+            int kept = 0;
+            for(int i = 0; i < remainingCount; i++) {
+                if(!onHull[remaining[i]]) {
+                    remaining[kept++] = remaining[i];
+                }
+            }
+            remainingCount = kept;
+        }
+        System.out.println("Onion peeling: " + layers + " convex hull layers");
+    
+        int[] tour = new int[n];
+        int vertex = 0;
+        for(int i = 0; i < n; i++) {
+            tour[i] = vertex;
+            vertex = onion.next[vertex];
+        }
+        if(n >= 8) {
+            double gain = Sub_algorithms.twoOptAndOrOpt(points, tour, onion.candidates, onion.k);
+            System.out.println("Onion peeling: the 2-opt and Or-opt repair shortened the tour by " + gain);
+        }
+        return tour;
+    }
+    
+    /**
+     * The convex hull of the first "count" points of "sorted" (sorted by x, then y) to "out"
+     * counterclockwise, returns the hull size. Andrew's monotone chain: the collinear points
+     * are left for the next layers, 1 or 2 points are their own hull. "out" needs room for
+     * count + 1 points, the first point is written again at the end when all of them are on the
+     * hull.
+     */
+    private static int hull(TSP_Instance points, int[] sorted, int count, int[] out) {
+        if(count <= 2) {
+            System.arraycopy(sorted, 0, out, 0, count);
+            return count;
+        }
+        int size = 0;
+        for(int i = 0; i < count; i++) { // the lower chain
+            while(size >= 2 && cross(points, out[size-2], out[size-1], sorted[i]) <= 0) {
+                size--;
+            }
+            out[size++] = sorted[i];
+        }
+        int lowerSize = size + 1;
+        for(int i = count - 2; i >= 0; i--) { // the upper chain
+            while(size >= lowerSize && cross(points, out[size-2], out[size-1], sorted[i]) <= 0) {
+                size--;
+            }
+            out[size++] = sorted[i];
+        }
+        return size - 1; // the first point came again at the end
+    }
+    
+    /**
+     * The cross product (b - a) x (c - a), more than 0 when a, b, c turn counterclockwise.
+     */
+    private static double cross(TSP_Instance points, int a, int b, int c) {
+        double ax = points.getX(a);
+        double ay = points.getY(a);
+        return (points.getX(b) - ax) * (points.getY(c) - ay) - (points.getY(b) - ay) * (points.getX(c) - ax);
+    }
+    
+    /**
+     * Cheapest insertion of the layer: every vertex of the layer gets its cheapest tour edge next
+     * to its candidate neighbours that are already in the tour (the edges (u, next u) of the
+     * previous layer vertices u if none of them is) and the cheapest of all is inserted first.
+     * The vertices wait in a binary heap with lazy updates: an entry whose edge was split is
+     * searched again when it comes up, and the candidate neighbours of an inserted vertex that
+     * are still waiting are searched again right away (they may now have a cheaper edge).
+     */
+    private void insertLayer(int[] previousLayer, int[] cycle, int layer) {
+        heapSize = 0;
+        for(int c : cycle) {
+            layerOf[c] = layer;
+        }
+        for(int c : cycle) {
+            findEdge(c, previousLayer);
+        }
+        while(heapSize > 0) {
+            int c = heapVertexes[0];
+            boolean current = heapStamps[0] == stamp[c];
+            popHeap();
+            if(!current || next[c] >= 0) {
+                continue;
+            }
+            int u = insertAfter[c];
+            int v = insertBefore[c];
+            if(next[u] != v) { // the edge was split by an earlier insertion
+                findEdge(c, previousLayer);
+                continue;
+            }
+            next[u] = c;
+            previous[c] = u;
+            next[c] = v;
+            previous[v] = c;
+            for(int l = 0; l < k; l++) {
+                int w = candidates[c*k + l];
+                if(w >= 0 && layerOf[w] == layer && next[w] < 0) {
+                    findEdge(w, previousLayer);
+                }
+            }
+        }
+    }
+    
+    /**
+     * The cheapest tour edge for the vertex c to "insertAfter" and "insertBefore", and a new
+     * heap entry for it (the older entries of c become stale).
+     */
+    private void findEdge(int c, int[] previousLayer) {
+        bestCost = Double.MAX_VALUE;
+        bestU = -1;
+        for(int l = 0; l < k; l++) {
+            int u = candidates[c*k + l];
+            if(u >= 0 && next[u] >= 0) {
+                tryEdge(c, previous[u]);
+                tryEdge(c, u);
+            }
+        }
+        if(bestU < 0) {
+            for(int u : previousLayer) {
+                tryEdge(c, u);
+            }
+        }
+        insertAfter[c] = bestU;
+        insertBefore[c] = next[bestU];
+        pushHeap(bestCost, c, ++stamp[c]);
+    }
+    
+    private void tryEdge(int c, int u) {
+        int v = next[u];
+        double cost = distance(u, c) + distance(c, v) - distance(u, v);
+        if(cost < bestCost) {
+            bestCost = cost;
+            bestU = u;
+        }
+    }
+    
+    private void pushHeap(double cost, int vertex, int entryStamp) {
+        if(heapSize == heapCosts.length) {
+            heapCosts = Arrays.copyOf(heapCosts, 2*heapSize);
+            heapVertexes = Arrays.copyOf(heapVertexes, 2*heapSize);
+            heapStamps = Arrays.copyOf(heapStamps, 2*heapSize);
+        }
+        int i = heapSize++;
+        while(i > 0) {
+            int parent = (i - 1) / 2;
+            if(heapCosts[parent] <= cost) {
+                break;
+            }
+            moveEntry(parent, i);
+            i = parent;
+        }
+        heapCosts[i] = cost;
+        heapVertexes[i] = vertex;
+        heapStamps[i] = entryStamp;
+    }
+    
+    /**
+     * Removes the cheapest entry.
+     */
+    private void popHeap() {
+        heapSize--;
+        double cost = heapCosts[heapSize];
+        int vertex = heapVertexes[heapSize];
+        int entryStamp = heapStamps[heapSize];
+        int i = 0;
+        while(true) {
+            int child = 2*i + 1;
+            if(child >= heapSize) {
+                break;
+            }
+            if(child + 1 < heapSize && heapCosts[child + 1] < heapCosts[child]) {
+                child++;
+            }
+            if(heapCosts[child] >= cost) {
+                break;
+            }
+            moveEntry(child, i);
+            i = child;
+        }
+        heapCosts[i] = cost;
+        heapVertexes[i] = vertex;
+        heapStamps[i] = entryStamp;
+    }
+    
+    private void moveEntry(int from, int to) {
+        heapCosts[to] = heapCosts[from];
+        heapVertexes[to] = heapVertexes[from];
+        heapStamps[to] = heapStamps[from];
+    }
+    
+    private double distance(int a, int b) {
+        return points.distance(a, b);
+    }
+}
\ No newline at end of file
@@ -1,7 +1,7 @@
 package tsp_solver_uef_241908;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 8 of 11 
+ * TSP Solver by Tuomas Hyvönen, Java file 32 of 40 
  * 
  * A class for creating a Cartesian x-y-point instance if needed. 
  * Can adjust priority (=weight, has nothing to do with distance). 
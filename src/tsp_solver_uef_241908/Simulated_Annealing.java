@@ -0,0 +1,371 @@
+package tsp_solver_uef_241908;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 33 of 40
+ *
+ * Simulated annealing over an int tour: every step picks a random vertex a and a random
+ * candidate neighbour c of it (Candidate_Sets) and one of the moves
+ * - 2-opt: the edges after (or before) a and c are replaced by (a, c) and the other ends
+ * - Or-opt: the segment of 1-3 vertices starting from a moves next to c (also reversed)
+ * - node swap: a and c change places
+ * The length change of every move is computed from the 4-6 edges it touches, O(1), and the
+ * move is made if it is shorter or with the probability exp(-delta / temperature). Only the
+ * accepted moves touch the tour: the 2-opt reversal goes the shorter way around the tour
+ * (Sub_algorithms.reverseTourPath), the Or-opt is Sub_algorithms.moveSegment. From LIST_SIZE
+ * vertices on the tour is a Tour_List (Tour_List.forLocalSearch): the 2-opt is a flip of
+ * O(sqrt(n)) or O(log n) instead of a reversal of up to n/2 vertices, and the node swap is two
+ * Or-opt moves. Most moves are only evaluated, and every next and previous costs more in the
+ * list than in the array, so the list pays off later than in the local search (20 million
+ * steps of uniform points: 400 000 vertices 17.5 s with the array, 22.1 s with the list,
+ * 600 000 vertices 24.5 s and 20.8 s, 1 million 49 s and 25 s). The length is
+ * kept with the deltas and summed again exactly every RESYNC_STEPS_PER_VERTEX steps per vertex
+ * (and after every epoch of the parallel tempering), so the rounding errors of millions of
+ * deltas cannot pile up.
+ *
+ * The temperature falls geometrically from START_TEMPERATURE to END_TEMPERATURE times the
+ * average tour edge. Parallel tempering runs several replicas, one thread each, on a ladder of
+ * temperatures (LADDER_RATIO apart, the whole ladder cools like the annealing) and swaps the
+ * tours of the neighbouring temperatures after every epoch with the Metropolis rule: the good
+ * tours sink to the cold replicas while the hot ones keep exploring. The evolution
+ * (EvolutionaryParts) is the other metaheuristic that uses the extra cores.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Simulated_Annealing {
+    
+    public static final int STEPS_PER_VERTEX = 2000;        // the moves tried per vertex (per replica)
+    public static final long MAX_STEPS = 200000000L;
+    private static final double START_TEMPERATURE = 0.3;    // times the average edge length
+    private static final double END_TEMPERATURE = 0.002;
+    private static final int EPOCH_STEPS_PER_VERTEX = 20;   // parallel tempering swaps after this many steps per vertex
+    private static final double LADDER_RATIO = 2;           // the temperatures of the neighbouring replicas
+    private static final int RESYNC_STEPS_PER_VERTEX = 100; // the exact tour length is summed again after this many steps per vertex
+    public static final int LIST_SIZE = 500000;             // the tour is a Tour_List from this many vertices on
+    
+    private final TSP_Instance points;
+    private final int[] neighbours;
+    private final int k;
+    private final int n;
+    private int[] tour;                 // with the list only a copy for the exact length
+    private int[] pos;                  // null with the list
+    private Tour_List list;             // the tour from LIST_SIZE vertices on, otherwise null
+    private double length;
+    private double temperature;
+    private final SplittableRandom random;
+    
+    private Simulated_Annealing(TSP_Instance points, int[] tour, int[] neighbours, int k, long seed) {
+        this.points = points;
+        this.neighbours = neighbours;
+        this.k = k;
+        n = tour.length;
+        this.tour = tour.clone();
+        list = (n >= LIST_SIZE) ? Tour_List.forLocalSearch(this.tour) : null;
+        if(list == null) {
+            pos = new int[n];
+            for(int i = 0; i < n; i++) {
+                pos[this.tour[i]] = i;
+            }
+        }
+        length = points.tourLength(this.tour);
+        random = new SplittableRandom(seed);
+    }
+    
+    /**
+     * Anneals the tour (improved in place) with "steps" moves, returns the new tour length.
+     *
+     * @param points TSP_Instance
+     * @param tour int[]
+     * @param neighbours int[], the candidate lists (Candidate_Sets)
+     * @param k int
+     * @param steps long
+     * @param seed long
+     * @return double
+     */
+    public static double anneal(TSP_Instance points, int[] tour, int[] neighbours, int k, long steps, long seed) {
+        if(tour.length < 8) {
+            return points.tourLength(tour);
+        }
+        Simulated_Annealing annealing = new Simulated_Annealing(points, tour, neighbours, k, seed);
+        double averageEdge = annealing.length / tour.length;
+        double startTemperature = START_TEMPERATURE * averageEdge;
+        double cooling = Math.pow(END_TEMPERATURE / START_TEMPERATURE, 1.0 / steps);
+        int[] best = annealing.tour.clone();
+        double bestLength = annealing.length;
+        annealing.temperature = startTemperature;
+        long resyncSteps = (long) RESYNC_STEPS_PER_VERTEX * tour.length;
+        for(long step = 0; step < steps; step++) {
+            annealing.step();
+            annealing.temperature *= cooling;
+            if(step % resyncSteps == resyncSteps - 1) {
+                annealing.resync();
+            }
+            if(annealing.length < bestLength && (step % tour.length == 0 || step == steps - 1)) {
+                bestLength = annealing.length;
+                annealing.copyTour(best);
+            }
+        }
+        if(annealing.length < bestLength) {
+            bestLength = annealing.length;
+            annealing.copyTour(best);
+        }
+        System.arraycopy(best, 0, tour, 0, tour.length);
+        bestLength = points.tourLength(tour); // no rounding drift
+        System.out.println("Simulated annealing: " + steps + " steps, tour length " + bestLength);
+        return bestLength;
+    }
+    
+    /**
+     * Parallel tempering: "replicas" tours, each on its own thread, "steps" moves per replica.
+     * The coldest replica cools like the annealing, every next one is LADDER_RATIO times
+     * hotter. The best tour found is copied to "tour", returns its length.
+     *
+     * @param points TSP_Instance
+     * @param tour int[]
+     * @param neighbours int[], the candidate lists (Candidate_Sets)
+     * @param k int
+     * @param replicas int, at least 2
+     * @param steps long
+     * @param seed long
+     * @return double
+     */
+    public static double parallelTempering(TSP_Instance points, int[] tour, int[] neighbours, int k,
+            int replicas, long steps, long seed) {
+        int n = tour.length;
+        if(n < 8 || replicas < 2) {
+            return anneal(points, tour, neighbours, k, steps, seed);
+        }
+        Simulated_Annealing[] chain = new Simulated_Annealing[replicas]; // the coldest first
+        for(int r = 0; r < replicas; r++) {
+            chain[r] = new Simulated_Annealing(points, tour, neighbours, k, seed + r);
+        }
+        double coldest = START_TEMPERATURE * chain[0].length / n;
+        SplittableRandom swapRandom = new SplittableRandom(seed - 1);
+        long epochSteps = (long) EPOCH_STEPS_PER_VERTEX * n;
+        double cooling = Math.pow(END_TEMPERATURE / START_TEMPERATURE, (double) epochSteps / steps);
+        int[] best = tour.clone();
+        double bestLength = chain[0].length;
+        int swaps = 0;
+        for(long done = 0; done < steps; done += epochSteps) {
+            long epoch = Math.min(epochSteps, steps - done);
+            for(int r = 0; r < replicas; r++) {
+                chain[r].temperature = coldest * Math.pow(LADDER_RATIO, r);
+            }
+            coldest *= cooling;
+            IntStream.range(0, replicas).parallel().forEach(r -> {
+                for(long step = 0; step < epoch; step++) {
+                    chain[r].step();
+                }
+                chain[r].resync();
+            });
+            for(int r = 0; r < replicas; r++) {
+                if(chain[r].length < bestLength) {
+                    bestLength = chain[r].length;
+                    chain[r].copyTour(best);
+                }
+            }
+            for(int r = 0; r + 1 < replicas; r++) { // the Metropolis rule of the neighbouring temperatures
+                Simulated_Annealing cold = chain[r];
+                Simulated_Annealing hot = chain[r + 1];
+                double exponent = (cold.length - hot.length) * (1 / cold.temperature - 1 / hot.temperature);
+                if(exponent >= 0 || swapRandom.nextDouble() < Math.exp(exponent)) {
+                    cold.swapState(hot);
+                    swaps++;
+                }
+            }
+        }
+        System.arraycopy(best, 0, tour, 0, n);
+        bestLength = points.tourLength(tour);
+        System.out.println("Parallel tempering: " + replicas + " replicas, " + swaps + " swaps, tour length " + bestLength);
+        return bestLength;
+    }
+    
+    /**
+     * The replicas change their tours, the temperatures stay.
+     */
+    private void swapState(Simulated_Annealing other) {
+        int[] helpTour = tour;
+        tour = other.tour;
+        other.tour = helpTour;
+        int[] helpPos = pos;
+        pos = other.pos;
+        other.pos = helpPos;
+        Tour_List helpList = list;
+        list = other.list;
+        other.list = helpList;
+        double helpLength = length;
+        length = other.length;
+        other.length = helpLength;
+    }
+    
+    /**
+     * The length summed again from the tour, the deltas have rounding errors.
+     */
+    private void resync() {
+        if(list != null) {
+            list.copyTo(tour);
+        }
+        length = points.tourLength(tour);
+    }
+    
+    /**
+     * The current tour to the array (from any vertex with the list).
+     */
+    private void copyTour(int[] to) {
+        if(list != null) {
+            list.copyTo(to);
+        }
+        else {
+            System.arraycopy(tour, 0, to, 0, n);
+        }
+    }
+    
+    /**
+     * One random move, made if the Metropolis rule accepts it.
+     */
+    private void step() {
+        int a = random.nextInt(n);
+        int c = neighbours[a*k + random.nextInt(k)];
+        if(c < 0 || c == a) {
+            return;
+        }
+        int move = random.nextInt(10);
+        if(move < 5) {
+            twoOptMove(a, c, random.nextBoolean());
+        }
+        else if(move < 8) {
+            orOptMove(a, c, 1 + random.nextInt(3), random.nextBoolean());
+        }
+        else {
+            swapMove(a, c);
+        }
+    }
+    
+    private boolean accept(double delta) {
+        return delta < 0 || random.nextDouble() < Math.exp(-delta / temperature);
+    }
+    
+    private int next(int v) {
+        if(list != null) {
+            return list.next(v);
+        }
+        int i = pos[v] + 1;
+        return tour[(i == n) ? 0 : i];
+    }
+    
+    private int previous(int v) {
+        if(list != null) {
+            return list.previous(v);
+        }
+        int i = pos[v] - 1;
+        return tour[(i < 0) ? n - 1 : i];
+    }
+    
+    private void twoOptMove(int a, int c, boolean forward) {
+        int b = forward ? next(a) : previous(a);
+        int d = forward ? next(c) : previous(c);
+        if(c == b || d == a) {
+            return;
+        }
+        double delta = distance(a, c) + distance(b, d) - distance(a, b) - distance(c, d);
+        if(accept(delta)) {
+            if(list != null) {
+                list.flip(a, b, c, d);
+            }
+            else if(forward) {   // a b ... c d  ->  a c ... b d
+                Sub_algorithms.reverseTourPath(tour, pos, pos[b], pos[c], false);
+            }
+            else {               // d c ... b a  ->  d b ... c a
+                Sub_algorithms.reverseTourPath(tour, pos, pos[c], pos[b], false);
+            }
+            length += delta;
+        }
+    }
+    
+    /**
+     * The segment a..e of "segmentLength" vertices between c and the vertex after it.
+     */
+    private void orOptMove(int a, int c, int segmentLength, boolean reverseSegment) {
+        int i = 0;
+        int j = 0;
+        int e = a;
+        if(list != null) {
+            for(int l = 1; l < segmentLength; l++) {
+                e = list.next(e);
+            }
+            if(list.between(a, c, e)) {
+                return; // c is inside the segment
+            }
+        }
+        else {
+            i = pos[a];
+            j = (i + segmentLength - 1) % n;
+            if(((pos[c] - i + n) % n) < segmentLength) {
+                return;
+            }
+            e = tour[j];
+        }
+        int p = previous(a);
+        int nx = next(e);
+        int v = next(c);
+        if(c == p) {
+            return;
+        }
+        double delta = distance(p, nx) - distance(p, a) - distance(e, nx) - distance(c, v)
+                + (reverseSegment ? distance(c, e) + distance(a, v) : distance(c, a) + distance(e, v));
+        if(accept(delta)) {
+            if(list != null) {
+                list.moveSegment(a, e, c, v, reverseSegment);
+            }
+            else {
+                Sub_algorithms.moveSegment(tour, pos, i, j, c, v, reverseSegment);
+            }
+            length += delta;
+        }
+    }
+    
+    private void swapMove(int a, int c) {
+        int pa = previous(a);
+        int na = next(a);
+        if(c == pa || c == na) {
+            return; // the neighbours are the 2-opt moves
+        }
+        int pc = previous(c);
+        int nc = next(c);
+        double delta = distance(pa, c) + distance(c, na) + distance(pc, a) + distance(a, nc)
+                - distance(pa, a) - distance(a, na) - distance(pc, c) - distance(c, nc);
+        if(!accept(delta)) {
+            return;
+        }
+        if(list != null) { // a between pc and c, then c to the old place of a
+            list.moveSegment(a, a, pc, c, false);
+            if(list.next(pa) == na) {
+                list.moveSegment(c, c, pa, na, false);
+            }
+            else { // the list may have turned around
+                list.moveSegment(c, c, na, pa, false);
+            }
+        }
+        else {
+            int i = pos[a];
+            int j = pos[c];
+            tour[i] = c;
+            tour[j] = a;
+            pos[c] = i;
+            pos[a] = j;
+        }
+        length += delta;
+    }
+    
+    private double distance(int a, int b) {
+        return points.distance(a, b);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,296 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 34 of 40
+ *
+ * The splay tree tour: the vertices are the nodes of a binary tree whose in-order is the tour,
+ * the key of a vertex is its index in the tour (the size of the left subtrees on the way, not
+ * stored). A reversed bit in a node turns its whole subtree around and is pushed down lazily.
+ * Every access splays the vertex to the root, so the next one near it in the tour is cheap.
+ * sequence (between) and flip are amortized O(log n): the flip splays the vertices before and
+ * after the path, the path is then one subtree and gets the reversed bit.
+ *
+ * The two-level list (Two_Level_List) has O(1) next and O(sqrt(n)) flips, the splay tree
+ * O(log n) for both, so it needs millions of vertices and long flips to be the faster one.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Splay_Tour extends Tour_List {
+    
+    private final int n;
+    private final int[] left;                   // -1 = none
+    private final int[] right;
+    private final int[] parent;
+    private final int[] size;                   // the nodes in the subtree
+    private final boolean[] reversed;           // the subtree is reversed, not yet pushed to the children
+    private final int[] path;                   // the ancestors to push before a splay
+    private int root;
+    
+    /**
+     * The splay tree of the tour (a vertex order without the start vertex at the end).
+     *
+     * @param tour int[]
+     */
+    public Splay_Tour(int[] tour) {
+        n = tour.length;
+        left = new int[n];
+        right = new int[n];
+        parent = new int[n];
+        size = new int[n];
+        reversed = new boolean[n];
+        path = new int[n];
+        root = build(tour, 0, n - 1, -1);
+    }
+    
+    /**
+     * The balanced tree of tour[from..to], returns its root.
+     */
+    private int build(int[] tour, int from, int to, int up) {
+        if(from > to) {
+            return -1;
+        }
+        int middle = (from + to) >>> 1;
+        int v = tour[middle];
+        parent[v] = up;
+        left[v] = build(tour, from, middle - 1, v);
+        right[v] = build(tour, middle + 1, to, v);
+        size[v] = to - from + 1;
+        return v;
+    }
+    
+    @Override
+    public int next(int v) {
+        splay(v, -1);
+        int u = right[v];
+        if(u < 0) {
+            return first();
+        }
+        push(u);
+        while(left[u] >= 0) {
+            u = left[u];
+            push(u);
+        }
+        return u;
+    }
+    
+    @Override
+    public int previous(int v) {
+        splay(v, -1);
+        int u = left[v];
+        if(u < 0) {
+            return last();
+        }
+        push(u);
+        while(right[u] >= 0) {
+            u = right[u];
+            push(u);
+        }
+        return u;
+    }
+    
+    /**
+     * The index of v in the tour.
+     *
+     * @param v int
+     * @return int
+     */
+    public int sequence(int v) {
+        splay(v, -1);
+        return (left[v] >= 0) ? size[left[v]] : 0;
+    }
+    
+    @Override
+    public boolean between(int a, int b, int c) {
+        int indexA = sequence(a);
+        int indexB = sequence(b);
+        int indexC = sequence(c);
+        if(indexA <= indexC) {
+            return indexA <= indexB && indexB <= indexC;
+        }
+        return indexB >= indexA || indexB <= indexC;
+    }
+    
+    @Override
+    public void flip(int a, int b, int c, int d) {
+        if(next(a) != b) { // the other tour direction: b a ... d c
+            int helpVar = a;
+            a = b;
+            b = helpVar;
+            helpVar = c;
+            c = d;
+            d = helpVar;
+        }
+        if(a == c || b == c || d == a) {
+            return; // the same tour
+        }
+        int from = sequence(b);
+        int to = sequence(c);
+        if(from > to) { // the path b..c goes over the end of the tour, d..a does not
+            from = sequence(d);
+            to = sequence(a);
+        }
+        reverse(from, to);
+    }
+    
+    @Override
+    public void copyTo(int[] tour) {
+        int count = 0;
+        int stackSize = 0;
+        int v = root;
+        while(v >= 0 || stackSize > 0) { // in-order without recursion
+            while(v >= 0) {
+                push(v);
+                path[stackSize++] = v;
+                v = left[v];
+            }
+            v = path[--stackSize];
+            tour[count++] = v;
+            v = right[v];
+        }
+    }
+    
+    /**
+     * Reverses the tour indexes from..to (from <= to).
+     */
+    private void reverse(int from, int to) {
+        if(from == 0 && to == n - 1) {
+            reversed[root] = !reversed[root];
+            return;
+        }
+        if(from == 0) {
+            int after = nodeAt(to + 1);
+            splay(after, -1);
+            reversed[left[after]] = !reversed[left[after]];
+            return;
+        }
+        int before = nodeAt(from - 1);
+        splay(before, -1);
+        if(to == n - 1) {
+            reversed[right[before]] = !reversed[right[before]];
+            return;
+        }
+        int after = nodeAt(to + 1);
+        splay(after, before); // the right child of before, the path is its left subtree
+        reversed[left[after]] = !reversed[left[after]];
+    }
+    
+    /**
+     * The vertex at the tour index.
+     */
+    private int nodeAt(int index) {
+        int v = root;
+        while(true) {
+            push(v);
+            int leftSize = (left[v] >= 0) ? size[left[v]] : 0;
+            if(index < leftSize) {
+                v = left[v];
+            }
+            else if(index == leftSize) {
+                return v;
+            }
+            else {
+                index -= leftSize + 1;
+                v = right[v];
+            }
+        }
+    }
+    
+    private int first() {
+        int v = root;
+        push(v);
+        while(left[v] >= 0) {
+            v = left[v];
+            push(v);
+        }
+        splay(v, -1);
+        return v;
+    }
+    
+    private int last() {
+        int v = root;
+        push(v);
+        while(right[v] >= 0) {
+            v = right[v];
+            push(v);
+        }
+        splay(v, -1);
+        return v;
+    }
+    
+    private void push(int v) {
+        if(reversed[v]) {
+            int helpVar = left[v];
+            left[v] = right[v];
+            right[v] = helpVar;
+            if(left[v] >= 0) {
+                reversed[left[v]] = !reversed[left[v]];
+            }
+            if(right[v] >= 0) {
+                reversed[right[v]] = !reversed[right[v]];
+            }
+            reversed[v] = false;
+        }
+    }
+    
+    /**
+     * Rotates v up until its parent is "goal" (-1 = to the root).
+     */
+    private void splay(int v, int goal) {
+        int depth = 0;
+        for(int u = v; u >= 0; u = parent[u]) {
+            path[depth++] = u;
+        }
+        while(depth > 0) { // the reversed bits down from the root first
+            push(path[--depth]);
+        }
+        while(parent[v] != goal) {
+            int p = parent[v];
+            int g = parent[p];
+            if(g != goal) {
+                rotate(((left[g] == p) == (left[p] == v)) ? p : v); // zig-zig or zig-zag
+            }
+            rotate(v);
+        }
+        if(goal < 0) {
+            root = v;
+        }
+    }
+    
+    private void rotate(int v) {
+        int p = parent[v];
+        int g = parent[p];
+        if(left[p] == v) {
+            left[p] = right[v];
+            if(right[v] >= 0) {
+                parent[right[v]] = p;
+            }
+            right[v] = p;
+        }
+        else {
+            right[p] = left[v];
+            if(left[v] >= 0) {
+                parent[left[v]] = p;
+            }
+            left[v] = p;
+        }
+        parent[p] = v;
+        parent[v] = g;
+        if(g >= 0) {
+            if(left[g] == p) {
+                left[g] = v;
+            }
+            else {
+                right[g] = v;
+            }
+        }
+        size[p] = 1 + ((left[p] >= 0) ? size[left[p]] : 0) + ((right[p] >= 0) ? size[right[p]] : 0);
+        size[v] = 1 + ((left[v] >= 0) ? size[left[v]] : 0) + ((right[v] >= 0) ? size[right[v]] : 0);
+    }
+}
\ No newline at end of file
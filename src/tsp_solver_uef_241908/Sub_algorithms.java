@@ -4,7 +4,7 @@ import java.util.Arrays;
 import java.util.Random;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 9 of 11 
+ * TSP Solver by Tuomas Hyvönen, Java file 35 of 40 
  * 
  * The sub algorithm class with lots of tools like the Euclidean distance, 
  * the minimum spanning tree and the convex hull. 
@@ -22,8 +22,11 @@ import java.util.Random;
  * - Checking the matching edge coordinates (a little help method)
  * - Nearest neighbour sprout
  * - A simple 2-opt move
+ * - Neighbour list 2-opt and Or-opt local search with don't-look bits (memetic evolution) 
+ * - Nearest neighbour tour, tour length and sorting node indexes by keys for the primitive array tours 
  * (- 3-opt not implemented, has been left out of this version)
  * - Lin-Kernighan heuristic, pushes nodes to a stack and pops them while trying out new connections
+ * - Candidate neighbour list (Candidate_Sets) versions of the NN sprout, the matching and Lin-Kernighan 
  * 
  * Open source Java code, feel free to edit and try your own improvements. 
  * Tested with Windows 11 
@@ -301,8 +304,8 @@ public class Sub_algorithms {
     
         // handle vertices and if not a counter-clockwise turn or 
         // 0 (straight line), repair connections 
-        DoubleStack hulls_x_coordinates = new DoubleStack();
-        DoubleStack hulls_y_coordinates = new DoubleStack();
+        DoubleStack hulls_x_coordinates = DoubleStack.borrow();
+        DoubleStack hulls_y_coordinates = DoubleStack.borrow();
         hulls_x_coordinates.push(handleVerticesInThisOrder[0][0]);
         hulls_y_coordinates.push(handleVerticesInThisOrder[0][1]);
         hulls_x_coordinates.push(handleVerticesInThisOrder[1][0]);
@@ -337,6 +340,8 @@ public class Sub_algorithms {
             result[i][1][0] = hulls_y_coordinates.top(); 
             hulls_y_coordinates.pop();
         }
+        DoubleStack.giveBack(hulls_x_coordinates);
+        DoubleStack.giveBack(hulls_y_coordinates);
         // generate a cycle of the vertices 
         int lastIndex = 0;
         for(int i = 0; i < max -1; i++) {
@@ -1290,6 +1295,85 @@ public class Sub_algorithms {
         return selected_ret_values;
     }
     
+    /**
+     * Same as above, but more than 150 match nodes are matched greedily with the candidate 
+     * neighbour lists (Candidate_Sets, built for the same coordinate lists): the candidate 
+     * edges from the shortest to the longest, O(n k log(n k)) instead of O(n³). 
+     * "candidates" can be null. 
+     * 
+     * @param x_coordinates ArrayList
+     * @param y_coordinates ArrayList
+     * @param candidates int[]
+     * @param k int
+     * @return ArrayList
+     */
+    public static ArrayList Matching(ArrayList x_coordinates, ArrayList y_coordinates, int[] candidates, int k) {
+        if(candidates == null || x_coordinates.size() <= 150) {
+            return Matching(x_coordinates, y_coordinates);
+        }
+        if(x_coordinates.size() != y_coordinates.size()) {
+            System.out.println("X and Y sizes are not equal, in matching");
+            return null;
+        }
+        int n = x_coordinates.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for(int i = 0; i < n; i++) {
+            xs[i] = (double)x_coordinates.get(i);
+            ys[i] = (double)y_coordinates.get(i);
+        }
+        int[] order = new int[n*k];     // candidate edge i*k+l is (i, candidates[i*k+l]) 
+        double[] lengths = new double[n*k];
+        for(int e = 0; e < n*k; e++) {
+            order[e] = e;
+            lengths[e] = Euclidean_distance_squared(xs[e/k], ys[e/k], xs[candidates[e]], ys[candidates[e]]);
+            if(lengths[e] == 0) { // equal points are each other's nearest candidates 
+                System.out.println("ERROR in MATCHING: equal coordinate inputs found.");
+                return null;
+            }
+        }
+        sortIndexesByKeys(order, lengths, null);
+        
+        ArrayList selected_ret_values = new ArrayList();
+        boolean[] taken = new boolean[n];
+        for(int e = 0; e < n*k; e++) {
+            int a = order[e] / k;
+            int b = candidates[order[e]];
+            if(!taken[a] && !taken[b]) {
+                addMatchingEdge(selected_ret_values, xs, ys, a, b);
+                taken[a] = true;
+                taken[b] = true;
+            }
+        }
+        // the few that did not get a partner from their lists: the nearest free one 
+        for(int a = 0; a < n; a++) {
+            if(!taken[a]) {
+                int best = -1;
+                double bestDistance = Double.MAX_VALUE;
+                for(int b = a+1; b < n; b++) {
+                    double d = Euclidean_distance_squared(xs[a], ys[a], xs[b], ys[b]);
+                    if(!taken[b] && d < bestDistance) {
+                        bestDistance = d;
+                        best = b;
+                    }
+                }
+                if(best >= 0) {
+                    addMatchingEdge(selected_ret_values, xs, ys, a, best);
+                    taken[a] = true;
+                    taken[best] = true;
+                }
+            }
+        }
+        return selected_ret_values;
+    }
+    
+    private static void addMatchingEdge(ArrayList selected_ret_values, double[] xs, double[] ys, int a, int b) {
+        selected_ret_values.add(xs[a]);
+        selected_ret_values.add(ys[a]);
+        selected_ret_values.add(xs[b]);
+        selected_ret_values.add(ys[b]);
+    }
+    
     /**
      * When computing the perfect minimum matching is too difficult to program, 
      * this will compute a relatively good matching.
@@ -1459,6 +1543,24 @@ public class Sub_algorithms {
      */
     public static double[][] NNHsprout(int sprout_length, int start_index_NO_ZERO, 
         ArrayList coordinates_x, ArrayList coordinates_y) {
+        return NNHsprout(sprout_length, start_index_NO_ZERO, coordinates_x, coordinates_y, null, 0);
+    }
+    
+    /**
+     * Same as above, but the next vertex is searched from the candidate neighbour list of the 
+     * current vertex first (Candidate_Sets, built for the same coordinate lists), all vertices 
+     * are checked only if every candidate is already in the sprout. "candidates" can be null. 
+     * 
+     * @param sprout_length int
+     * @param start_index_NO_ZERO int
+     * @param coordinates_x ArrayList
+     * @param coordinates_y ArrayList
+     * @param candidates int[]
+     * @param k int
+     * @return double[][]
+     */
+    public static double[][] NNHsprout(int sprout_length, int start_index_NO_ZERO, 
+        ArrayList coordinates_x, ArrayList coordinates_y, int[] candidates, int k) {
             
         if(sprout_length > (coordinates_x.size() *2)) {
             System.out.println("Sprout length too long!");
@@ -1474,6 +1576,8 @@ public class Sub_algorithms {
 
         boolean[] booltable = new boolean[coordinates_x.size()*2];
         boolean booltable_has_false = true;
+        int trueCount = 0; // how many are true in booltable, no need to check the whole table every time 
+        int n = coordinates_x.size();
         solution = new StringBuilder(solution).append(
                 String.valueOf(start_index_NO_ZERO)).toString();
         int pointer = 0; 
@@ -1488,8 +1592,9 @@ public class Sub_algorithms {
             //System.out.println("-------------start_index_NO_ZERO is " + start_index_NO_ZERO);
             //System.out.println("-------------pointer_start is " + pointer_start);
             //System.out.println("-------------booltable.length is " + booltable.length);
-            if(start_index_NO_ZERO > 0) {
+            if(start_index_NO_ZERO > 0 && !booltable[start_index_NO_ZERO - 1]) {
                 booltable[start_index_NO_ZERO - 1] = true;
+                trueCount++;
             }
             double min_distance = Double.MAX_VALUE;
             double temp_distance;
@@ -1506,7 +1611,23 @@ public class Sub_algorithms {
 
             //X1 = (double) coordinates_x.get(start_index_NO_ZERO - 1); 
             //Y1 = (double) coordinates_y.get(start_index_NO_ZERO - 1); 
-            for(int j = 0; j < booltable.length; j++) {
+            if(candidates != null) {
+                int current = (pointer_start >= n) ? pointer_start - n : pointer_start;
+                for(int l = 0; l < k; l++) {
+                    int c = candidates[current*k + l];
+                    int j = booltable[c] ? c + n : c; // the same vertex twice in the table 
+                    if(!booltable[j]) {
+                        temp_distance = Sub_algorithms.Euclidean_distance_squared(x1, y1, 
+                                (double) coordinates_x.get(c), (double) coordinates_y.get(c));
+                        if((temp_distance < min_distance) && (temp_distance > 0)) {
+                            min_distance = temp_distance;
+                            pointer = j;
+                        }
+                    }
+                }
+            }
+            boolean candidateFound = min_distance < Double.MAX_VALUE;
+            for(int j = 0; j < booltable.length && !candidateFound; j++) {
                 if(booltable[j] == false) {
                     double x2;
                     double y2;
@@ -1527,6 +1648,9 @@ public class Sub_algorithms {
                 }
             }
             // new vertice to the result:
+            if(!booltable[pointer]) {
+                trueCount++;
+            }
             booltable[pointer] = true;
             solution = new StringBuilder(solution).append("-").toString();
             if(pointer >= coordinates_x.size()) {
@@ -1544,12 +1668,7 @@ public class Sub_algorithms {
 
             //tour_length += Math.sqrt(min_distance);
 
-            booltable_has_false = false;
-            for(int j = 0; j < booltable.length; j++) {
-                if(booltable[j] == false) {
-                    booltable_has_false = true;
-                }
-            }
+            booltable_has_false = trueCount < booltable.length;
             pointer_start = pointer;
             amount_of_edges++;
         }
@@ -1583,6 +1702,14 @@ public class Sub_algorithms {
      * @return ArrayList
      */
     public static ArrayList twoOpt(ArrayList coordinates, double eucDistOld) {
+        return twoOpt(coordinates, eucDistOld, new double[1]);
+    }
+    
+    /**
+     * Same as above, the length of the returned tour goes to newLength[0] if it is the 
+     * improved one ("coordinates" itself), the caller knows the length of the unchanged copy. 
+     */
+    private static ArrayList twoOpt(ArrayList coordinates, double eucDistOld, double[] newLength) {
         ArrayList originals = (ArrayList)coordinates.clone();
         
         //System.out.println("XXXXXXXXXXXXXXX" + coordinates.toString());
@@ -1704,6 +1831,7 @@ public class Sub_algorithms {
         //System.out.println("NEW dist: " + eucNew + ", OLD dist: " + eucDistOld);
         if(eucNew < eucDistOld) {
             System.out.println("IMPROVED RETURNED: " + coordinates);
+            newLength[0] = eucNew;
             return coordinates;
         }
         else {
@@ -1712,6 +1840,527 @@ public class Sub_algorithms {
         }
     }
     
+    /**
+     * Local search with 2-opt and Or-opt moves that only try the neighbour list partners 
+     * (see Candidate_Sets) instead of all O(n) partners. Don't-look bits keep the 
+     * search on the nodes whose surroundings have changed. 
+     * 
+     * "int[] tour" is a node order without the start node at the end, it is improved in place. 
+     * Returns the total gain, so the old tour length minus the gain is the new tour length 
+     * (delta evaluation, no need to sum the whole tour again). From Tour_List.MIN_SIZE 
+     * nodes on the moves are made in a Tour_List (the two-level list or the splay tree), 
+     * O(sqrt(n)) or O(log n) per move instead of the reversals of up to n/2 nodes. 
+     * 
+     * @param xs double[]
+     * @param ys double[]
+     * @param tour int[]
+     * @param neighbours int[]
+     * @param k int
+     * @return double
+     */
+    public static double twoOptAndOrOpt(double[] xs, double[] ys, int[] tour, int[] neighbours, int k) {
+        return twoOptAndOrOpt(new Double_Instance(xs, ys), tour, Int_Array.wrap(neighbours), k, null);
+    }
+    
+    /**
+     * Same as above for the coordinates of a TSP_Instance. 
+     * 
+     * @param points TSP_Instance
+     * @param tour int[]
+     * @param neighbours int[]
+     * @param k int
+     * @return double
+     */
+    public static double twoOptAndOrOpt(TSP_Instance points, int[] tour, int[] neighbours, int k) {
+        return twoOptAndOrOpt(points, tour, Int_Array.wrap(neighbours), k, null);
+    }
+    
+    /**
+     * Same as above for the candidate lists as an Int_Array (Candidate_Sets.buildLists), 
+     * for example off-heap. 
+     * 
+     * @param points TSP_Instance
+     * @param tour int[]
+     * @param neighbours Int_Array
+     * @param k int
+     * @return double
+     */
+    public static double twoOptAndOrOpt(TSP_Instance points, int[] tour, Int_Array neighbours, int k) {
+        return twoOptAndOrOpt(points, tour, neighbours, k, null);
+    }
+    
+    /**
+     * Same as above, but only the "startNodes" have their don't-look bits off in the beginning 
+     * (for example the seams of tours that were joined), null means all nodes. 
+     * 
+     * @param xs double[]
+     * @param ys double[]
+     * @param tour int[]
+     * @param neighbours int[]
+     * @param k int
+     * @param startNodes int[]
+     * @return double
+     */
+    public static double twoOptAndOrOpt(double[] xs, double[] ys, int[] tour, int[] neighbours, int k, 
+            int[] startNodes) {
+        return twoOptAndOrOpt(new Double_Instance(xs, ys), tour, Int_Array.wrap(neighbours), k, startNodes);
+    }
+    
+    /**
+     * Same as above for the coordinates of a TSP_Instance and the candidate lists as an 
+     * Int_Array, both are read in place (float and off-heap graphs without a double or heap 
+     * copy). The tour and the search state stay on the heap, from Tour_List.MIN_SIZE nodes 
+     * on the tour is in the Tour_List anyway. 
+     * 
+     * @param points TSP_Instance
+     * @param tour int[]
+     * @param neighbours Int_Array
+     * @param k int
+     * @param startNodes int[]
+     * @return double
+     */
+    public static double twoOptAndOrOpt(TSP_Instance points, int[] tour, Int_Array neighbours, int k, 
+            int[] startNodes) {
+        int n = tour.length;
+        if(n < 5) {
+            return 0;
+        }
+        int[] pos = new int[n];
+        for(int i = 0; i < n; i++) {
+            pos[tour[i]] = i;
+        }
+        Tour_List list = Tour_List.forLocalSearch(tour);
+        int[] queue = new int[n];      // circular queue of the nodes that have their don't-look bit off 
+        boolean[] queued = new boolean[n];
+        int head = 0;
+        int count = 0;
+        int[] first = (startNodes != null) ? startNodes : tour;
+        for(int i = 0; i < first.length; i++) {
+            if(!queued[first[i]]) {
+                queue[count++] = first[i];
+                queued[first[i]] = true;
+            }
+        }
+        double totalGain = 0;
+        while(count > 0) {
+            int a = queue[head];
+            head = (head + 1) % n;
+            count--;
+            queued[a] = false;
+            
+            double gain;
+            if(list == null) {
+                gain = tryTwoOptMove(a, points, tour, pos, neighbours, k);
+                if(gain <= 0) {
+                    gain = tryOrOptMove(a, points, tour, pos, neighbours, k);
+                }
+            }
+            else {
+                gain = tryTwoOptMove(a, points, list, neighbours, k);
+                if(gain <= 0) {
+                    gain = tryOrOptMove(a, points, list, neighbours, k, n);
+                }
+            }
+            int[] touched = LAST_TOUCHED.get();
+            if(gain > 0) {
+                totalGain += gain;
+                for(int t = 0; t < touched.length; t++) {
+                    int node = touched[t];
+                    if(!queued[node]) {
+                        queue[(head + count) % n] = node;
+                        queued[node] = true;
+                        count++;
+                    }
+                }
+            }
+        }
+        if(list != null) {
+            list.copyTo(tour);
+        }
+        return totalGain;
+    }
+    
+    // the end points of the latest improving move, they lose their don't-look bits 
+    private static final ThreadLocal<int[]> LAST_TOUCHED = ThreadLocal.withInitial(() -> new int[6]);
+    
+    /**
+     * Tries the 2-opt moves of node a with its neighbour list (both tour directions), 
+     * makes the first improving move and returns its gain, or 0 if none was found.
+     */
+    private static double tryTwoOptMove(int a, TSP_Instance points, int[] tour, int[] pos, 
+            Int_Array neighbours, int k) {
+        int n = tour.length;
+        for(int direction = 0; direction < 2; direction++) {
+            int b = (direction == 0) ? tour[(pos[a]+1) % n] : tour[(pos[a]-1+n) % n];
+            double dab = points.distance(a, b);
+            for(int l = 0; l < k; l++) {
+                int c = neighbours.get(a*k + l);
+                double dac = points.distance(a, c);
+                if(dab - dac <= 0.0000000001) {
+                    break; // the neighbours are sorted, nothing better can come 
+                }
+                int d = (direction == 0) ? tour[(pos[c]+1) % n] : tour[(pos[c]-1+n) % n];
+                if(c == b || d == a) {
+                    continue;
+                }
+                double gain = dab - dac + points.distance(c, d) 
+                                        - points.distance(b, d);
+                if(gain > 0.0000000001) {
+                    if(direction == 0) {    // a b ... c d  ->  a c ... b d 
+                        reverseTourPath(tour, pos, pos[b], pos[c], false);
+                    }
+                    else {                  // d c ... b a  ->  d b ... c a 
+                        reverseTourPath(tour, pos, pos[c], pos[b], false);
+                    }
+                    int[] touched = LAST_TOUCHED.get();
+                    touched[0] = a; touched[1] = b; touched[2] = c; 
+                    touched[3] = d; touched[4] = a; touched[5] = b;
+                    return gain;
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Tries to move a segment of 1-3 nodes that starts from node a between some neighbour 
+     * list partner and its tour neighbour (also reversed), makes the first improving 
+     * move and returns its gain, or 0 if none was found.
+     */
+    private static double tryOrOptMove(int a, TSP_Instance points, int[] tour, int[] pos, 
+            Int_Array neighbours, int k) {
+        int n = tour.length;
+        for(int segmentLength = 1; segmentLength <= 3 && segmentLength < n-3; segmentLength++) {
+            int i = pos[a];
+            int j = (i + segmentLength - 1) % n;
+            int e = tour[j];
+            int p = tour[(i-1+n) % n];
+            int nx = tour[(j+1) % n];
+            double removeGain = points.distance(p, a) 
+                              + points.distance(e, nx) 
+                              - points.distance(p, nx);
+            if(removeGain <= 0.0000000001) {
+                continue;
+            }
+            for(int end = 0; end < 2; end++) {
+                int from = (end == 0) ? a : e;
+                for(int l = 0; l < k; l++) {
+                    int c = neighbours.get(from*k + l);
+                    if(points.distance(from, c) >= removeGain) {
+                        break;
+                    }
+                    if(((pos[c] - i + n) % n) < segmentLength) {
+                        continue; // c is inside the segment 
+                    }
+                    for(int side = 0; side < 2; side++) { // the edge after c or the edge before c 
+                        int u = (side == 0) ? c : tour[(pos[c]-1+n) % n];
+                        int v = tour[(pos[u]+1) % n];
+                        if(u == p || u == e) {
+                            continue;
+                        }
+                        double duv = points.distance(u, v);
+                        double forward = points.distance(u, a) 
+                                       + points.distance(e, v) - duv;
+                        double reversed = points.distance(u, e) 
+                                        + points.distance(a, v) - duv;
+                        double gain = removeGain - Math.min(forward, reversed);
+                        if(gain > 0.0000000001) {
+                            moveSegment(tour, pos, i, j, u, v, reversed < forward);
+                            int[] touched = LAST_TOUCHED.get();
+                            touched[0] = a; touched[1] = e; touched[2] = p; 
+                            touched[3] = nx; touched[4] = u; touched[5] = v;
+                            return gain;
+                        }
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * tryTwoOptMove with the tour in a Tour_List. 
+     */
+    private static double tryTwoOptMove(int a, TSP_Instance points, Tour_List list, 
+            Int_Array neighbours, int k) {
+        for(int direction = 0; direction < 2; direction++) {
+            int b = (direction == 0) ? list.next(a) : list.previous(a);
+            double dab = points.distance(a, b);
+            for(int l = 0; l < k; l++) {
+                int c = neighbours.get(a*k + l);
+                double dac = points.distance(a, c);
+                if(dab - dac <= 0.0000000001) {
+                    break; // the neighbours are sorted, nothing better can come 
+                }
+                int d = (direction == 0) ? list.next(c) : list.previous(c);
+                if(c == b || d == a) {
+                    continue;
+                }
+                double gain = dab - dac + points.distance(c, d) 
+                                        - points.distance(b, d);
+                if(gain > 0.0000000001) {
+                    list.flip(a, b, c, d);
+                    int[] touched = LAST_TOUCHED.get();
+                    touched[0] = a; touched[1] = b; touched[2] = c; 
+                    touched[3] = d; touched[4] = a; touched[5] = b;
+                    return gain;
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * tryOrOptMove with the tour in a Tour_List. 
+     */
+    private static double tryOrOptMove(int a, TSP_Instance points, Tour_List list, 
+            Int_Array neighbours, int k, int n) {
+        int e = a;
+        for(int segmentLength = 1; segmentLength <= 3 && segmentLength < n-3; segmentLength++) {
+            if(segmentLength > 1) {
+                e = list.next(e);
+            }
+            int p = list.previous(a);
+            int nx = list.next(e);
+            double removeGain = points.distance(p, a) 
+                              + points.distance(e, nx) 
+                              - points.distance(p, nx);
+            if(removeGain <= 0.0000000001) {
+                continue;
+            }
+            for(int end = 0; end < 2; end++) {
+                int from = (end == 0) ? a : e;
+                for(int l = 0; l < k; l++) {
+                    int c = neighbours.get(from*k + l);
+                    if(points.distance(from, c) >= removeGain) {
+                        break;
+                    }
+                    if(list.between(a, c, e)) {
+                        continue; // c is inside the segment 
+                    }
+                    for(int side = 0; side < 2; side++) { // the edge after c or the edge before c 
+                        int u = (side == 0) ? c : list.previous(c);
+                        int v = list.next(u);
+                        if(u == p || u == e) {
+                            continue;
+                        }
+                        double duv = points.distance(u, v);
+                        double forward = points.distance(u, a) 
+                                       + points.distance(e, v) - duv;
+                        double reversed = points.distance(u, e) 
+                                        + points.distance(a, v) - duv;
+                        double gain = removeGain - Math.min(forward, reversed);
+                        if(gain > 0.0000000001) {
+                            list.moveSegment(a, e, u, v, reversed < forward);
+                            int[] touched = LAST_TOUCHED.get();
+                            touched[0] = a; touched[1] = e; touched[2] = p; 
+                            touched[3] = nx; touched[4] = u; touched[5] = v;
+                            return gain;
+                        }
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Moves the tour segment of the positions i..j (going forward) between the tour neighbours 
+     * u and v (v after u, both outside of the segment), the segment is reversed if 
+     * "reverseSegment" is true: u a..e v or u e..a v. At most 3 reversals, the segment 
+     * goes the shorter way around the tour (the Or-opt move). 
+     * 
+     * @param tour int[]
+     * @param pos int[]
+     * @param i int
+     * @param j int
+     * @param u int
+     * @param v int
+     * @param reverseSegment boolean
+     */
+    public static void moveSegment(int[] tour, int[] pos, int i, int j, int u, int v, boolean reverseSegment) {
+        int n = tour.length;
+        int pu = pos[u];
+        int pv = pos[v];
+        if(((pu - j + n) % n) <= ((i - pv + n) % n)) { 
+            // u is ahead: [S, nx..u] -> [nx..u, S] 
+            if(!reverseSegment) {
+                reverseTourPath(tour, pos, i, j, true);
+            }
+            reverseTourPath(tour, pos, (j+1) % n, pu, true);
+            reverseTourPath(tour, pos, i, pu, true);
+        }
+        else {
+            // v is behind: [v..p, S] -> [S, v..p] 
+            reverseTourPath(tour, pos, pv, (i-1+n) % n, true);
+            if(!reverseSegment) {
+                reverseTourPath(tour, pos, i, j, true);
+            }
+            reverseTourPath(tour, pos, pv, j, true);
+        }
+    }
+    
+    /**
+     * Reverses the tour path between the positions from and to (going forward, wraps around 
+     * the end of the array). If "exact" is false, the shorter one of the path and the rest 
+     * of the tour is reversed, the result is the same cycle either way. 
+     * 
+     * @param tour int[]
+     * @param pos int[]
+     * @param from int
+     * @param to int
+     * @param exact boolean
+     */
+    public static void reverseTourPath(int[] tour, int[] pos, int from, int to, boolean exact) {
+        int n = tour.length;
+        int length = ((to - from + n) % n) + 1;
+        if(!exact && length*2 > n) {
+            int helpVar = (to + 1) % n;
+            to = (from - 1 + n) % n;
+            from = helpVar;
+            length = n - length;
+        }
+        for(int s = 0; s < length/2; s++) {
+            int i = (from + s) % n;
+            int j = (to - s + n) % n;
+            int helpVar = tour[i];
+            tour[i] = tour[j];
+            tour[j] = helpVar;
+            pos[tour[i]] = i;
+            pos[tour[j]] = j;
+        }
+    }
+    
+    /**
+     * The nearest neighbour tour from the point 0, the unvisited points are kept at the
+     * beginning of the arrays so the distance kernel scans only them (Distance_Kernels.nearest). 
+     * O(n²), for the graphs of a few thousand vertices. 
+     * 
+     * @param xs double[]
+     * @param ys double[]
+     * @return int[]
+     */
+    public static int[] nearestNeighbourTour(double[] xs, double[] ys) {
+        int n = xs.length;
+        double[] unvisitedXs = xs.clone();
+        double[] unvisitedYs = ys.clone();
+        int[] ids = new int[n];
+        for(int i = 0; i < n; i++) {
+            ids[i] = i;
+        }
+        double[] scratch = new double[n];
+        int[] tour = new int[n];
+        int unvisited = n;
+        int index = 0;
+        while(unvisited > 0) {
+            int current = ids[index];
+            tour[n - unvisited] = current;
+            unvisited--;
+            unvisitedXs[index] = unvisitedXs[unvisited];
+            unvisitedYs[index] = unvisitedYs[unvisited];
+            ids[index] = ids[unvisited];
+            if(unvisited > 0) {
+                index = Distance_Kernels.nearest(unvisitedXs, unvisitedYs, unvisited, xs[current], ys[current], scratch);
+            }
+        }
+        return tour;
+    }
+    
+    /**
+     * The length of a closed tour that is a node order without the start node at the end.
+     *
+     * @param xs double[]
+     * @param ys double[]
+     * @param tour int[]
+     * @return double
+     */
+    public static double calculateTourLength(double[] xs, double[] ys, int[] tour) {
+        double length = 0;
+        int n = tour.length;
+        for(int i = 0; i < n; i++) {
+            int a = tour[i];
+            int b = tour[(i+1 == n) ? 0 : i+1];
+            length += Euclidean_distance(xs[a], ys[a], xs[b], ys[b]);
+        }
+        return length;
+    }
+    
+    /**
+     * Sorts the indexes in "order" so that their keys are ascending, equal keys are ordered
+     * by "tieKeys" (can be null). The keys themselves are not moved. Quicksort without any
+     * boxed Integers or Comparators, so it is fine for millions of nodes.
+     *
+     * @param order int[]
+     * @param keys double[]
+     * @param tieKeys double[]
+     */
+    public static void sortIndexesByKeys(int[] order, double[] keys, double[] tieKeys) {
+        sortIndexesByKeys(order, 0, order.length -1, new Double_Instance(keys, tieKeys), tieKeys != null);
+    }
+    
+    /**
+     * Same as above with the x coordinates of a TSP_Instance as the keys and the y coordinates 
+     * as the tie keys. 
+     *
+     * @param order int[]
+     * @param points TSP_Instance
+     */
+    public static void sortIndexesByPoints(int[] order, TSP_Instance points) {
+        sortIndexesByKeys(order, 0, order.length -1, points, true);
+    }
+    
+    /**
+     * The keys are the x coordinates of "points", the tie keys the y coordinates if "ties" is true.
+     */
+    private static void sortIndexesByKeys(int[] order, int lo, int hi, TSP_Instance points, boolean ties) {
+        while(hi - lo > 16) {
+            int pivot = order[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while(i <= j) {
+                while(comesBefore(order[i], pivot, points, ties)) {
+                    i++;
+                }
+                while(comesBefore(pivot, order[j], points, ties)) {
+                    j--;
+                }
+                if(i <= j) {
+                    int helpVar = order[i];
+                    order[i] = order[j];
+                    order[j] = helpVar;
+                    i++;
+                    j--;
+                }
+            }
+            if(j - lo < hi - i) { // recursion for the smaller part, the loop continues with the bigger one
+                sortIndexesByKeys(order, lo, j, points, ties);
+                lo = i;
+            }
+            else {
+                sortIndexesByKeys(order, i, hi, points, ties);
+                hi = j;
+            }
+        }
+        for(int i = lo + 1; i <= hi; i++) { // insertion sort for the short ranges
+            int helpVar = order[i];
+            int j = i - 1;
+            while(j >= lo && comesBefore(helpVar, order[j], points, ties)) {
+                order[j+1] = order[j];
+                j--;
+            }
+            order[j+1] = helpVar;
+        }
+    }
+    
+    private static boolean comesBefore(int a, int b, TSP_Instance points, boolean ties) {
+        double keyA = points.getX(a);
+        double keyB = points.getX(b);
+        if(keyA != keyB) {
+            return keyA < keyB;
+        }
+        return ties && points.getY(a) < points.getY(b);
+    }
+    
     /**
      * An idea: removing 3 edges, try reconnecting in every possible way.
      * Reconnecting possibly 7 different ways.
@@ -1745,9 +2394,10 @@ public class Sub_algorithms {
         // max = amount of vertices, then the best known distance, then the coordinates xy xy xy...
         System.out.println("LK at the start: " + coordinates.toString() + "\nOLD Euc. distance is " + eucDistOld);
         ArrayList coordinatesTry1 = new ArrayList<>();
+        double tryLength = 0.0; // the length of the path in coordinatesTry1, grows with every point 
         double wanted_distance_limit = 0; // or kind of gain control, turned out unnecessary so 0 is set 
-        DoubleStack x_coordinatesSt = new DoubleStack();
-        DoubleStack y_coordinatesSt = new DoubleStack();
+        DoubleStack x_coordinatesSt = DoubleStack.borrow(); // returned to the pool after the opt moves 
+        DoubleStack y_coordinatesSt = DoubleStack.borrow();
         
         for(int i = 0; i < coordinates.size(); i+=2) {
             x_coordinatesSt.push((double)coordinates.get(i));
@@ -1765,8 +2415,7 @@ public class Sub_algorithms {
                                 x_coordinatesSt.pop();
             double dyStartEnd = y_coordinatesSt.top(); 
                                 y_coordinatesSt.pop();
-            coordinatesTry1.add(dxStartEnd);
-            coordinatesTry1.add(dyStartEnd);
+            tryLength += addPoint(coordinatesTry1, dxStartEnd, dyStartEnd);
             
             boolean switc;// = false; // switch is an illegal variable name in Java 
             double d1; 
@@ -1778,7 +2427,6 @@ public class Sub_algorithms {
             while(!x_coordinatesSt.isEmpty() && !y_coordinatesSt.isEmpty()) {
                 // System.gc(); // if Java memory issues occur 
                 boolean done = false;
-                double eucdist = 0.0;
                 
                 d1 = x_coordinatesSt.top();     // 3 nodes/vertices
                      x_coordinatesSt.pop();
@@ -1818,22 +2466,16 @@ public class Sub_algorithms {
                         //           ", " +  d4 + ", " + d5 + ", " +  d6);
                     
                         if(d1 == dxStartEnd && d2 == dyStartEnd) {
-                            coordinatesTry1.add(d1);
-                            coordinatesTry1.add(d2);
+                            tryLength += addPoint(coordinatesTry1, d1, d2);
                         }
                         if(d3 == dxStartEnd && d4 == dyStartEnd) {
-                            coordinatesTry1.add(d1);
-                            coordinatesTry1.add(d2);
-                            coordinatesTry1.add(d3);
-                            coordinatesTry1.add(d4);
+                            tryLength += addPoint(coordinatesTry1, d1, d2);
+                            tryLength += addPoint(coordinatesTry1, d3, d4);
                         }
                         if(d5 == dxStartEnd && d6 == dyStartEnd) {
-                            coordinatesTry1.add(d1);
-                            coordinatesTry1.add(d2);
-                            coordinatesTry1.add(d3);
-                            coordinatesTry1.add(d4);
-                            coordinatesTry1.add(d5);
-                            coordinatesTry1.add(d6);
+                            tryLength += addPoint(coordinatesTry1, d1, d2);
+                            tryLength += addPoint(coordinatesTry1, d3, d4);
+                            tryLength += addPoint(coordinatesTry1, d5, d6);
                         }
                 }
                 
@@ -1851,36 +2493,28 @@ public class Sub_algorithms {
                             if(testingEucdist1 < testingEucdist2) {
                                 x_coordinatesSt.push(d5);
                                 y_coordinatesSt.push(d6);
-                                coordinatesTry1.add(d1);
-                                coordinatesTry1.add(d2);
-                                coordinatesTry1.add(d3);
-                                coordinatesTry1.add(d4);
+                                tryLength += addPoint(coordinatesTry1, d1, d2);
+                                tryLength += addPoint(coordinatesTry1, d3, d4);
                             }
                             else {
                                 x_coordinatesSt.push(d1);
                                 y_coordinatesSt.push(d2);
-                                coordinatesTry1.add(d3);
-                                coordinatesTry1.add(d4);
-                                coordinatesTry1.add(d5);
-                                coordinatesTry1.add(d6);
+                                tryLength += addPoint(coordinatesTry1, d3, d4);
+                                tryLength += addPoint(coordinatesTry1, d5, d6);
                             }
                         }
                         else {
                             if(testingEucdist1 < testingEucdist2) {
                                 x_coordinatesSt.push(d5);
                                 y_coordinatesSt.push(d6);
-                                coordinatesTry1.add(d3);
-                                coordinatesTry1.add(d4);
-                                coordinatesTry1.add(d1);
-                                coordinatesTry1.add(d2);
+                                tryLength += addPoint(coordinatesTry1, d3, d4);
+                                tryLength += addPoint(coordinatesTry1, d1, d2);
                             }
                             else {
                                 x_coordinatesSt.push(d1);
                                 y_coordinatesSt.push(d2);
-                                coordinatesTry1.add(d5);
-                                coordinatesTry1.add(d6);
-                                coordinatesTry1.add(d3);
-                                coordinatesTry1.add(d4);
+                                tryLength += addPoint(coordinatesTry1, d5, d6);
+                                tryLength += addPoint(coordinatesTry1, d3, d4);
                             }
                         }
                         if((wanted_distance_limit < (testingEucdist1 - testingEucdist2))) {
@@ -1914,24 +2548,15 @@ public class Sub_algorithms {
                          */
                     }
                     else {
-                        coordinatesTry1.add(d1);
-                        coordinatesTry1.add(d2);
-                        coordinatesTry1.add(d3);
-                        coordinatesTry1.add(d4);
-                        coordinatesTry1.add(d5);
-                        coordinatesTry1.add(d6);
+                        tryLength += addPoint(coordinatesTry1, d1, d2);
+                        tryLength += addPoint(coordinatesTry1, d3, d4);
+                        tryLength += addPoint(coordinatesTry1, d5, d6);
                         wanted_distance_limit /=1.5;
                     }
                 }
                 
                 if(done) {
-                    for(int j = 0; j < coordinatesTry1.size()-2; j+=2) {
-                        eucdist += Euclidean_distance((double)coordinatesTry1.get(j), 
-                                                      (double)coordinatesTry1.get(j+1), 
-                                                      (double)coordinatesTry1.get(j+2), 
-                                                      (double)coordinatesTry1.get(j+3));
-                        // be sure to add also the end node which is the same as start node
-                    }
+                    double eucdist = tryLength; // the end node (same as the start node) is added already 
                     
                     x_coordinatesSt.empty();
                     y_coordinatesSt.empty();
@@ -1954,6 +2579,8 @@ public class Sub_algorithms {
         }
         System.out.println("And now: " + coordinates + "\nIMPROVEMENTS YET?: " + improvement);
         
+        DoubleStack.giveBack(x_coordinatesSt);
+        DoubleStack.giveBack(y_coordinatesSt);
         double[][] edges = new double[max+1][2]; // value, isY? 
         for(int i = 0; i < max+1; i++) {
             edges[i][0] = Double.MAX_VALUE;
@@ -1971,16 +2598,21 @@ public class Sub_algorithms {
         coordinatesBest = new ArrayList<>(coordinates);
         ArrayList coordinatesTry = coordinates;
         double eucdBestNew = eucDistOld;
+        double eucd = 0.0; // the length of coordinatesTry, summed once here, then from twoOpt 
+        for(int j = 0; j < coordinatesTry.size(); j+=4) {
+            eucd += Euclidean_distance((double)coordinatesTry.get(j), 
+                                       (double)coordinatesTry.get(j+1), 
+                                       (double)coordinatesTry.get(j+2), 
+                                       (double)coordinatesTry.get(j+3));
+        }
+        double[] newLength = new double[1];
         
         for(int i = 0; i < 3000; i++) {    // can adjust how many times 
-            coordinatesTry = twoOpt(coordinatesTry, eucdBestNew);
-            double eucd = 0.0;
-            for(int j = 0; j < coordinatesTry.size(); j+=4) {
-                eucd += Euclidean_distance((double)coordinatesTry.get(j), 
-                                           (double)coordinatesTry.get(j+1), 
-                                           (double)coordinatesTry.get(j+2), 
-                                           (double)coordinatesTry.get(j+3));
+            ArrayList returned = twoOpt(coordinatesTry, eucdBestNew, newLength);
+            if(returned == coordinatesTry) { // improved, otherwise the unchanged copy came back 
+                eucd = newLength[0];
             }
+            coordinatesTry = returned;
             if((eucd <= eucdBestNew) && (eucdBestNew <= eucDistOld)) {
                 //System.out.println("---NEW BEST: " + eucd);
                 eucdBestNew = eucd;
@@ -2008,4 +2640,70 @@ public class Sub_algorithms {
         }
         return edges;
     }
+    
+    /**
+     * Adds the point (x, y) to the end of the path xy xy xy... and returns the length of the 
+     * new edge (0 for the first point), so the path length is kept without summing it again. 
+     */
+    private static double addPoint(ArrayList points, double x, double y) {
+        int size = points.size();
+        points.add(x);
+        points.add(y);
+        if(size < 2) {
+            return 0.0;
+        }
+        return Euclidean_distance((double)points.get(size-2), (double)points.get(size-1), x, y);
+    }
+    
+    /**
+     * Same as above, but with the candidate neighbour lists (Candidate_Sets) that are built for 
+     * the points of "coordinates" in their order (xy xy xy..., the start point again at the end 
+     * is not a vertex of its own). The tour is improved with the 2-opt and Or-opt moves that only 
+     * try the candidates (twoOptAndOrOpt) until no move improves it, so the time grows about 
+     * linearly and not with n² like the random 2-opt tries above. "candidates" can be null, 
+     * then the method above is used. 
+     * 
+     * @param max int
+     * @param eucDistOld double
+     * @param coordinates ArrayList
+     * @param candidates int[]
+     * @param k int
+     * @return double[][]
+     */
+    public static double[][] linKernighan(int max, double eucDistOld, ArrayList coordinates, int[] candidates, int k) {
+        int n = coordinates.size()/2;
+        if(n > 1 && coordinates.get(0).equals(coordinates.get(2*n-2)) && 
+                coordinates.get(1).equals(coordinates.get(2*n-1))) {
+            n--; // the start point at the end 
+        }
+        if(candidates == null || candidates.length != n*k || n > max) {
+            if(candidates != null) {
+                System.out.println("The candidate lists do not match the tour, using the basic Lin-Kernighan");
+            }
+            return linKernighan(max, eucDistOld, coordinates);
+        }
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int[] tour = new int[n];
+        for(int i = 0; i < n; i++) {
+            xs[i] = (double)coordinates.get(2*i);
+            ys[i] = (double)coordinates.get(2*i +1);
+            tour[i] = i;
+        }
+        double gain = twoOptAndOrOpt(xs, ys, tour, candidates, k);
+        System.out.println("LK with the candidate lists, gain " + gain + ", old distance: " + eucDistOld);
+        
+        double[][] edges = new double[max+1][2]; // value, isY? 
+        for(int i = 0; i < max+1; i++) {
+            edges[i][0] = Double.MAX_VALUE;
+            edges[i][1] = Double.MAX_VALUE;
+        }
+        for(int i = 0; i < n; i++) {
+            edges[i][0] = xs[tour[i]];
+            edges[i][1] = ys[tour[i]];
+        }
+        edges[n][0] = xs[tour[0]];
+        edges[n][1] = ys[tour[0]];
+        return edges;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,164 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 37 of 40 
+ * 
+ * The coordinates of a graph in primitive arrays for the newer algorithms (structure of arrays: 
+ * all Xs in one array, all Ys in another). The storage can be chosen per run: 
+ * 
+ * - Double_Instance keeps doubles, 16 bytes per vertex 
+ * - Float_Instance keeps floats, 8 bytes per vertex, about 7 significant digits, 
+ *   for the huge graphs where the memory is the limit 
+ * - OffHeap_Instance keeps doubles outside of the Java heap, 16 bytes per vertex, 
+ *   for the graphs of 10 million and more vertices, must be freed with "release" 
+ * 
+ * The ID of the vertex at index i is i+1 like in the tsplib files. 
+ * Tour lengths are always summed as doubles. 
+ * 
+ * Open source Java code, feel free to edit and try your own improvements. 
+ * Tested with Windows 11 
+ * Apache NetBeans 17 
+ * Java JRE 8u371 64bit 
+ * Java JDK 18.0.2 64bit 
+ * 
+ * @author Tuomas Hyvönen 
+ * @version 2.0 
+ */
+public abstract class TSP_Instance {
+    public static final int STORAGE_DOUBLE = 0;   // double[] xs, double[] ys 
+    public static final int STORAGE_FLOAT = 1;    // float[] xs, float[] ys 
+    public static final int STORAGE_OFF_HEAP = 2; // direct ByteBuffers, doubles 
+    
+    /**
+     * Creates an empty instance (all coordinates 0) with the wanted storage.
+     * 
+     * @param storage int, STORAGE_DOUBLE, STORAGE_FLOAT or STORAGE_OFF_HEAP 
+     * @param size int
+     * @return TSP_Instance
+     */
+    public static TSP_Instance allocate(int storage, int size) {
+        if(storage == STORAGE_FLOAT) {
+            return new Float_Instance(size);
+        }
+        if(storage == STORAGE_OFF_HEAP) {
+            return new OffHeap_Instance(size);
+        }
+        return new Double_Instance(size);
+    }
+    
+    /**
+     * The name of a storage for the messages.
+     * 
+     * @param storage int
+     * @return String
+     */
+    public static String storageName(int storage) {
+        if(storage == STORAGE_FLOAT) {
+            return "float";
+        }
+        if(storage == STORAGE_OFF_HEAP) {
+            return "off-heap double";
+        }
+        return "double";
+    }
+    
+    /**
+     * Returns the vertex count.
+     * 
+     * @return int
+     */
+    public abstract int size();
+    
+    /**
+     * Returns STORAGE_DOUBLE, STORAGE_FLOAT or STORAGE_OFF_HEAP.
+     * 
+     * @return int
+     */
+    public abstract int getStorage();
+    
+    /**
+     * Returns the x coordinate of the vertex at index i.
+     * 
+     * @param i int
+     * @return double
+     */
+    public abstract double getX(int i);
+    
+    /**
+     * Returns the y coordinate of the vertex at index i.
+     * 
+     * @param i int
+     * @return double
+     */
+    public abstract double getY(int i);
+    
+    /**
+     * Sets the coordinates of the vertex at index i (rounded if the storage is float).
+     * 
+     * @param i int
+     * @param x double
+     * @param y double
+     */
+    public abstract void setPoint(int i, double x, double y);
+    
+    /**
+     * The index of the vertex nearest to (qx, qy) among the first "count" vertices, 
+     * see Distance_Kernels.nearest. 
+     * 
+     * @param qx double
+     * @param qy double
+     * @param count int
+     * @param scratch double[]
+     * @return int
+     */
+    public abstract int nearest(double qx, double qy, int count, double[] scratch);
+    
+    /**
+     * The Euclidean distance between the vertices at indexes i and j.
+     * 
+     * @param i int
+     * @param j int
+     * @return double
+     */
+    public double distance(int i, int j) {
+        return Sub_algorithms.Euclidean_distance(getX(i), getY(i), getX(j), getY(j));
+    }
+    
+    /**
+     * The length of a closed tour (index order without the start at the end), summed as a double.
+     * 
+     * @param tour int[]
+     * @return double
+     */
+    public double tourLength(int[] tour) {
+        double length = 0;
+        int n = tour.length;
+        for(int i = 0; i < n; i++) {
+            length += distance(tour[i], tour[(i+1 == n) ? 0 : i+1]);
+        }
+        return length;
+    }
+    
+    /**
+     * The bytes used by the coordinate arrays (on the heap or off-heap).
+     * 
+     * @return long
+     */
+    public long getCoordinateBytes() {
+        return (long)size() * 2 * ((getStorage() == STORAGE_FLOAT) ? 4 : 8);
+    }
+    
+    /**
+     * Checks if 2 or more vertices have equal coordinates, O(n log n). 
+     * 
+     * @return boolean
+     */
+    public abstract boolean hasEqualPoints();
+    
+    /**
+     * Frees the memory of the coordinates now if the storage needs that (off-heap), 
+     * the heap storages are left to the garbage collector. Do not use the instance after this. 
+     */
+    public void release() {
+    }
+}
\ No newline at end of file
@@ -10,7 +10,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 10 of 11 
+ * TSP Solver by Tuomas Hyvönen, Java file 38 of 40 
  * The UI class has the version variable "final String VERSION = "v-29-4-2023";" 
  * 
  * 
@@ -25,10 +25,12 @@ import java.util.regex.Pattern;
  * F5 CHRI              Christofides heuristic, using minimum spanning tree and its odd degree node matching and Euler tour 
  * 
  * F6 LK-NNH-CHH-CHRI   F2 for a couple of times, F4 once, F5 once, choose the best and try to improve with a quick 2opt-Lin-Kernighan 
+ *                      (2-opt and Or-opt moves with the candidate neighbour lists of Candidate_Sets) 
  * 
  * F7 SOM-CH-NN         Calculate the convex hull so its nodes (or edge centroids) can be the input nodes and clusters, then 
  *                      the inner nodes are movable neurons that perform the Kohonen Self-Organizing Map algorithm, finally 
  *                      each cluster performs the NNH which chains everything and creates the Hamiltonian circuit 
+ *                      (the clusters of at most 12 nodes are then ordered optimally, Exact_DP) 
  * 
  * F8 SOM-CH-NN-EVO     Same as F7 but with a bit more clusters and evolution is used, the population consists of 
  *                      chromosomes (multiple F7 results), the movable neurons also have logic stacks that tell what to do 
@@ -36,6 +38,50 @@ import java.util.regex.Pattern;
  * 
  * F9 LK-SOM-CH-NN-EVO  Same as F8 but the F6's quick Lin-Kernighan is used in the end once 
  * 
+ * Shift+F8 MA-SOM-CH-NN-EVO  Memetic F8, every child is improved with neighbour list 2-opt and Or-opt 
+ * 
+ * Shift+F7 RING-SOM   The classic elastic ring SOM, the tour is the order of the cities along the neuron ring 
+ * 
+ * Shift+F6 KARP       Million-node graphs: median cuts into cells of 2000 nodes, every cell is solved in parallel 
+ *                     (NNH, 2-opt, Or-opt), the cell tours are joined across the cuts and the seams improved 
+ * 
+ * Shift+F5 MULTILEVEL Million-node graphs: the mutual nearest neighbours are merged level by level, the coarsest 
+ *                     tour (about 1000 nodes) is solved with the quick LK and every finer level refined with 2-opt 
+ * 
+ * Ctrl+F8 SA          Simulated annealing from the greedy edge tour: 2-opt, Or-opt and node swap moves to the 
+ *                     candidate neighbours with O(1) length changes, geometric cooling 
+ * 
+ * Ctrl+F9 GLS         Guided local search: the 2-opt local optima of the greedy edge tour are escaped by penalizing 
+ *                     their longest edges, runs for 10 seconds. Reads also the edge weight types CEIL_2D, ATT, 
+ *                     GEO, MAN_2D and EXPLICIT (Edge_Weights, Explicit_Matrix) 
+ * 
+ * Shift+F2 HILBERT    The vertices in their order along the Hilbert space-filling curve, linear time (radix sort) 
+ * 
+ * Shift+F3 GREEDY     Greedy edge (multi-fragment): the shortest nearest neighbour edges first while no vertex gets 
+ *                     degree 3 and no cycle closes too early (union-find), then the fragments are chained 
+ * 
+ * Shift+F4 SAVINGS    Clarke-Wright savings from the hub nearest to the centroid, the candidate edge savings in a heap 
+ * 
+ * Shift+F9 ONION      The convex hull layers (onion peeling) from the outside in, the inner layer vertices inserted 
+ *                     cheapest first to the tour edges next to their nearest neighbours, then 2-opt and Or-opt 
+ * 
+ * Options / Float32 coordinates: the algorithms that read a TSP_Instance (RING-SOM, Karp, Multilevel, Hilbert, 
+ * Greedy, Savings, Onion, SA, GLS) keep the coordinates as floats, the window re-optimization and the gap 
+ * report after them read doubles 
+ * Options / Off-heap coordinates: the same algorithms keep them as doubles outside of the Java heap, for 10M+ vertices 
+ * Options / Alpha-nearness candidates: the Lin-Kernighan of F6 and F9 uses the 5 alpha-nearest (One_Tree) 
+ * Options / Gap threshold: the evolution (F8, F9, Shift+F8) stops when the best tour is this close (%) 
+ * to the Held-Karp lower bound. Every result ends with the lower bound and the gap, computed in the 
+ * background after the result is shown (up to 20 000 vertices, the bound is an O(n²) 1-tree). 
+ * Options / Hilbert seed for LK: F6 improves the Hilbert curve tour instead of the best of NNH, CHH and CHRI 
+ * Options / Parallel tempering: Ctrl+F8 runs one temperature replica per processor core and swaps their tours 
+ * Options / Two-level list tours, Splay tree tours: the tour of the 2-opt and Or-opt of the graphs 
+ * of 50 000 and more vertices, neither = the splay tree from 2 000 000 vertices on (Tour_List) 
+ * Options / Window re-optimization: after any algorithm every 10 consecutive tour vertices are 
+ * re-solved exactly with the end vertices fixed (Exact_DP.optimizeWindows) 
+ * Options / Stored distances: Ctrl+F9 keeps the distances in a matrix (up to 20 000 vertices) or 
+ * in a cache of the pairs instead of computing them again (Distance_Oracle) 
+ * 
  * 
  * Great TSP test data available at the Waterloo University website: 
  * https://www.math.uwaterloo.ca/tsp/data/index.html 
@@ -57,7 +103,8 @@ public class TSP_Solver_UEF_241908 {
     private final static String ERRORMSG = " The tsplib graph input has errors. "
         + "Check at least that:\n"
         + " 1) There are at least 4 vertices (also known as nodes, points).\n"
-        + " 2) The edge weight type is EUC_2D.\n"
+        + " 2) The edge weight type is EUC_2D"
+        + " (Ctrl+F9 GLS reads also CEIL_2D, ATT, GEO, MAN_2D and EXPLICIT).\n"
         + " 3) There are not 2 (or more) vertices with equal coordinates.\n"
         + " 4) All x & y coordinates are less than 5 000 000"
         + " but not less than 0 and that the E notation will not be needed.\n"
@@ -70,6 +117,31 @@ public class TSP_Solver_UEF_241908 {
         + "Extra space marks might cause errors and the maximum row count is 500 000."
         + "\n\n The algorithm run did not start.";
     
+    // How the newer algorithms (the ones that use "readInstance") store the coordinates, 
+    // TSP_Instance.STORAGE_DOUBLE, STORAGE_FLOAT or STORAGE_OFF_HEAP, the user can change this from the Options menu 
+    private static int coordinateStorage = TSP_Instance.STORAGE_DOUBLE;
+    
+    // The candidate lists of the quick Lin-Kernighan: false = the quadrant balanced nearest 
+    // neighbours, true = the alpha-nearness of the 1-tree (slower to build, shorter lists) 
+    private static boolean alphaCandidates = false;
+    private static final int ALPHA_ITERATIONS = 300; // the subgradient optimization 1-trees 
+    
+    // The Held-Karp lower bound for the gap reports, the latest one is cached 
+    private static final int LOWER_BOUND_MAX_VERTICES = One_Tree.COMPLETE_GRAPH_SIZE; // the O(n²) 1-tree after this 
+    private static final int LOWER_BOUND_ITERATIONS = 3000; // the Polyak subgradient 1-trees 
+    private static double gapThreshold = 0;          // %, 0 = the evolution runs all its generations 
+    private static long lowerBoundFingerprint = 0;
+    private static double cachedLowerBound = 0;
+    
+    // The exact sliding window pass after every algorithm, the user can change this from the Options menu 
+    private static boolean windowOptimization = false;
+    
+    // The Lin-Kernighan of F6 starts from the Hilbert curve tour instead of the best of NNH, CHH and CHRI 
+    private static boolean hilbertSeed = false;
+    
+    // The simulated annealing runs as parallel tempering, one temperature replica per processor core 
+    private static boolean parallelTempering = false;
+    
     /**
      * The main method that begins with setting up the User Interface.
      * 
@@ -82,6 +154,245 @@ public class TSP_Solver_UEF_241908 {
         );
     }
     
+    /**
+     * Sets the coordinate storage of the next runs, TSP_Instance.STORAGE_DOUBLE, STORAGE_FLOAT 
+     * or STORAGE_OFF_HEAP. 
+     * 
+     * @param storage int
+     */
+    public static void setCoordinateStorage(int storage) {
+        coordinateStorage = storage;
+        System.out.println("Coordinate storage: " + TSP_Instance.storageName(storage));
+    }
+    
+    /**
+     * Sets the candidate lists of the quick Lin-Kernighan for the next runs, 
+     * true for the alpha-nearness lists, false for the nearest neighbours. 
+     * 
+     * @param alpha boolean
+     */
+    public static void setAlphaCandidates(boolean alpha) {
+        alphaCandidates = alpha;
+        System.out.println("Lin-Kernighan candidates: " + (alpha ? "alpha-nearness" : "quadrant nearest neighbours"));
+    }
+    
+    /**
+     * Sets the start tour of the F6 Lin-Kernighan for the next runs, true for the Hilbert 
+     * curve tour, false for the best of NNH, CHH and CHRI. 
+     * 
+     * @param hilbert boolean
+     */
+    public static void setHilbertSeed(boolean hilbert) {
+        hilbertSeed = hilbert;
+        System.out.println("Lin-Kernighan seed: " + (hilbert ? "Hilbert curve" : "the best of NNH, CHH and CHRI"));
+    }
+    
+    /**
+     * Sets the tour list of the big graph local search for the next runs, 
+     * Tour_List.LIST_AUTOMATIC, LIST_TWO_LEVEL or LIST_SPLAY. 
+     * 
+     * @param kind int
+     */
+    public static void setTourList(int kind) {
+        Tour_List.setKind(kind);
+        System.out.println("Tour list: " + Tour_List.kindName(kind));
+    }
+    
+    /**
+     * Sets the distances of the guided local search for the next runs, true for the stored 
+     * ones (matrix or cache), false for computing them every time. 
+     * 
+     * @param stored boolean
+     */
+    public static void setStoredDistances(boolean stored) {
+        Distance_Oracle.setStored(stored);
+        System.out.println("GLS distances: " + (stored ? "stored" : "computed"));
+    }
+    
+    /**
+     * Sets the simulated annealing mode of the next runs, true for the parallel tempering 
+     * replicas, false for one annealing run. 
+     * 
+     * @param on boolean
+     */
+    public static void setParallelTempering(boolean on) {
+        parallelTempering = on;
+        System.out.println("Simulated annealing: " + (on ? "parallel tempering" : "one replica"));
+    }
+    
+    /**
+     * Sets the gap threshold (%) of the next runs: the evolution stops when the best tour 
+     * is at most this much longer than the Held-Karp lower bound, 0 turns it off. 
+     * 
+     * @param percent double
+     */
+    public static void setGapThreshold(double percent) {
+        gapThreshold = Math.max(0, percent);
+        System.out.println("Gap threshold: " + (gapThreshold > 0 ? gapThreshold + " %" : "off"));
+    }
+    
+    /**
+     * Returns the gap threshold (%), 0 if it is off. 
+     * 
+     * @return double
+     */
+    public static double getGapThreshold() {
+        return gapThreshold;
+    }
+    
+    /**
+     * The Held-Karp lower bound (One_Tree) of the points, 0 if there are too many or too few of them. 
+     * The same points again (for example the gap report after the run) get the cached bound. 
+     * 
+     * @param xs double[]
+     * @param ys double[]
+     * @return double
+     */
+    public static synchronized double lowerBound(double[] xs, double[] ys) {
+        int n = xs.length;
+        if(n < 3 || n > LOWER_BOUND_MAX_VERTICES) {
+            return 0;
+        }
+        long fingerprint = n;
+        for(int i = 0; i < n; i++) {
+            fingerprint = fingerprint*31 + Double.doubleToLongBits(xs[i]);
+            fingerprint = fingerprint*31 + Double.doubleToLongBits(ys[i]);
+        }
+        if(fingerprint != lowerBoundFingerprint || cachedLowerBound == 0) {
+            cachedLowerBound = One_Tree.heldKarpBound(xs, ys, LOWER_BOUND_ITERATIONS);
+            lowerBoundFingerprint = fingerprint;
+        }
+        return cachedLowerBound;
+    }
+    
+    /**
+     * The gap (%) of the tour length from the lower bound, -1 if there is no bound. 
+     * 
+     * @param tourLength double
+     * @param lowerBound double
+     * @return double
+     */
+    public static double gapPercent(double tourLength, double lowerBound) {
+        if(lowerBound <= 0) {
+            return -1;
+        }
+        return (tourLength - lowerBound) / lowerBound * 100;
+    }
+    
+    /**
+     * Sets the sliding window re-optimization after the algorithms on or off for the next runs. 
+     * 
+     * @param on boolean
+     */
+    public static void setWindowOptimization(boolean on) {
+        windowOptimization = on;
+        System.out.println("Window re-optimization: " + (on ? "on, " + Exact_DP.DEFAULT_WINDOW + " vertices" : "off"));
+    }
+    
+    /**
+     * The final result text of an algorithm for the user: the window re-optimization if it is on. 
+     * The lower bound and the gap rows ("gapRows") take seconds for the big graphs, the user 
+     * interface adds them in the background. 
+     * 
+     * @param result String
+     * @param input String
+     * @return String
+     */
+    public static String finishResult(String result, String input) {
+        if(windowOptimization) {
+            result = withWindowOptimization(result, input);
+        }
+        return result;
+    }
+    
+    /**
+     * Re-solves the tour of an algorithm result exactly in windows of Exact_DP.DEFAULT_WINDOW 
+     * consecutive vertices, the improved tour replaces the solution and the tour length rows. 
+     * The vertex numbers must be 1...n in the input order, otherwise the result is returned as it is. 
+     * 
+     * @param result String
+     * @param input String
+     * @return String
+     */
+    public static String withWindowOptimization(String result, String input) {
+        int index = (result == null) ? -1 : result.lastIndexOf("Solution: \n");
+        if(index < 0) {
+            return result;
+        }
+        TSP_Instance instance = readInstance(input, TSP_Instance.STORAGE_DOUBLE);
+        if(instance == null) {
+            return result;
+        }
+        int n = instance.size();
+        String[] rows = result.substring(index).split("\n");
+        if(rows.length < 3 || !rows[2].startsWith("Tour length: ")) {
+            return result;
+        }
+        String[] vertices = rows[1].trim().split("-");
+        if(vertices.length != n + 1) {
+            return result;
+        }
+        int[] tour = new int[n];
+        try {
+            for(int i = 0; i < n; i++) {
+                tour[i] = Integer.parseInt(vertices[i]) - 1;
+                if(tour[i] < 0 || tour[i] >= n) {
+                    return result;
+                }
+            }
+            double oldLength = Double.parseDouble(rows[2].substring(13).trim());
+            if(!checkHamiltonian(tour, n) || Math.abs(instance.tourLength(tour) - oldLength) > 1e-6 * oldLength) {
+                System.out.println("Window re-optimization skipped, the vertex numbers are not 1...n in the input order");
+                return result;
+            }
+        }
+        catch(NumberFormatException e) {
+            return result;
+        }
+        Double_Instance coordinates = (Double_Instance)instance;
+        double gain = Exact_DP.optimizeWindows(coordinates.getXs(), coordinates.getYs(), tour, Exact_DP.DEFAULT_WINDOW);
+        StringBuilder finished = new StringBuilder(result.substring(0, index)).append(solutionText(tour, instance));
+        for(int i = 3; i < rows.length; i++) {
+            finished.append('\n').append(rows[i]);
+        }
+        return finished.append("\nWindow re-optimization (").append(Exact_DP.DEFAULT_WINDOW)
+                .append(" vertices, exact): ").append(gain).append(" shorter").toString();
+    }
+    
+    /**
+     * The lower bound and the gap rows for the end of an algorithm result, the coordinates are 
+     * read again from the input. Empty if the result has no tour length or the input is not 
+     * correct. Safe to call from a background thread (the bound is cached, "lowerBound"). 
+     * 
+     * @param result String
+     * @param input String
+     * @return String
+     */
+    public static String gapRows(String result, String input) {
+        int index = (result == null) ? -1 : result.lastIndexOf("Tour length: ");
+        if(index < 0) {
+            return "";
+        }
+        int end = result.indexOf('\n', index);
+        double tourLength;
+        try {
+            tourLength = Double.parseDouble(result.substring(index + 13, (end < 0) ? result.length() : end).trim());
+        }
+        catch(NumberFormatException e) {
+            return "";
+        }
+        TSP_Instance instance = readInstance(input, TSP_Instance.STORAGE_DOUBLE);
+        if(instance == null) {
+            return "";
+        }
+        double bound = lowerBound(((Double_Instance)instance).getXs(), ((Double_Instance)instance).getYs());
+        if(bound <= 0) {
+            return "\nLower bound (Held-Karp): not computed for " + instance.size() + " vertices";
+        }
+        return "\nLower bound (Held-Karp): " + bound + 
+                "\nGap: " + String.format("%.3f", gapPercent(tourLength, bound)) + " %";
+    }
+    
     /**
      * This method checks that the input does have some correct numbers.
      * 
@@ -181,6 +492,186 @@ public class TSP_Solver_UEF_241908 {
         return hamiltonian;
     }
     
+    /**
+     * Reads the EUC_2D coordinates of a tsplib graph to primitive arrays for the newer 
+     * algorithms: [0] has the x coordinates and [1] the y coordinates, the ID of the vertex 
+     * at index i is i+1. The input is checked like in the algorithms below (see ERRORMSG), 
+     * but the equal coordinates are found by sorting, O(n log n) instead of O(n²), and 
+     * there is no row limit. Returns null if the input has errors. 
+     * 
+     * @param input String
+     * @return double[][]
+     */
+    public static double[][] readCoordinates(String input) {
+        Double_Instance instance = (Double_Instance) readInstance(input, TSP_Instance.STORAGE_DOUBLE);
+        if(instance == null) {
+            return null;
+        }
+        return new double[][] {instance.getXs(), instance.getYs()};
+    }
+    
+    /**
+     * Same as "readCoordinates" but the result is a TSP_Instance with the wanted storage 
+     * (TSP_Instance.STORAGE_DOUBLE, STORAGE_FLOAT or STORAGE_OFF_HEAP). The input is read twice: 
+     * first the vertices are counted, then the exact sized arrays are filled, so a huge graph does 
+     * not need any extra arrays while reading. Returns null if the input has errors. 
+     * The caller releases the instance (TSP_Instance.release) when the run is over. 
+     * 
+     * @param input String
+     * @param storage int
+     * @return TSP_Instance
+     */
+    public static TSP_Instance readInstance(String input, int storage) {
+        return readInstance(input, storage, false);
+    }
+    
+    /**
+     * Same as above, "anyWeightType" true reads the coordinates of the other edge weight types 
+     * too (CEIL_2D, ATT, GEO, MAN_2D, see Edge_Weights), then the coordinates can be negative. 
+     */
+    private static TSP_Instance readInstance(String input, int storage, boolean anyWeightType) {
+        int max = 0;
+        boolean EUC_2D = false;
+        String str;
+        BufferedReader reader = new BufferedReader(new StringReader(input));
+        try {
+            while ((str = reader.readLine()) != null) { // 1st round: counting 
+                if (str.length() > 0) {
+                    if(str.charAt(0) >= '0' && str.charAt(0) <= '9') {
+                        max++;
+                    }
+                    else if(str.contains("EUC_2D")) {
+                        EUC_2D = true;
+                    }
+                }
+            }
+        } 
+        catch(IOException e) {
+            System.err.println(e);
+            return null;
+        }
+        if(!(EUC_2D || anyWeightType) || max < 4) {
+            return null;
+        }
+        
+        TSP_Instance instance = TSP_Instance.allocate(storage, max);
+        boolean inputOk = true;
+        int i = 0;
+        reader = new BufferedReader(new StringReader(input));
+        try {
+            while ((str = reader.readLine()) != null) { // 2nd round: the coordinates 
+                if (str.length() > 0 && str.charAt(0) >= '0' && str.charAt(0) <= '9') {
+                    String[] numbers = str.replace(',', '.').trim().split(" ");
+                    if(numbers.length != 3) {
+                        System.out.println("not 3 numbers on the row: " + str);
+                        inputOk = false;
+                        continue;
+                    }
+                    try {
+                        for(int j = 1; j < 3; j++) {
+                            if(numbers[j].contains("E") || numbers[j].contains("e")) {
+                                System.out.println("ridiculous coordinate value found, probably E notation (exponents)");
+                                inputOk = false;
+                            }
+                            double coordinate = Double.parseDouble(numbers[j]);
+                            if(coordinate >= 5000000 || coordinate < (anyWeightType ? -5000000 : 0)) {
+                                System.out.println("5 000 000 or more or less than 0 found");
+                                inputOk = false;
+                            }
+                        }
+                        instance.setPoint(i, Double.parseDouble(numbers[1]), Double.parseDouble(numbers[2]));
+                    }
+                    catch (java.lang.NumberFormatException nfe) {
+                        System.err.println(nfe);
+                        inputOk = false;
+                    }
+                    i++;
+                }
+            }
+        } 
+        catch(IOException e) {
+            System.err.println(e);
+            instance.release();
+            return null;
+        }
+        if(!inputOk || instance.hasEqualPoints()) {
+            instance.release();
+            return null;
+        }
+        return instance;
+    }
+    
+    /**
+     * Same as "checkHamiltonian" above but for a tour that is an array of indexes (ID - 1) 
+     * without the start node at the end, O(n). 
+     * 
+     * @param tour int[]
+     * @param wantedVerticecount int
+     * @return boolean
+     */
+    public static boolean checkHamiltonian(int[] tour, int wantedVerticecount) {
+        if(tour == null || tour.length != wantedVerticecount) {
+            System.out.println("Wrong length");
+            return false;
+        }
+        boolean[] booltable = new boolean[wantedVerticecount];
+        for(int i = 0; i < tour.length; i++) {
+            if(tour[i] < 0 || tour[i] >= wantedVerticecount || booltable[tour[i]]) {
+                System.out.println("It seems like at least 1 node (vertex, point) is missing," 
+                        + " not a Hamiltonian circuit");
+                return false;
+            }
+            booltable[tour[i]] = true;
+        }
+        return true;
+    }
+    
+    /**
+     * The result text of the newer algorithms that have the tour as an index array: 
+     * "Solution: \n1-2-3-...-1\nTour length: X". Checks the Hamiltonian circuit and prints 
+     * the time since "startTime" like the other algorithms. 
+     * 
+     * @param tour int[]
+     * @param xs double[]
+     * @param ys double[]
+     * @param startTime long, System.nanoTime() 
+     * @return String
+     */
+    public static String tourToSolution(int[] tour, double[] xs, double[] ys, long startTime) {
+        return tourToSolution(tour, new Double_Instance(xs, ys), startTime);
+    }
+    
+    /**
+     * Same as above for a TSP_Instance (any coordinate storage). 
+     * 
+     * @param tour int[]
+     * @param instance TSP_Instance
+     * @param startTime long, System.nanoTime() 
+     * @return String
+     */
+    public static String tourToSolution(int[] tour, TSP_Instance instance, long startTime) {
+        if(!checkHamiltonian(tour, instance.size())) {
+            return "Bug! The calculated tour is not a Hamiltonian circuit!\n";
+        }
+        long endTime = System.nanoTime();
+        System.out.println("Time (millisec): " + (endTime - startTime)/1000000);
+        System.out.println("Time (sec, rounded down): " + (endTime - startTime)/1000000000 + "\n");
+        return solutionText(tour, instance);
+    }
+    
+    /**
+     * "Solution: \n1-2-3-...-1\nTour length: X" of a tour. 
+     */
+    private static String solutionText(int[] tour, TSP_Instance instance) {
+        double tour_length = instance.tourLength(tour);
+        StringBuilder solution = new StringBuilder("Solution: \n");
+        for(int i = 0; i < tour.length; i++) {
+            solution.append(tour[i] + 1).append('-');
+        }
+        solution.append(tour[0] + 1).append("\nTour length: ").append(tour_length);
+        return solution.toString();
+    }
+    
     /**
      * The Nearest Neighbo(u)r Heuristic - the simplest algorithm.
      * 
@@ -295,55 +786,48 @@ public class TSP_Solver_UEF_241908 {
             
             Random rand = new Random();
             int random = rand.nextInt((max - min) + 1) + min;
-            boolean[] booltable = new boolean[max];
-            boolean booltable_has_false = true;
-            solution = new StringBuilder(solution).append(
-                    String.valueOf(random)).toString();
-            int pointer = 0; 
-            int pointer_start = random -1;
-            double X1 = 0.0;
-            double Y1 = 0.0;
-            while(booltable_has_false) { 
-                booltable[random - 1] = true;
-                double min_distance = Double.MAX_VALUE;
-                double temp_distance;
-                double x1 = (double) coordinates_x.get(pointer_start);
-                double y1 = (double) coordinates_y.get(pointer_start);
-                X1 = (double) coordinates_x.get(random - 1); 
-                Y1 = (double) coordinates_y.get(random - 1); 
-                for(int j = 0; j < booltable.length; j++) {
-                    if(booltable[j] == false) {
-                        double x2 = (double) coordinates_x.get(j);
-                        double y2 = (double) coordinates_y.get(j);
-                        temp_distance = Sub_algorithms.
-                                Euclidean_distance_squared(x1, y1, x2, y2);
-                        if(temp_distance < min_distance) {
-                            min_distance = temp_distance;
-                            pointer = j;
-                        }
+            StringBuilder tour = new StringBuilder(String.valueOf(random));
+            
+            // the unvisited vertices are kept at the start of the primitive arrays (compacted): 
+            // a visited vertex is swapped to the end, so the scan reads only the unvisited ones 
+            double[] xs = new double[max];
+            double[] ys = new double[max];
+            int[] ids = new int[max];
+            double[] distances = new double[max];
+            for(int j = 0; j < max; j++) {
+                xs[j] = (double) coordinates_x.get(j);
+                ys[j] = (double) coordinates_y.get(j);
+                ids[j] = j;
+            }
+            double X1 = xs[random - 1];
+            double Y1 = ys[random - 1];
+            int unvisited = max;
+            swapToTheEnd(xs, ys, ids, random - 1, --unvisited);
+            double x1 = X1;
+            double y1 = Y1;
+            while(unvisited > 0) { 
+                Distance_Kernels.squaredDistances(xs, ys, unvisited, x1, y1, distances);
+                int nearest = 0;
+                double min_distance = distances[0];
+                for(int j = 1; j < unvisited; j++) { // equal distances: the smallest ID like before 
+                    if(distances[j] < min_distance || 
+                            (distances[j] == min_distance && ids[j] < ids[nearest])) {
+                        min_distance = distances[j];
+                        nearest = j;
                     }
                 }
                 // new vertice to the result:
-                booltable[pointer] = true;
-                solution = new StringBuilder(solution).append("-").toString();
-                solution = new StringBuilder(solution).append(pointer + 1).toString();  
+                tour.append('-').append(ids[nearest] + 1);
                 tour_length += Math.sqrt(min_distance);
-
-                booltable_has_false = false;
-                for(int j = 0; j < booltable.length; j++) {
-                    if(booltable[j] == false) {
-                        booltable_has_false = true;
-                    }
-                }
-                pointer_start = pointer;
+                x1 = xs[nearest];
+                y1 = ys[nearest];
+                swapToTheEnd(xs, ys, ids, nearest, --unvisited);
             }
             
             // link back to the start node:
-            solution = new StringBuilder(solution).append("-").toString();
-            solution = new StringBuilder(solution).append(random).toString();
-            tour_length += Sub_algorithms.Euclidean_distance(
-                    (double) coordinates_x.get(pointer), 
-                    (double) coordinates_y.get(pointer), X1, Y1);
+            tour.append('-').append(random);
+            tour_length += Sub_algorithms.Euclidean_distance(x1, y1, X1, Y1);
+            solution = tour.toString();
             String justSolutionOnly = solution;
             solution = new StringBuilder(solution).append("\nTour length: ").
                     toString();
@@ -366,6 +850,117 @@ public class TSP_Solver_UEF_241908 {
         }
     } // This NNH code is almost exactly the same as in "TSPsolver_v14-3-2017" 
     
+    /**
+     * Swaps the vertex at index i with the vertex at index last in the parallel arrays 
+     * (the NNH keeps its visited vertices at the end). 
+     */
+    private static void swapToTheEnd(double[] xs, double[] ys, int[] ids, int i, int last) {
+        double helpVar = xs[i];
+        xs[i] = xs[last];
+        xs[last] = helpVar;
+        helpVar = ys[i];
+        ys[i] = ys[last];
+        ys[last] = helpVar;
+        int helpVar2 = ids[i];
+        ids[i] = ids[last];
+        ids[last] = helpVar2;
+    }
+    
+    /**
+     * The Hilbert curve tour (Hilbert_Curve): the vertices in the order of their cells along 
+     * the space-filling curve. Linear time, a valid tour for millions of vertices in a moment. 
+     * 
+     * @param input String
+     * @return String
+     */
+    public static String Hilbert_Algorithm(String input) {
+        TSP_Instance instance = readInstance(input, coordinateStorage);
+        if(instance == null) {
+            return ERRORMSG;
+        }
+        long startTime = System.nanoTime();
+        try {
+            int[] tour = Hilbert_Curve.tour(instance);
+            return tourToSolution(tour, instance, startTime);
+        }
+        finally {
+            instance.release();
+        }
+    }
+    
+    /**
+     * The greedy edge (multi-fragment) tour (Greedy_Edge): the shortest edges of the nearest 
+     * neighbour graph first, union-find against the early cycles, the fragments are chained 
+     * in the end. Usually a better start tour than the NNH for the 2-opt and Lin-Kernighan. 
+     * 
+     * @param input String
+     * @return String
+     */
+    public static String Greedy_Algorithm(String input) {
+        TSP_Instance instance = readInstance(input, coordinateStorage);
+        if(instance == null) {
+            return ERRORMSG;
+        }
+        System.gc(); // run garbage collector before starting 
+        long startTime = System.nanoTime();
+        try {
+            int[] tour = Greedy_Edge.tour(instance);
+            return tourToSolution(tour, instance, startTime);
+        }
+        finally {
+            instance.release();
+        }
+    }
+    
+    /**
+     * The Clarke-Wright savings tour (Clarke_Wright): the routes from the hub (the vertex nearest 
+     * to the centroid) are joined biggest saving first, only the candidate edges are tried. 
+     * For the clustered graphs where NNH and CHH are poor. 
+     * 
+     * @param input String
+     * @return String
+     */
+    public static String Savings_Algorithm(String input) {
+        TSP_Instance instance = readInstance(input, coordinateStorage);
+        if(instance == null) {
+            return ERRORMSG;
+        }
+        System.gc(); // run garbage collector before starting 
+        long startTime = System.nanoTime();
+        try {
+            int[] tour = Clarke_Wright.tour(instance);
+            return tourToSolution(tour, instance, startTime);
+        }
+        finally {
+            instance.release();
+        }
+    }
+    
+    /**
+     * The onion peeling tour (Onion_Layers): the outermost convex hull layer is the start tour, 
+     * the vertices of the inner layers are inserted layer by layer, the cheapest insertion of the 
+     * layer first (the tour edges next to the 10 nearest neighbours), then 2-opt and Or-opt repair 
+     * the tour. A faster relative of the CHH. 
+     * 
+     * @param input String
+     * @return String
+     */
+    public static String Onion_Algorithm(String input) {
+        TSP_Instance instance = readInstance(input, coordinateStorage);
+        if(instance == null) {
+            return ERRORMSG;
+        }
+        System.gc(); // run garbage collector before starting 
+        long startTime = System.nanoTime();
+        try {
+            int[] tour = Onion_Layers.tour(instance);
+            return tourToSolution(tour, instance, startTime);
+        }
+        finally {
+            instance.release();
+        }
+    }
+    
     /**
      * The 2-MST algorithm. Double the MST's edges, then make the Euler tour. 
      * There does exist a proof that says the accuracy is at most 2 times the optimum. 
@@ -1615,7 +2210,11 @@ public class TSP_Solver_UEF_241908 {
                 //        "\nAND TOTAL AMOUNT OF NODES IS " + max + "\n");
 
                 // add the matching edges: 
-                ArrayList matchedConnections = Sub_algorithms.Matching(coordinates_x_match, coordinates_y_match); 
+                int matchK = Candidate_Sets.lengthFor(Candidate_Sets.DEFAULT_K, coordinates_x_match.size());
+                int[] matchCandidates = (coordinates_x_match.size() > 150) ? 
+                        Candidate_Sets.build(coordinates_x_match, coordinates_y_match, matchK, false) : null;
+                ArrayList matchedConnections = Sub_algorithms.Matching(coordinates_x_match, coordinates_y_match, 
+                        matchCandidates, matchK); 
 
                 //System.out.println("matchedConnections.size() is " + matchedConnections.size());
                 System.out.println("Matching done");
@@ -2234,9 +2833,11 @@ public class TSP_Solver_UEF_241908 {
             //solution = new StringBuilder(solution).append(String.valueOf(start)).toString();
             double[] solutionArray = new double[(max +1)*2];
             int solutionArrayInsertIndex = 0;
+            int[] solutionGroups = new int[max +1]; // the cluster of every solution point 
             for(int j = 0; j < max +1; j++) {
                         solutionArray[j] = Double.MAX_VALUE;
             }
+            solutionGroups[0] = (int)nnh_purpose_coordinates_clust.get(pointer_start);
             solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_x.get(pointer_start);
             solutionArrayInsertIndex++;
             solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_y.get(pointer_start);
@@ -2277,6 +2878,7 @@ public class TSP_Solver_UEF_241908 {
                         // && (clusterInTurnNow == (int)nnh_purpose_coordinates_clust.get(pointer)) 
                 ) {
                     booltable[pointer] = true;
+                    solutionGroups[solutionArrayInsertIndex/2] = (int)nnh_purpose_coordinates_clust.get(pointer);
                     //solution = new StringBuilder(solution).append("-").toString();
                     //solution = new StringBuilder(solution).append(pointer + 1).toString();
                     solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_x.get(pointer);
@@ -2322,6 +2924,9 @@ public class TSP_Solver_UEF_241908 {
                     //verticeadded = false;
                 }
             }
+            // the clusters in their optimal orders between the neighbouring clusters (the small ones): 
+            Exact_DP.reorderGroupRuns(solutionArray, solutionArrayInsertIndex/2, solutionGroups, Exact_DP.FAST_FREE);
+            
             // link back to the start node:
             solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_x.get(start-1);
             solutionArrayInsertIndex++;
@@ -2528,10 +3133,18 @@ public class TSP_Solver_UEF_241908 {
             //double bestTourLength = Double.MAX_VALUE;
             //String bestTour = "";
             
-            result1 = NearestNeighbour_Algorithm(text); //    call NNH   (1) 
-            result2 = ConvexHull_Algorithm(text);       //    call CHH   (2) 
-            result3 = Christofides_Algorithm(text);     //    call CHRI  (3) 
-            resultE = NearestNeighbour_Algorithm(text); //    call NNH again just for a nice extra, could be edited to call 2MST 
+            if(hilbertSeed) { // the same Hilbert curve tour 4 times, the NNH slot (1) is chosen 
+                result1 = Hilbert_Algorithm(text);
+                result2 = result1;
+                result3 = result1;
+                resultE = result1;
+            }
+            else {
+                result1 = NearestNeighbour_Algorithm(text); //    call NNH   (1) 
+                result2 = ConvexHull_Algorithm(text);       //    call CHH   (2) 
+                result3 = Christofides_Algorithm(text);     //    call CHRI  (3) 
+                resultE = NearestNeighbour_Algorithm(text); //    call NNH again just for a nice extra, could be edited to call 2MST 
+            }
             // the results must never contain words like "terror" etc. -> misunderstands the string 
             if(result1.contains("error") || result1.contains("Error") || result1.contains("ERROR")) { 
                 return ERRORMSG;
@@ -2941,21 +3554,21 @@ public class TSP_Solver_UEF_241908 {
             
             switch(bestOneOfTheTours) {
                 case(1): {
-                    preResult += "NNH was chosen for improving purposes."
+                    preResult += (hilbertSeed ? "HILBERT" : "NNH") + " was chosen for improving purposes."
                             + " Please note that not always the solution will be improved!";
-                    edges = Sub_algorithms.linKernighan(max, length1d, nnh_coordinates);
+                    edges = candidateLinKernighan(max, length1d, nnh_coordinates);
                     break;
                 }
                 case(2): {
                     preResult += "CHH was chosen for improving purposes."
                             + " Please note that not always the solution will be improved!";
-                    edges = Sub_algorithms.linKernighan(max, length2d, chh_coordinates);
+                    edges = candidateLinKernighan(max, length2d, chh_coordinates);
                     break;
                 }
                 case(3): {
                     preResult += "CHRI was chosen for improving purposes."
                             + " Please note that not always the solution will be improved!";
-                    edges = Sub_algorithms.linKernighan(max, length3d, chri_coordinates);
+                    edges = candidateLinKernighan(max, length3d, chri_coordinates);
                     break;
                 }
             }
@@ -3110,6 +3723,32 @@ public class TSP_Solver_UEF_241908 {
      * @return String
      */
     public static String LK_SOM_CH_NN_EVO_Algorithm(String inputText, boolean callLinKernighanFinally) {
+        return LK_SOM_CH_NN_EVO_Algorithm(inputText, callLinKernighanFinally, false);
+    }
+    
+    /**
+     * The memetic version of "SOM_CH_NN_EVO_Algorithm": every child of the evolution is 
+     * immediately improved with the neighbour list 2-opt and Or-opt local search before the 
+     * selection, so the population consists of local optima. 
+     * 
+     * @param inputText String
+     * @return String
+     */
+    public static String Memetic_SOM_CH_NN_EVO_Algorithm(String inputText) {
+        return LK_SOM_CH_NN_EVO_Algorithm(inputText, false, true);
+    }
+    
+    /**
+     * The evolution itself, see the two methods above. When "memetic" is true, the children 
+     * are improved with local search and their tour lengths are updated by delta evaluation. 
+     * 
+     * @param inputText String
+     * @param callLinKernighanFinally boolean
+     * @param memetic boolean
+     * @return String
+     */
+    public static String LK_SOM_CH_NN_EVO_Algorithm(String inputText, boolean callLinKernighanFinally, 
+            boolean memetic) {
         //double tour_length; 
         //tour_length = 0.0;
         String solution = "";
@@ -3548,9 +4187,11 @@ public class TSP_Solver_UEF_241908 {
                 //solution = new StringBuilder(solution).append(String.valueOf(start)).toString();
                 solutionArray = new double[(max +1)*2];
                 int solutionArrayInsertIndex = 0;
+                int[] solutionGroups = new int[max +1]; // the cluster of every solution point 
                 for(int j = 0; j < max +1; j++) {
                             solutionArray[j] = Double.MAX_VALUE;
                 }
+                solutionGroups[0] = (int)nnh_purpose_coordinates_clust.get(pointer_start);
                 solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_x.get(pointer_start);
                 solutionArrayInsertIndex++;
                 solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_y.get(pointer_start);
@@ -3591,6 +4232,7 @@ public class TSP_Solver_UEF_241908 {
                             // && (clusterInTurnNow == (int)nnh_purpose_coordinates_clust.get(pointer)) 
                     ) {
                         booltable[pointer] = true;
+                        solutionGroups[solutionArrayInsertIndex/2] = (int)nnh_purpose_coordinates_clust.get(pointer);
                         //solution = new StringBuilder(solution).append("-").toString();
                         //solution = new StringBuilder(solution).append(pointer + 1).toString();
                         solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_x.get(pointer);
@@ -3636,6 +4278,9 @@ public class TSP_Solver_UEF_241908 {
                         //verticeadded = false;
                     }
                 }
+                // the clusters in their optimal orders between the neighbouring clusters (the small ones): 
+                Exact_DP.reorderGroupRuns(solutionArray, solutionArrayInsertIndex/2, solutionGroups, Exact_DP.FAST_FREE);
+                
                 // link back to the start node:
                 solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_x.get(start-1);
                 solutionArrayInsertIndex++;
@@ -3663,7 +4308,7 @@ public class TSP_Solver_UEF_241908 {
                 System.out.println("\t\tNEW chromosome created: " + p + ", " + arr);
                 Chromosome c = new Chromosome(String.valueOf(p), arr); // now a new chromosome has been created, 
                 // its name is p (int but String), population = all instances of the class Chromosome 
-                Logic_Stack ls = new Logic_Stack();
+                Logic_Stack ls = Logic_Stack.borrow();
                 for(int j = 0; j < wantedLogicStackSize; j++) {
                     int randomINT = (int) ((Math.random() * (Logic_Fragments.get_amount_of_existing_logic_fragments())) + 1);  
                     ls.push(randomINT);
@@ -3675,6 +4320,18 @@ public class TSP_Solver_UEF_241908 {
             }
             
             
+            // the lower bound for the gap threshold, see the end of a generation 
+            double evolutionLowerBound = 0;
+            if(gapThreshold > 0) {
+                double[] boundXs = new double[coordinates_x.size()];
+                double[] boundYs = new double[coordinates_y.size()];
+                for(int j = 0; j < boundXs.length; j++) {
+                    boundXs[j] = (double)coordinates_x.get(j);
+                    boundYs[j] = (double)coordinates_y.get(j);
+                }
+                evolutionLowerBound = lowerBound(boundXs, boundYs);
+            }
+            
             // continue the same computing but with "neuronLogicStacks true" and termination loop
             // -> improvements are made 
             for(int e = 0; e < wantedEvolutionIterations; e++) {
@@ -3758,9 +4415,11 @@ public class TSP_Solver_UEF_241908 {
                     //solution = new StringBuilder(solution).append(String.valueOf(start)).toString();
                     solutionArray = new double[(max +1)*2];
                     int solutionArrayInsertIndex = 0;
+                    int[] solutionGroups = new int[max +1]; // the cluster of every solution point 
                     for(int j = 0; j < max +1; j++) {
                                 solutionArray[j] = Double.MAX_VALUE;
                     }
+                    solutionGroups[0] = (int)nnh_purpose_coordinates_clust.get(pointer_start);
                     solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_x.get(pointer_start);
                     solutionArrayInsertIndex++;
                     solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_y.get(pointer_start);
@@ -3801,6 +4460,7 @@ public class TSP_Solver_UEF_241908 {
                                 // && (clusterInTurnNow == (int)nnh_purpose_coordinates_clust.get(pointer)) 
                         ) {
                             booltable[pointer] = true;
+                            solutionGroups[solutionArrayInsertIndex/2] = (int)nnh_purpose_coordinates_clust.get(pointer);
                             //solution = new StringBuilder(solution).append("-").toString();
                             //solution = new StringBuilder(solution).append(pointer + 1).toString();
                             solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_x.get(pointer);
@@ -3846,6 +4506,9 @@ public class TSP_Solver_UEF_241908 {
                             //verticeadded = false;
                         }
                     }
+                    // the clusters in their optimal orders between the neighbouring clusters (the small ones): 
+                    Exact_DP.reorderGroupRuns(solutionArray, solutionArrayInsertIndex/2, solutionGroups, Exact_DP.FAST_FREE);
+                    
                     // link back to the start node:
                     solutionArray[solutionArrayInsertIndex] = (double) nnh_purpose_coordinates_x.get(start-1);
                     solutionArrayInsertIndex++;
@@ -3885,14 +4548,7 @@ public class TSP_Solver_UEF_241908 {
                 // terminating:
                 for(int chro = 0; chro < instances.size(); chro++) {
                     Chromosome c = (Chromosome) instances.get(chro);
-                    ArrayList c_coordinates = c.getChromosomePoints();
-                    double eucDistOfChrom = 0;
-                    for(int j = 0; j < c.getChromosomePoints().size()-2; j+=2) {
-                        eucDistOfChrom += Sub_algorithms.Euclidean_distance((double)c_coordinates.get(j), 
-                                                     (double)c_coordinates.get(j+1), 
-                                                     (double)c_coordinates.get(j+2), 
-                                                     (double)c_coordinates.get(j+3));
-                    }
+                    double eucDistOfChrom = c.getFitness(); // the cached tour length 
                     if((eucDistOfChrom > wantedTourLength) || 
                             ((Math.random() < 0.02) && (eucDistOfChrom*1.15 > wantedTourLength))) { 
                             // a chromosome can also be cruelly deleted because of this Math.random line 
@@ -3907,9 +4563,24 @@ public class TSP_Solver_UEF_241908 {
                     }
                 }
                 
+                // the best one is already close enough to the lower bound: 
+                if(evolutionLowerBound > 0) {
+                    double bestOfGeneration = Double.MAX_VALUE;
+                    for(int chro = 0; chro < instances.size(); chro++) {
+                        bestOfGeneration = Math.min(bestOfGeneration, ((Chromosome)instances.get(chro)).getFitness());
+                    }
+                    double gap = gapPercent(bestOfGeneration, evolutionLowerBound);
+                    if(gap <= gapThreshold) {
+                        System.out.println("\nGap " + gap + " % is below the threshold " + gapThreshold + 
+                                " %, stopping the evolution after generation " + (e+1));
+                        break;
+                    }
+                }
+                
                 // select / pair / find a partner:
                 // in other words, reorder the instance list a bit and add some new children:
-                instances = EvolutionaryParts.selectWhatWillBePairedThenCrossingOverAndMutation(instances, logicStackCopiesOfOriginals);
+                instances = EvolutionaryParts.selectWhatWillBePairedThenCrossingOverAndMutation(instances, logicStackCopiesOfOriginals, 
+                        memetic);
                 System.out.println("\nNEW GENERATION! Instances " + instances.toString() + "\nChromosome count is " + instances.size());
                 wantedPopulationSize = instances.size();
                 System.gc();
@@ -3933,15 +4604,7 @@ public class TSP_Solver_UEF_241908 {
                 ArrayList solutionArrayListTEMP = ((Chromosome)(instances.get(j))).getChromosomePoints();
                 //LogicStack ls = ((Chromosome)(instances.get(j))).getStack();
                 
-                tourLength = 0;
-                for(int k = 0; k < solutionArrayListTEMP.size()-2; k+=2) {
-                    double distance = Sub_algorithms.Euclidean_distance(
-                    (double)solutionArrayListTEMP.get(k), 
-                    (double)solutionArrayListTEMP.get(k+1), 
-                    (double)solutionArrayListTEMP.get(k+2), 
-                    (double)solutionArrayListTEMP.get(k+3));
-                    tourLength += distance;
-                }
+                tourLength = ((Chromosome)(instances.get(j))).getFitness();
                 if(tourLength < currentBest) {
                     currentBest = tourLength;
                     for(int k = 0; k < solutionArrayListTEMP.size(); k++) {
@@ -3965,7 +4628,7 @@ public class TSP_Solver_UEF_241908 {
                     solutionArrayList.add(solutionArray[j]);
                 }
                 somSolution += "Trying to quick improve with Lin-Kernighan using 2opts.";
-                double[][] answer = Sub_algorithms.linKernighan(max, currentBest, solutionArrayList);
+                double[][] answer = candidateLinKernighan(max, currentBest, solutionArrayList);
                 
                 //System.out.println("LENGTHS " + solutionArray.length + ", " + answer.length);
                 int insert_index = 0;
@@ -4034,4 +4697,239 @@ public class TSP_Solver_UEF_241908 {
             return ERRORMSG;
         }
     }
+    
+    /**
+     * The quick Lin-Kernighan of F6 and F9 with the quadrant balanced candidate neighbour lists 
+     * of the tour's points (Candidate_Sets), or the alpha-nearness lists if they are selected 
+     * from the Options menu, see Sub_algorithms.linKernighan. 
+     * 
+     * @param max int
+     * @param eucDistOld double
+     * @param coordinates ArrayList, the tour xy xy xy... 
+     * @return double[][]
+     */
+    private static double[][] candidateLinKernighan(int max, double eucDistOld, ArrayList coordinates) {
+        int k = Candidate_Sets.lengthFor(Candidate_Sets.DEFAULT_K, coordinates.size()/2 -1);
+        int[] candidates = null;
+        if(alphaCandidates && coordinates.size()/2 > Candidate_Sets.ALPHA_K + 1) {
+            k = Candidate_Sets.ALPHA_K;
+            candidates = Candidate_Sets.buildAlphaNearnessForTour(coordinates, k, ALPHA_ITERATIONS);
+        }
+        else if(coordinates.size()/2 > 5) {
+            candidates = Candidate_Sets.buildForTour(coordinates, k, true);
+        }
+        return Sub_algorithms.linKernighan(max, eucDistOld, coordinates, candidates, k);
+    }
+    
+    /**
+     * The classic elastic ring SOM (KohonenSOM.performRingSOM): a ring of neurons is pulled 
+     * towards the cities, the tour is the order of the cities along the ring. Fast also 
+     * with the huge graphs, no hull or clusters like in "SOM_CH_NN_Algorithm". 
+     * 
+     * @param input String
+     * @return String
+     */
+    public static String RingSOM_Algorithm(String input) {
+        TSP_Instance instance = readInstance(input, coordinateStorage);
+        if(instance == null) {
+            return ERRORMSG;
+        }
+        System.gc(); // run garbage collector before starting 
+        long startTime = System.nanoTime();
+        try {
+            int[] tour = KohonenSOM.performRingSOM(instance, 0, startTime);
+            return tourToSolution(tour, instance, startTime);
+        }
+        finally {
+            instance.release(); // the off-heap coordinates are freed now, not by the garbage collector 
+        }
+    }
+    
+    /**
+     * Karp style partitioning (Karp_Partition): the graph is cut into cells of a few thousand 
+     * vertices, the cells are solved in parallel and their tours joined. Uses all processor 
+     * cores on one big graph. 
+     * 
+     * @param input String
+     * @return String
+     */
+    public static String Karp_Algorithm(String input) {
+        TSP_Instance instance = readInstance(input, coordinateStorage);
+        if(instance == null) {
+            return ERRORMSG;
+        }
+        System.gc(); // run garbage collector before starting 
+        long startTime = System.nanoTime();
+        try {
+            int[] tour = Karp_Partition.solve(instance, Karp_Partition.DEFAULT_CELL_SIZE);
+            return tourToSolution(tour, instance, startTime);
+        }
+        finally {
+            instance.release();
+        }
+    }
+    
+    /**
+     * Multilevel engine (Multilevel_Solver): the mutual nearest neighbours are merged level by 
+     * level down to about 1000 points, the coarsest tour is solved with the quick LK and every 
+     * finer level is refined with 2-opt and Or-opt. For the graphs of millions of vertices. 
+     * 
+     * @param input String
+     * @return String
+     */
+    public static String Multilevel_Algorithm(String input) {
+        TSP_Instance instance = readInstance(input, coordinateStorage);
+        if(instance == null) {
+            return ERRORMSG;
+        }
+        System.gc(); // run garbage collector before starting 
+        long startTime = System.nanoTime();
+        try {
+            int[] tour = Multilevel_Solver.solve(instance);
+            return tourToSolution(tour, instance, startTime);
+        }
+        finally {
+            instance.release();
+        }
+    }
+    
+    /**
+     * Simulated annealing (Simulated_Annealing) from the greedy edge tour with 2-opt, Or-opt and 
+     * node swap moves to the candidate neighbours, finally the 2-opt and Or-opt local search. 
+     * With the parallel tempering option every processor core runs its own temperature. 
+     * 
+     * @param input String
+     * @return String
+     */
+    public static String Annealing_Algorithm(String input) {
+        TSP_Instance instance = readInstance(input, coordinateStorage);
+        if(instance == null) {
+            return ERRORMSG;
+        }
+        System.gc(); // run garbage collector before starting 
+        long startTime = System.nanoTime();
+        try {
+            int n = instance.size();
+            int[] tour = Greedy_Edge.tour(instance);
+            if(n >= 8) {
+                int k = Candidate_Sets.lengthFor(Candidate_Sets.DEFAULT_K, n);
+                int[] neighbours = Candidate_Sets.build(instance, k, true);
+                long steps = Math.min((long) Simulated_Annealing.STEPS_PER_VERTEX * n, Simulated_Annealing.MAX_STEPS);
+                if(parallelTempering) {
+                    int replicas = Math.max(2, Runtime.getRuntime().availableProcessors());
+                    Simulated_Annealing.parallelTempering(instance, tour, neighbours, k, replicas, steps, startTime);
+                }
+                else {
+                    Simulated_Annealing.anneal(instance, tour, neighbours, k, steps, startTime);
+                }
+                Sub_algorithms.twoOptAndOrOpt(instance, tour, neighbours, k);
+            }
+            return tourToSolution(tour, instance, startTime);
+        }
+        finally {
+            instance.release();
+        }
+    }
+    
+    /**
+     * Guided local search (Guided_Local_Search) from the greedy edge tour: the 2-opt and Or-opt 
+     * local optimum is improved further for 10 seconds by penalizing the long tour edges of 
+     * the local optima, finally the 2-opt and Or-opt with the real lengths. 
+     * 
+     * @param input String
+     * @return String
+     */
+    public static String GLS_Algorithm(String input) {
+        int weightType = Edge_Weights.typeOf(input);
+        if(weightType != Edge_Weights.EUC_2D) {
+            return weightedGLS(input, weightType);
+        }
+        TSP_Instance instance = readInstance(input, coordinateStorage);
+        if(instance == null) {
+            return ERRORMSG;
+        }
+        System.gc(); // run garbage collector before starting 
+        long startTime = System.nanoTime();
+        try {
+            int n = instance.size();
+            int[] tour = Greedy_Edge.tour(instance);
+            if(n >= 8) {
+                int k = Candidate_Sets.lengthFor(Candidate_Sets.DEFAULT_K, n);
+                int[] neighbours = Candidate_Sets.build(instance, k, true);
+                Sub_algorithms.twoOptAndOrOpt(instance, tour, neighbours, k);
+                Guided_Local_Search.improve(instance, tour, neighbours, k, Guided_Local_Search.DEFAULT_MILLIS);
+                Sub_algorithms.twoOptAndOrOpt(instance, tour, neighbours, k);
+            }
+            return tourToSolution(tour, instance, startTime);
+        }
+        finally {
+            instance.release();
+        }
+    }
+    
+    /**
+     * The guided local search of the other edge weight types (Edge_Weights): the start tour is 
+     * the greedy edge tour of the coordinates or the nearest neighbour tour of an EXPLICIT matrix, 
+     * the distances come from a Distance_Oracle of the weight type. The result has the tour 
+     * length with these distances. 
+     */
+    private static String weightedGLS(String input, int weightType) {
+        if(weightType == Edge_Weights.UNKNOWN) {
+            return ERRORMSG;
+        }
+        Explicit_Matrix explicit = null;
+        TSP_Instance instance = null;
+        int n;
+        if(weightType == Edge_Weights.EXPLICIT) {
+            explicit = Explicit_Matrix.read(input);
+            if(explicit == null) {
+                return ERRORMSG;
+            }
+            n = explicit.size();
+        }
+        else {
+            instance = readInstance(input, coordinateStorage, true);
+            if(instance == null) {
+                return ERRORMSG;
+            }
+            n = instance.size();
+        }
+        System.gc(); // run garbage collector before starting 
+        long startTime = System.nanoTime();
+        try {
+            int k = Candidate_Sets.lengthFor(Candidate_Sets.DEFAULT_K, n);
+            int[] tour;
+            int[] neighbours;
+            if(explicit != null) {
+                tour = explicit.nearestNeighbourTour();
+                neighbours = explicit.nearestNeighbours(k);
+            }
+            else { // the geometric lists, the oracle sorts them by the real distances 
+                tour = Greedy_Edge.tour(instance);
+                neighbours = Candidate_Sets.build(instance, k, true);
+            }
+            Distance_Oracle oracle = Distance_Oracle.forGraph(instance, explicit, weightType, neighbours, k);
+            Guided_Local_Search.improve(oracle, tour, neighbours, k, Guided_Local_Search.DEFAULT_MILLIS);
+            if(!checkHamiltonian(tour, n)) {
+                return "Bug! The calculated tour is not a Hamiltonian circuit!\n";
+            }
+            long endTime = System.nanoTime();
+            System.out.println("Time (millisec): " + (endTime - startTime)/1000000);
+            System.out.println("Time (sec, rounded down): " + (endTime - startTime)/1000000000 + "\n");
+            StringBuilder solution = new StringBuilder("Solution: \n");
+            for(int i = 0; i < n; i++) {
+                solution.append(tour[i] + 1).append('-');
+            }
+            return solution.append(tour[0] + 1).append("\nTour length: ").append(oracle.tourLength(tour))
+                    .append("\nEdge weight type: ").append(Edge_Weights.name(weightType)).toString();
+        }
+        finally {
+            if(explicit != null) {
+                explicit.release();
+            }
+            if(instance != null) {
+                instance.release();
+            }
+        }
+    }
 } 
\ No newline at end of file
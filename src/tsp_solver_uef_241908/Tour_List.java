@@ -0,0 +1,142 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 36 of 40
+ *
+ * A tour for the local search of the big graphs, where the int[] tour with its reversals of up
+ * to n/2 vertices is too slow (Sub_algorithms.twoOptAndOrOpt uses one from MIN_SIZE vertices
+ * on). The kind can be chosen per run:
+ *
+ * - Two_Level_List: O(1) next and between, O(sqrt(n)) flips
+ * - Splay_Tour: amortized O(log n) for everything, for the graphs of millions of vertices
+ * - automatic: the two-level list, the splay tree from SPLAY_SIZE vertices on (the 2-opt and
+ *   Or-opt of 4 million uniform points from the Hilbert curve tour: 59 s with the two-level
+ *   list, 32 s with the splay tree, about even at 1 million)
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public abstract class Tour_List {
+    public static final int LIST_AUTOMATIC = 0;
+    public static final int LIST_TWO_LEVEL = 1;
+    public static final int LIST_SPLAY = 2;
+    public static final int MIN_SIZE = 50000;       // the local search uses a list from this many vertices on
+    public static final int SPLAY_SIZE = 2000000;   // the automatic kind is the splay tree from this many vertices on
+    
+    // The kind of the next lists, the user can change this from the Options menu
+    private static int kind = LIST_AUTOMATIC;
+    
+    /**
+     * The list of the tour (a vertex order without the start vertex at the end), null if the
+     * tour has less than MIN_SIZE vertices and the int[] tour is faster.
+     *
+     * @param tour int[]
+     * @return Tour_List
+     */
+    public static Tour_List forLocalSearch(int[] tour) {
+        if(tour.length < MIN_SIZE) {
+            return null;
+        }
+        if(kind == LIST_SPLAY || (kind == LIST_AUTOMATIC && tour.length >= SPLAY_SIZE)) {
+            return new Splay_Tour(tour);
+        }
+        return new Two_Level_List(tour);
+    }
+    
+    /**
+     * Sets the kind of the next lists, LIST_AUTOMATIC, LIST_TWO_LEVEL or LIST_SPLAY.
+     *
+     * @param listKind int
+     */
+    public static void setKind(int listKind) {
+        kind = listKind;
+    }
+    
+    /**
+     * The name of a kind for the messages.
+     *
+     * @param listKind int
+     * @return String
+     */
+    public static String kindName(int listKind) {
+        if(listKind == LIST_SPLAY) {
+            return "splay tree";
+        }
+        if(listKind == LIST_TWO_LEVEL) {
+            return "two-level list";
+        }
+        return "automatic";
+    }
+    
+    /**
+     * The vertex after v.
+     *
+     * @param v int
+     * @return int
+     */
+    public abstract int next(int v);
+    
+    /**
+     * The vertex before v.
+     *
+     * @param v int
+     * @return int
+     */
+    public abstract int previous(int v);
+    
+    /**
+     * True if b is on the tour path from a forward to c (a and c included).
+     *
+     * @param a int
+     * @param b int
+     * @param c int
+     * @return boolean
+     */
+    public abstract boolean between(int a, int b, int c);
+    
+    /**
+     * The 2-opt move: the edges (a, b) and (c, d) are replaced by (a, c) and (b, d), where
+     * b is the vertex after a and d the vertex after c (or both before). The path b..c is
+     * reversed (or d..a, the same tour the other way around).
+     *
+     * @param a int
+     * @param b int
+     * @param c int
+     * @param d int
+     */
+    public abstract void flip(int a, int b, int c, int d);
+    
+    /**
+     * The tour to the array, from any vertex.
+     *
+     * @param tour int[]
+     */
+    public abstract void copyTo(int[] tour);
+    
+    /**
+     * The Or-opt move: the path a..e (going forward) between the tour neighbours u and v
+     * (v after u, both outside of the path), reversed if "reverseSegment" is true: u a..e v or
+     * u e..a v. Three flips.
+     *
+     * @param a int
+     * @param e int
+     * @param u int
+     * @param v int
+     * @param reverseSegment boolean
+     */
+    public void moveSegment(int a, int e, int u, int v, boolean reverseSegment) {
+        int p = previous(a);
+        int nx = next(e);
+        flip(p, a, u, v);   // p u ... nx e..a v
+        flip(p, u, nx, e);  // p nx ... u e..a v
+        if(!reverseSegment) {
+            flip(u, e, a, v);
+        }
+    }
+}
\ No newline at end of file
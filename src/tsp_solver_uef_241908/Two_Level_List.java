@@ -0,0 +1,356 @@
+package tsp_solver_uef_241908;
+
+/**
+ * TSP Solver by Tuomas Hyvönen, Java file 39 of 40
+ *
+ * The two-level doubly linked list tour: the tour is cut into about sqrt(n) segments of about
+ * sqrt(n) consecutive vertices. Every segment is a doubly linked list of its vertices with
+ * consecutive sequence numbers and a reversed bit, the segments are a doubly linked cycle with
+ * their ranks. next, previous and between are O(1). The 2-opt flip reverses a path: inside
+ * one segment the links of the path are turned around, otherwise the segments at the path ends
+ * are split (a part moves into the neighbouring segment that stays smaller) and the whole segments of
+ * the path (or of the other side of the tour, the shorter one) change their order and reversed
+ * bits. Every flip is O(sqrt(n)), the int[] tour reverses up to n/2 vertices
+ * (Sub_algorithms.reverseTourPath).
+ *
+ * For the local search of the big graphs (Tour_List), with fewer vertices the reversals of the
+ * int[] tour are short enough. At least 8 vertices.
+ *
+ * Open source Java code, feel free to edit and try your own improvements.
+ * Tested with Windows 11
+ * Apache NetBeans 17
+ * Java JRE 8u371 64bit
+ * Java JDK 18.0.2 64bit
+ *
+ * @author Tuomas Hyvönen
+ * @version 2.0
+ */
+public class Two_Level_List extends Tour_List {
+    
+    private static final int MAX_GROWTH = 8;    // everything is cut again when a segment grows this many times the normal size
+    private static final int MAX_SEQUENCE = 1 << 30;
+    
+    private final int n;
+    private final int m;                        // the number of segments
+    private final int[] rawNext;                // the vertex links inside the segment, -1 = the segment end
+    private final int[] rawPrevious;
+    private final int[] sequence;               // consecutive along rawNext, the vertices moved to the segment ends continue them
+    private final int[] segment;
+    private final int[] first;                  // the segments, first and last along rawNext
+    private final int[] last;
+    private final int[] size;
+    private final boolean[] reversed;           // the tour goes along rawPrevious
+    private final int[] nextSegment;
+    private final int[] previousSegment;
+    private final int[] rank;                   // 0, 1, 2... along nextSegment from some segment
+    private final int[] run;                    // the segments to reverse
+    private boolean tooBig;
+    
+    /**
+     * The list of the tour (a vertex order without the start vertex at the end).
+     *
+     * @param tour int[]
+     */
+    public Two_Level_List(int[] tour) {
+        n = tour.length;
+        m = Math.max(2, n / Math.max(1, (int) Math.sqrt(n)));
+        rawNext = new int[n];
+        rawPrevious = new int[n];
+        sequence = new int[n];
+        segment = new int[n];
+        first = new int[m];
+        last = new int[m];
+        size = new int[m];
+        reversed = new boolean[m];
+        nextSegment = new int[m];
+        previousSegment = new int[m];
+        rank = new int[m];
+        run = new int[m];
+        build(tour);
+    }
+    
+    private void build(int[] tour) {
+        for(int s = 0; s < m; s++) {
+            int from = (int) ((long) s * n / m);
+            int to = (int) ((long) (s + 1) * n / m);
+            first[s] = tour[from];
+            last[s] = tour[to - 1];
+            size[s] = to - from;
+            reversed[s] = false;
+            rank[s] = s;
+            nextSegment[s] = (s + 1) % m;
+            previousSegment[s] = (s - 1 + m) % m;
+            for(int i = from; i < to; i++) {
+                int v = tour[i];
+                rawNext[v] = (i + 1 < to) ? tour[i + 1] : -1;
+                rawPrevious[v] = (i > from) ? tour[i - 1] : -1;
+                sequence[v] = i - from;
+                segment[v] = s;
+            }
+        }
+        tooBig = false;
+    }
+    
+    @Override
+    public int next(int v) {
+        int s = segment[v];
+        int u = reversed[s] ? rawPrevious[v] : rawNext[v];
+        return (u >= 0) ? u : firstOf(nextSegment[s]);
+    }
+    
+    @Override
+    public int previous(int v) {
+        int s = segment[v];
+        int u = reversed[s] ? rawNext[v] : rawPrevious[v];
+        return (u >= 0) ? u : lastOf(previousSegment[s]);
+    }
+    
+    @Override
+    public boolean between(int a, int b, int c) {
+        long positionA = position(a);
+        long positionB = position(b);
+        long positionC = position(c);
+        if(positionA <= positionC) {
+            return positionA <= positionB && positionB <= positionC;
+        }
+        return positionB >= positionA || positionB <= positionC;
+    }
+    
+    @Override
+    public void flip(int a, int b, int c, int d) {
+        if(next(a) != b) { // the other tour direction: b a ... d c
+            int helpVar = a;
+            a = b;
+            b = helpVar;
+            helpVar = c;
+            c = d;
+            d = helpVar;
+        }
+        if(a == c || b == c || d == a) {
+            return; // the same tour
+        }
+        if(segment[b] == segment[c] && tourIndex(b) <= tourIndex(c)) {
+            reverseInSegment(b, c);
+            return;
+        }
+        if(segment[d] == segment[a] && tourIndex(d) <= tourIndex(a)) {
+            reverseInSegment(d, a);
+            return;
+        }
+        splitBetween(a, b, -1, -1);
+        splitBetween(c, d, segment[a], segment[b]); // not across the boundary a | b just made
+        int count = (rank[segment[c]] - rank[segment[b]] + m) % m + 1;
+        if(2*count <= m) {
+            reverseSegments(segment[b], count);
+        }
+        else {
+            reverseSegments(segment[d], m - count);
+        }
+        if(tooBig) {
+            int[] tour = new int[n];
+            copyTo(tour);
+            build(tour);
+        }
+    }
+    
+    @Override
+    public void copyTo(int[] tour) {
+        int v = firstOf(0);
+        for(int i = 0; i < n; i++) {
+            tour[i] = v;
+            v = next(v);
+        }
+    }
+    
+    private int firstOf(int s) {
+        return reversed[s] ? last[s] : first[s];
+    }
+    
+    private int lastOf(int s) {
+        return reversed[s] ? first[s] : last[s];
+    }
+    
+    /**
+     * The index of v in its segment in the tour direction.
+     */
+    private int tourIndex(int v) {
+        int s = segment[v];
+        return reversed[s] ? sequence[last[s]] - sequence[v] : sequence[v] - sequence[first[s]];
+    }
+    
+    private long position(int v) {
+        return ((long) rank[segment[v]] << 32) + tourIndex(v);
+    }
+    
+    /**
+     * Reverses the tour path from u to w, both in the same segment and u not after w.
+     */
+    private void reverseInSegment(int u, int w) {
+        int s = segment[u];
+        int x = reversed[s] ? w : u; // the path x..y along rawNext
+        int y = reversed[s] ? u : w;
+        int before = rawPrevious[x];
+        int after = rawNext[y];
+        int index = sequence[x];
+        int v = x;
+        while(true) {
+            int nextRaw = rawNext[v];
+            rawNext[v] = rawPrevious[v];
+            rawPrevious[v] = nextRaw;
+            if(v == y) {
+                break;
+            }
+            v = nextRaw;
+        }
+        rawNext[x] = after;
+        rawPrevious[y] = before;
+        if(before >= 0) {
+            rawNext[before] = y;
+        }
+        else {
+            first[s] = y;
+        }
+        if(after >= 0) {
+            rawPrevious[after] = x;
+        }
+        else {
+            last[s] = x;
+        }
+        for(v = y; ; v = rawNext[v]) {
+            sequence[v] = index++;
+            if(v == x) {
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Makes u (and v after it) the last vertex of its segment (and the first of the next one).
+     * The smaller part of the segment moves into the neighbouring segment, except that the
+     * part before u always moves back in the segment "moveBack" and the part from v on always
+     * moves forward in the segment "moveForward".
+     */
+    private void splitBetween(int u, int v, int moveBack, int moveForward) {
+        int s = segment[u];
+        if(segment[v] != s) {
+            return;
+        }
+        int before = tourIndex(u) + 1; // the part up to u, the rest from v on
+        boolean back = (s == moveBack)
+                || (s != moveForward && size[previousSegment[s]] + before <= size[nextSegment[s]] + size[s] - before);
+        if(back) {
+            int p = previousSegment[s];
+            int w;
+            do {
+                w = firstOf(s);
+                removeFirst(s);
+                addLast(p, w);
+            } while(w != u);
+        }
+        else {
+            int q = nextSegment[s];
+            int w;
+            do {
+                w = lastOf(s);
+                removeLast(s);
+                addFirst(q, w);
+            } while(w != v);
+        }
+    }
+    
+    /**
+     * The "count" segments from s on to the reverse order, each one reversed.
+     */
+    private void reverseSegments(int s, int count) {
+        int before = previousSegment[s];
+        int firstRank = rank[s];
+        for(int i = 0; i < count; i++) {
+            run[i] = s;
+            s = nextSegment[s];
+        }
+        int after = s;
+        for(int i = 0; i < count; i++) {
+            int t = run[count - 1 - i];
+            reversed[t] = !reversed[t];
+            rank[t] = (firstRank + i) % m;
+            previousSegment[t] = (i == 0) ? before : run[count - i];
+            nextSegment[t] = (i == count - 1) ? after : run[count - 2 - i];
+        }
+        nextSegment[before] = run[count - 1];
+        previousSegment[after] = run[0];
+    }
+    
+    private void removeFirst(int s) {
+        if(reversed[s]) {
+            removeRawLast(s);
+        }
+        else {
+            removeRawFirst(s);
+        }
+    }
+    
+    private void removeLast(int s) {
+        if(reversed[s]) {
+            removeRawFirst(s);
+        }
+        else {
+            removeRawLast(s);
+        }
+    }
+    
+    private void addFirst(int s, int v) {
+        if(reversed[s]) {
+            addRawLast(s, v);
+        }
+        else {
+            addRawFirst(s, v);
+        }
+    }
+    
+    private void addLast(int s, int v) {
+        if(reversed[s]) {
+            addRawFirst(s, v);
+        }
+        else {
+            addRawLast(s, v);
+        }
+    }
+    
+    private void removeRawFirst(int s) {
+        first[s] = rawNext[first[s]];
+        rawPrevious[first[s]] = -1;
+        size[s]--;
+    }
+    
+    private void removeRawLast(int s) {
+        last[s] = rawPrevious[last[s]];
+        rawNext[last[s]] = -1;
+        size[s]--;
+    }
+    
+    private void addRawFirst(int s, int v) {
+        sequence[v] = sequence[first[s]] - 1;
+        rawNext[v] = first[s];
+        rawPrevious[v] = -1;
+        rawPrevious[first[s]] = v;
+        first[s] = v;
+        added(s, v);
+    }
+    
+    private void addRawLast(int s, int v) {
+        sequence[v] = sequence[last[s]] + 1;
+        rawPrevious[v] = last[s];
+        rawNext[v] = -1;
+        rawNext[last[s]] = v;
+        last[s] = v;
+        added(s, v);
+    }
+    
+    private void added(int s, int v) {
+        segment[v] = s;
+        size[s]++;
+        if(size[s] > MAX_GROWTH * (n / m + 1) || Math.abs(sequence[v]) > MAX_SEQUENCE) {
+            tooBig = true;
+        }
+    }
+}
\ No newline at end of file
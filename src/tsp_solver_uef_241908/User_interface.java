@@ -12,6 +12,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.swing.JDialog;
@@ -19,11 +20,12 @@ import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JTextField;
+import javax.swing.SwingWorker;
 import javax.swing.WindowConstants;
 import javax.swing.text.BadLocationException;
 
 /**
- * TSP Solver by Tuomas Hyvönen, Java file 11 of 11 (also notice the ".form" file / "Design" tab on NetBeans IDE) 
+ * TSP Solver by Tuomas Hyvönen, Java file 40 of 40 (also notice the ".form" file / "Design" tab on NetBeans IDE) 
  * 
  * The user interface class. The application has 3 areas of text, one of them is editable. 
  * The editable one is of course for editing the graph. The other two are results and instructions. 
@@ -40,6 +42,7 @@ import javax.swing.text.BadLocationException;
  */
 public class User_interface extends javax.swing.JFrame {
     final String VERSION = "v-29-4-2023";
+    private int shownResults = 0;   // the gap rows are added only to the result they belong to 
     
     /**
      * Constructor that creates a new form "User_interface".
@@ -179,6 +182,37 @@ public class User_interface extends javax.swing.JFrame {
             }
         });
     }
+    
+    /**
+     * Shows the result of an algorithm (TSP_Solver_UEF_241908.finishResult), then the lower bound 
+     * and the gap rows are computed in the background (seconds for the big graphs) and added to the 
+     * end when they are ready, if the result is still shown. 
+     * @param result String
+     */
+    private void showResult(String result) {
+        final String input = jTextArea1.getText();
+        final String finished = TSP_Solver_UEF_241908.finishResult(result, input);
+        final int resultNumber = ++shownResults;
+        jTextArea2.setText(finished);
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                return TSP_Solver_UEF_241908.gapRows(finished, input);
+            }
+            @Override
+            protected void done() {
+                try {
+                    String rows = get();
+                    if(resultNumber == shownResults && !rows.isEmpty()) {
+                        jTextArea2.append(rows);
+                    }
+                }
+                catch(InterruptedException | ExecutionException ex) {
+                    System.out.println("The lower bound failed: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
 
     /**
      * This method is called from within the constructor to initialize the form.
@@ -205,6 +239,10 @@ public class User_interface extends javax.swing.JFrame {
         jMenuItemExit = new javax.swing.JMenuItem();
         jMenuRun = new javax.swing.JMenu();
         jMenuItemNNH = new javax.swing.JMenuItem();
+        jMenuItemHilbert = new javax.swing.JMenuItem();
+        jMenuItemGreedy = new javax.swing.JMenuItem();
+        jMenuItemSavings = new javax.swing.JMenuItem();
+        jMenuItemOnion = new javax.swing.JMenuItem();
         jMenuItem2MST = new javax.swing.JMenuItem();
         jMenuItemCHH = new javax.swing.JMenuItem();
         jMenuItemCHRI = new javax.swing.JMenuItem();
@@ -213,6 +251,23 @@ public class User_interface extends javax.swing.JFrame {
         jMenuItemSOM_CH_NN = new javax.swing.JMenuItem();
         jMenuItemSOM_CH_NN_EVO = new javax.swing.JMenuItem();
         jMenuItemLK_SOM_CH_NN_EVO = new javax.swing.JMenuItem();
+        jMenuItemMA_SOM_CH_NN_EVO = new javax.swing.JMenuItem();
+        jMenuItemRingSOM = new javax.swing.JMenuItem();
+        jMenuItemKarp = new javax.swing.JMenuItem();
+        jMenuItemMultilevel = new javax.swing.JMenuItem();
+        jMenuItemAnnealing = new javax.swing.JMenuItem();
+        jMenuItemGLS = new javax.swing.JMenuItem();
+        jMenuOptions = new javax.swing.JMenu();
+        jCheckBoxMenuItemFloat32 = new javax.swing.JCheckBoxMenuItem();
+        jCheckBoxMenuItemOffHeap = new javax.swing.JCheckBoxMenuItem();
+        jCheckBoxMenuItemAlpha = new javax.swing.JCheckBoxMenuItem();
+        jMenuItemGapThreshold = new javax.swing.JMenuItem();
+        jCheckBoxMenuItemWindows = new javax.swing.JCheckBoxMenuItem();
+        jCheckBoxMenuItemHilbertSeed = new javax.swing.JCheckBoxMenuItem();
+        jCheckBoxMenuItemTempering = new javax.swing.JCheckBoxMenuItem();
+        jCheckBoxMenuItemTwoLevel = new javax.swing.JCheckBoxMenuItem();
+        jCheckBoxMenuItemSplay = new javax.swing.JCheckBoxMenuItem();
+        jCheckBoxMenuItemStoredDistances = new javax.swing.JCheckBoxMenuItem();
         jMenuHelp = new javax.swing.JMenu();
         jMenuItemAbout = new javax.swing.JMenuItem();
 
@@ -286,6 +341,42 @@ public class User_interface extends javax.swing.JFrame {
         });
         jMenuRun.add(jMenuItemNNH);
 
+        jMenuItemHilbert.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F2, java.awt.event.InputEvent.SHIFT_DOWN_MASK));
+        jMenuItemHilbert.setText("\"Hilbert curve\" (HILBERT); the vertices along the space-filling curve, an instant tour for millions of vertices");
+        jMenuItemHilbert.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemHilbertActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemHilbert);
+
+        jMenuItemGreedy.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F3, java.awt.event.InputEvent.SHIFT_DOWN_MASK));
+        jMenuItemGreedy.setText("\"Greedy edge\" (GREEDY); the shortest edges first without early cycles, the fragments are chained in the end");
+        jMenuItemGreedy.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemGreedyActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemGreedy);
+
+        jMenuItemSavings.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F4, java.awt.event.InputEvent.SHIFT_DOWN_MASK));
+        jMenuItemSavings.setText("\"Clarke-Wright savings\" (SAVINGS); the routes from a central hub are joined biggest saving first, for clustered graphs");
+        jMenuItemSavings.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemSavingsActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemSavings);
+
+        jMenuItemOnion.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F9, java.awt.event.InputEvent.SHIFT_DOWN_MASK));
+        jMenuItemOnion.setText("\"Onion peeling\" (ONION); the convex hull layers from the outside in, cheapest insertion and 2-opt repair");
+        jMenuItemOnion.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemOnionActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemOnion);
+
         jMenuItem2MST.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F3, 0));
         jMenuItem2MST.setText("\"Double minimum spanning tree heuristic with Prim\" (2MST); max 2 times the optimal tour, no evolution, no opts");
         jMenuItem2MST.addActionListener(new java.awt.event.ActionListener() {
@@ -350,8 +441,147 @@ public class User_interface extends javax.swing.JFrame {
         });
         jMenuRun.add(jMenuItemLK_SOM_CH_NN_EVO);
 
+        jMenuItemMA_SOM_CH_NN_EVO.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F8, java.awt.event.InputEvent.SHIFT_DOWN_MASK));
+        jMenuItemMA_SOM_CH_NN_EVO.setText("\"Memetic SOM with neuron logic stacks\" (MA-SOM-CH-NN-EVO); F8 but every child is improved with 2-opt & Or-opt local search");
+        jMenuItemMA_SOM_CH_NN_EVO.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemMA_SOM_CH_NN_EVOActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemMA_SOM_CH_NN_EVO);
+
+        jMenuItemRingSOM.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F7, java.awt.event.InputEvent.SHIFT_DOWN_MASK));
+        jMenuItemRingSOM.setText("\"Elastic ring SOM\" (RING-SOM); the classic Kohonen ring of neurons, the tour is the city order along the ring");
+        jMenuItemRingSOM.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemRingSOMActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemRingSOM);
+
+        jMenuItemKarp.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F6, java.awt.event.InputEvent.SHIFT_DOWN_MASK));
+        jMenuItemKarp.setText("\"Karp partitioning\" (KARP); million-node graphs are cut into cells, the cells are solved in parallel and joined");
+        jMenuItemKarp.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemKarpActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemKarp);
+
+        jMenuItemMultilevel.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F5, java.awt.event.InputEvent.SHIFT_DOWN_MASK));
+        jMenuItemMultilevel.setText("\"Multilevel\" (MULTILEVEL); million-node graphs are coarsened by merging nearest neighbours, the coarse tour is refined level by level");
+        jMenuItemMultilevel.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemMultilevelActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemMultilevel);
+
+        jMenuItemAnnealing.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F8, java.awt.event.InputEvent.CTRL_DOWN_MASK));
+        jMenuItemAnnealing.setText("\"Simulated annealing\" (SA); random 2-opt, Or-opt and swap moves to the nearest neighbours while the temperature falls");
+        jMenuItemAnnealing.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemAnnealingActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemAnnealing);
+
+        jMenuItemGLS.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F9, java.awt.event.InputEvent.CTRL_DOWN_MASK));
+        jMenuItemGLS.setText("\"Guided local search\" (GLS); the 2-opt goes on from the local optima by penalizing their longest edges (10 s)");
+        jMenuItemGLS.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemGLSActionPerformed(evt);
+            }
+        });
+        jMenuRun.add(jMenuItemGLS);
+
         jMenuBar1.add(jMenuRun);
 
+        jMenuOptions.setText("Options");
+
+        jCheckBoxMenuItemFloat32.setText("Float32 coordinates (half the memory, used by RING-SOM and the other primitive array algorithms)");
+        jCheckBoxMenuItemFloat32.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxMenuItemFloat32ActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jCheckBoxMenuItemFloat32);
+
+        jCheckBoxMenuItemOffHeap.setText("Off-heap coordinates (direct memory outside of the Java heap, for 10M+ vertices)");
+        jCheckBoxMenuItemOffHeap.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxMenuItemOffHeapActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jCheckBoxMenuItemOffHeap);
+
+        jCheckBoxMenuItemAlpha.setText("Alpha-nearness candidates (the 1-tree lists of F6 and F9 Lin-Kernighan, slower to build)");
+        jCheckBoxMenuItemAlpha.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxMenuItemAlphaActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jCheckBoxMenuItemAlpha);
+
+        jMenuItemGapThreshold.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_G, java.awt.event.InputEvent.CTRL_DOWN_MASK));
+        jMenuItemGapThreshold.setText("Gap threshold... (stop the evolution this close to the lower bound)");
+        jMenuItemGapThreshold.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItemGapThresholdActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jMenuItemGapThreshold);
+
+        jCheckBoxMenuItemWindows.setText("Window re-optimization (re-solve every 10 consecutive tour vertices exactly after the algorithm)");
+        jCheckBoxMenuItemWindows.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxMenuItemWindowsActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jCheckBoxMenuItemWindows);
+
+        jCheckBoxMenuItemHilbertSeed.setText("Hilbert seed for LK (F6 improves the Hilbert curve tour)");
+        jCheckBoxMenuItemHilbertSeed.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxMenuItemHilbertSeedActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jCheckBoxMenuItemHilbertSeed);
+
+        jCheckBoxMenuItemTempering.setText("Parallel tempering (SA on all processor cores)");
+        jCheckBoxMenuItemTempering.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxMenuItemTemperingActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jCheckBoxMenuItemTempering);
+
+        jCheckBoxMenuItemTwoLevel.setText("Two-level list tours (big graphs)");
+        jCheckBoxMenuItemTwoLevel.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxMenuItemTwoLevelActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jCheckBoxMenuItemTwoLevel);
+
+        jCheckBoxMenuItemSplay.setText("Splay tree tours (big graphs)");
+        jCheckBoxMenuItemSplay.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxMenuItemSplayActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jCheckBoxMenuItemSplay);
+
+        jCheckBoxMenuItemStoredDistances.setText("Stored distances for GLS (matrix up to 20 000 vertices, a cache above)");
+        jCheckBoxMenuItemStoredDistances.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxMenuItemStoredDistancesActionPerformed(evt);
+            }
+        });
+        jMenuOptions.add(jCheckBoxMenuItemStoredDistances);
+
+        jMenuBar1.add(jMenuOptions);
+
         jMenuHelp.setText("Help");
 
         jMenuItemAbout.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F1, 0));
@@ -581,7 +811,7 @@ public class User_interface extends javax.swing.JFrame {
     private void jMenuItemNNHActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemNNHActionPerformed
         String result = TSP_Solver_UEF_241908.NearestNeighbour_Algorithm(
             jTextArea1.getText());
-        jTextArea2.setText(result);
+        showResult(result);
     }//GEN-LAST:event_jMenuItemNNHActionPerformed
     /**
      * Calling the 2MST (Prim, since Kruskal and others are not implemented in this version).
@@ -590,7 +820,7 @@ public class User_interface extends javax.swing.JFrame {
     private void jMenuItem2MSTActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem2MSTActionPerformed
         String result = TSP_Solver_UEF_241908.DoubleMST_Algorithm_Prim(
                 jTextArea1.getText());
-        jTextArea2.setText(result);
+        showResult(result);
     }//GEN-LAST:event_jMenuItem2MSTActionPerformed
     /**
      * Calling the CHH.
@@ -599,7 +829,7 @@ public class User_interface extends javax.swing.JFrame {
     private void jMenuItemCHHActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemCHHActionPerformed
         String result = TSP_Solver_UEF_241908.ConvexHull_Algorithm(
                 jTextArea1.getText());
-        jTextArea2.setText(result);
+        showResult(result);
     }//GEN-LAST:event_jMenuItemCHHActionPerformed
     /**
      * About option.
@@ -644,6 +874,7 @@ public class User_interface extends javax.swing.JFrame {
                 public void windowClosing(WindowEvent e) {
                     jMenuFile.setEnabled(true);
                     jMenuRun.setEnabled(true);
+                    jMenuOptions.setEnabled(true);
                     jMenuHelp.setEnabled(true);
                     //System.out.println("about window closed");
                 }
@@ -674,6 +905,7 @@ public class User_interface extends javax.swing.JFrame {
             });
             jMenuFile.setEnabled(false);
             jMenuRun.setEnabled(false);
+            jMenuOptions.setEnabled(false);
             jMenuHelp.setEnabled(false);
             about.addKeyListener(new KeyListener() {
                 /**
@@ -684,6 +916,7 @@ public class User_interface extends javax.swing.JFrame {
                     if(e.getKeyCode() == KeyEvent.VK_ESCAPE) {
                         jMenuFile.setEnabled(true);
                         jMenuRun.setEnabled(true);
+                        jMenuOptions.setEnabled(true);
                         jMenuHelp.setEnabled(true);
                         about.dispose();
                     }
@@ -709,7 +942,7 @@ public class User_interface extends javax.swing.JFrame {
     private void jMenuItemCHRIActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemCHRIActionPerformed
         String result = TSP_Solver_UEF_241908.Christofides_Algorithm(
                 jTextArea1.getText());
-        jTextArea2.setText(result);
+        showResult(result);
     }//GEN-LAST:event_jMenuItemCHRIActionPerformed
     /**
      * Calling SOM CH NN.
@@ -718,7 +951,7 @@ public class User_interface extends javax.swing.JFrame {
     private void jMenuItemSOM_CH_NNActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemSOM_CH_NNActionPerformed
         String result = TSP_Solver_UEF_241908.SOM_CH_NN_Algorithm(
                 jTextArea1.getText());
-        jTextArea2.setText(result);
+        showResult(result);
     }//GEN-LAST:event_jMenuItemSOM_CH_NNActionPerformed
     /**
      * Calling LK3.
@@ -727,7 +960,7 @@ public class User_interface extends javax.swing.JFrame {
     private void jMenuItemLK3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemLK3ActionPerformed
         String result = TSP_Solver_UEF_241908.LK3_Algorithm(
                 jTextArea1.getText());
-        jTextArea2.setText(result);
+        showResult(result);
     }//GEN-LAST:event_jMenuItemLK3ActionPerformed
     /**
      * Calling SOM CH NN EVO.
@@ -736,7 +969,7 @@ public class User_interface extends javax.swing.JFrame {
     private void jMenuItemSOM_CH_NN_EVOActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemSOM_CH_NN_EVOActionPerformed
         String result = TSP_Solver_UEF_241908.SOM_CH_NN_EVO_Algorithm(
                 jTextArea1.getText());
-        jTextArea2.setText(result);
+        showResult(result);
     }//GEN-LAST:event_jMenuItemSOM_CH_NN_EVOActionPerformed
     /**
      * Calling LK SOM CH NN EVO.
@@ -745,26 +978,233 @@ public class User_interface extends javax.swing.JFrame {
     private void jMenuItemLK_SOM_CH_NN_EVOActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemLK_SOM_CH_NN_EVOActionPerformed
         String result = TSP_Solver_UEF_241908.LK_SOM_CH_NN_EVO_Algorithm(
                 jTextArea1.getText(), true);
-        jTextArea2.setText(result);
+        showResult(result);
     }//GEN-LAST:event_jMenuItemLK_SOM_CH_NN_EVOActionPerformed
+    /**
+     * Calling MA SOM CH NN EVO (memetic).
+     * @param evt 
+     */
+    private void jMenuItemMA_SOM_CH_NN_EVOActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemMA_SOM_CH_NN_EVOActionPerformed
+        String result = TSP_Solver_UEF_241908.Memetic_SOM_CH_NN_EVO_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemMA_SOM_CH_NN_EVOActionPerformed
+    /**
+     * Calling RING SOM (the classic elastic ring).
+     * @param evt 
+     */
+    private void jMenuItemRingSOMActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemRingSOMActionPerformed
+        String result = TSP_Solver_UEF_241908.RingSOM_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemRingSOMActionPerformed
+    /**
+     * Float or double coordinates for the next runs.
+     * @param evt 
+     */
+    private void jCheckBoxMenuItemFloat32ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemFloat32ActionPerformed
+        if(jCheckBoxMenuItemFloat32.isSelected()) {
+            jCheckBoxMenuItemOffHeap.setSelected(false);
+        }
+        TSP_Solver_UEF_241908.setCoordinateStorage(jCheckBoxMenuItemFloat32.isSelected() ? 
+                TSP_Instance.STORAGE_FLOAT : TSP_Instance.STORAGE_DOUBLE);
+    }//GEN-LAST:event_jCheckBoxMenuItemFloat32ActionPerformed
+    /**
+     * Off-heap or heap coordinates for the next runs.
+     * @param evt 
+     */
+    private void jCheckBoxMenuItemOffHeapActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemOffHeapActionPerformed
+        if(jCheckBoxMenuItemOffHeap.isSelected()) {
+            jCheckBoxMenuItemFloat32.setSelected(false);
+        }
+        TSP_Solver_UEF_241908.setCoordinateStorage(jCheckBoxMenuItemOffHeap.isSelected() ? 
+                TSP_Instance.STORAGE_OFF_HEAP : TSP_Instance.STORAGE_DOUBLE);
+    }//GEN-LAST:event_jCheckBoxMenuItemOffHeapActionPerformed
+    /**
+     * Alpha-nearness or nearest neighbour candidates for the next runs.
+     * @param evt 
+     */
+    private void jCheckBoxMenuItemAlphaActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemAlphaActionPerformed
+        TSP_Solver_UEF_241908.setAlphaCandidates(jCheckBoxMenuItemAlpha.isSelected());
+    }//GEN-LAST:event_jCheckBoxMenuItemAlphaActionPerformed
+    /**
+     * Asking the gap threshold (%) of the evolution.
+     * @param evt 
+     */
+    private void jMenuItemGapThresholdActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemGapThresholdActionPerformed
+        String answer = JOptionPane.showInputDialog(null, 
+                "Stop the evolution when the gap from the Held-Karp lower bound is at most (%), 0 = off:", 
+                TSP_Solver_UEF_241908.getGapThreshold());
+        if(answer != null) {
+            try {
+                TSP_Solver_UEF_241908.setGapThreshold(Double.parseDouble(answer.trim().replace(',', '.')));
+            }
+            catch(NumberFormatException e) {
+                System.out.println("Not a number: " + answer);
+            }
+        }
+    }//GEN-LAST:event_jMenuItemGapThresholdActionPerformed
+    /**
+     * Sliding window re-optimization on or off for the next runs.
+     * @param evt 
+     */
+    private void jCheckBoxMenuItemWindowsActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemWindowsActionPerformed
+        TSP_Solver_UEF_241908.setWindowOptimization(jCheckBoxMenuItemWindows.isSelected());
+    }//GEN-LAST:event_jCheckBoxMenuItemWindowsActionPerformed
+    /**
+     * Calling KARP (the partitioning of the huge graphs).
+     * @param evt 
+     */
+    private void jMenuItemKarpActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemKarpActionPerformed
+        String result = TSP_Solver_UEF_241908.Karp_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemKarpActionPerformed
+    /**
+     * Calling MULTILEVEL (the coarsening engine of the huge graphs).
+     * @param evt 
+     */
+    private void jMenuItemMultilevelActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemMultilevelActionPerformed
+        String result = TSP_Solver_UEF_241908.Multilevel_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemMultilevelActionPerformed
+    /**
+     * Calling HILBERT (the space-filling curve tour).
+     * @param evt 
+     */
+    private void jMenuItemHilbertActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemHilbertActionPerformed
+        String result = TSP_Solver_UEF_241908.Hilbert_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemHilbertActionPerformed
+    /**
+     * Choosing the start tour of the F6 Lin-Kernighan.
+     * @param evt 
+     */
+    private void jCheckBoxMenuItemHilbertSeedActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemHilbertSeedActionPerformed
+        TSP_Solver_UEF_241908.setHilbertSeed(jCheckBoxMenuItemHilbertSeed.isSelected());
+    }//GEN-LAST:event_jCheckBoxMenuItemHilbertSeedActionPerformed
+    /**
+     * Calling GREEDY (the greedy edge heuristic).
+     * @param evt 
+     */
+    private void jMenuItemGreedyActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemGreedyActionPerformed
+        String result = TSP_Solver_UEF_241908.Greedy_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemGreedyActionPerformed
+    /**
+     * Calling SAVINGS (the Clarke-Wright heuristic).
+     * @param evt 
+     */
+    private void jMenuItemSavingsActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemSavingsActionPerformed
+        String result = TSP_Solver_UEF_241908.Savings_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemSavingsActionPerformed
+    /**
+     * Calling ONION (the convex hull layers).
+     * @param evt 
+     */
+    private void jMenuItemOnionActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemOnionActionPerformed
+        String result = TSP_Solver_UEF_241908.Onion_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemOnionActionPerformed
+    /**
+     * Calling SA (the simulated annealing).
+     * @param evt 
+     */
+    private void jMenuItemAnnealingActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemAnnealingActionPerformed
+        String result = TSP_Solver_UEF_241908.Annealing_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemAnnealingActionPerformed
+    /**
+     * Choosing the simulated annealing mode.
+     * @param evt 
+     */
+    private void jCheckBoxMenuItemTemperingActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemTemperingActionPerformed
+        TSP_Solver_UEF_241908.setParallelTempering(jCheckBoxMenuItemTempering.isSelected());
+    }//GEN-LAST:event_jCheckBoxMenuItemTemperingActionPerformed
+    /**
+     * Calling GLS (the guided local search).
+     * @param evt 
+     */
+    private void jMenuItemGLSActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemGLSActionPerformed
+        String result = TSP_Solver_UEF_241908.GLS_Algorithm(
+                jTextArea1.getText());
+        showResult(result);
+    }//GEN-LAST:event_jMenuItemGLSActionPerformed
+    /**
+     * Two-level list or automatic tours for the next runs.
+     * @param evt 
+     */
+    private void jCheckBoxMenuItemTwoLevelActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemTwoLevelActionPerformed
+        if(jCheckBoxMenuItemTwoLevel.isSelected()) {
+            jCheckBoxMenuItemSplay.setSelected(false);
+        }
+        TSP_Solver_UEF_241908.setTourList(jCheckBoxMenuItemTwoLevel.isSelected() ? 
+                Tour_List.LIST_TWO_LEVEL : Tour_List.LIST_AUTOMATIC);
+    }//GEN-LAST:event_jCheckBoxMenuItemTwoLevelActionPerformed
+    /**
+     * Splay tree or automatic tours for the next runs.
+     * @param evt 
+     */
+    private void jCheckBoxMenuItemSplayActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemSplayActionPerformed
+        if(jCheckBoxMenuItemSplay.isSelected()) {
+            jCheckBoxMenuItemTwoLevel.setSelected(false);
+        }
+        TSP_Solver_UEF_241908.setTourList(jCheckBoxMenuItemSplay.isSelected() ? 
+                Tour_List.LIST_SPLAY : Tour_List.LIST_AUTOMATIC);
+    }//GEN-LAST:event_jCheckBoxMenuItemSplayActionPerformed
+    /**
+     * Stored distances (Distance_Oracle) for the guided local search of the next runs.
+     * @param evt 
+     */
+    private void jCheckBoxMenuItemStoredDistancesActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemStoredDistancesActionPerformed
+        TSP_Solver_UEF_241908.setStoredDistances(jCheckBoxMenuItemStoredDistances.isSelected());
+    }//GEN-LAST:event_jCheckBoxMenuItemStoredDistancesActionPerformed
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemAlpha;
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemFloat32;
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemHilbertSeed;
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemOffHeap;
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemSplay;
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemStoredDistances;
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemTempering;
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemTwoLevel;
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemWindows;
     private javax.swing.JMenuBar jMenuBar1;
     private javax.swing.JMenu jMenuFile;
     private javax.swing.JMenu jMenuHelp;
     private javax.swing.JMenuItem jMenuItem2MST;
     private javax.swing.JMenuItem jMenuItemAbout;
+    private javax.swing.JMenuItem jMenuItemAnnealing;
     private javax.swing.JMenuItem jMenuItemCHH;
     private javax.swing.JMenuItem jMenuItemCHRI;
     private javax.swing.JMenuItem jMenuItemExit;
+    private javax.swing.JMenuItem jMenuItemGLS;
+    private javax.swing.JMenuItem jMenuItemGapThreshold;
+    private javax.swing.JMenuItem jMenuItemGreedy;
+    private javax.swing.JMenuItem jMenuItemHilbert;
+    private javax.swing.JMenuItem jMenuItemKarp;
     private javax.swing.JMenuItem jMenuItemLK3;
     private javax.swing.JMenuItem jMenuItemLK_SOM_CH_NN_EVO;
+    private javax.swing.JMenuItem jMenuItemMA_SOM_CH_NN_EVO;
+    private javax.swing.JMenuItem jMenuItemMultilevel;
     private javax.swing.JMenuItem jMenuItemNNH;
     private javax.swing.JMenuItem jMenuItemNew;
+    private javax.swing.JMenuItem jMenuItemOnion;
     private javax.swing.JMenuItem jMenuItemOpen;
+    private javax.swing.JMenuItem jMenuItemRingSOM;
     private javax.swing.JMenuItem jMenuItemSOM_CH_NN;
     private javax.swing.JMenuItem jMenuItemSOM_CH_NN_EVO;
     private javax.swing.JMenuItem jMenuItemSave;
+    private javax.swing.JMenuItem jMenuItemSavings;
+    private javax.swing.JMenu jMenuOptions;
     private javax.swing.JMenu jMenuRun;
     private javax.swing.JScrollPane jScrollPane1;
     private javax.swing.JScrollPane jScrollPane2;